@@ -1,5 +1,8 @@
 package com.dokkaebi.config;
 
+import com.dokkaebi.security.ApiTokenAuthenticationFilter;
+import com.dokkaebi.security.ApiTokenSecurityContextRepository;
+import com.dokkaebi.security.ApiTokenVerifier;
 import com.dokkaebi.security.CustomAuthenticationFailureHandler;
 import com.dokkaebi.security.CustomAuthenticationProvider;
 import com.dokkaebi.security.CustomAuthenticationSuccessHandler;
@@ -17,6 +20,7 @@ import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.session.SessionManagementFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.CorsUtils;
@@ -32,6 +36,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     private final CustomAuthenticationProvider customAuthenticationProvider;
     private final CustomLogoutHandler customLogoutHandler;
     private final CustomLogoutSuccessHandler customLogoutSuccessHandler;
+    private final ApiTokenVerifier apiTokenVerifier;
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
@@ -54,6 +59,12 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         // 새로구현한 Filter를 UsernamePasswordAuthenticationFilter layer에 삽입
         http.addFilterAt(getAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
 
+        // API 토큰 요청 (Authorization: Bearer dkb_...) 은 session 없이 요청마다 인증
+        // session 관리 (maximumSessions) 뒤에서 인증하므로 동시 로그인 제한에도 걸리지 않는다.
+        http.securityContext().securityContextRepository(new ApiTokenSecurityContextRepository());
+        http.addFilterAfter(new ApiTokenAuthenticationFilter(apiTokenVerifier),
+            SessionManagementFilter.class);
+
 //        //자동 로그인 기능
 //        http.rememberMe()
 //            .rememberMeParameter("remember")      // 기본 파라미터명은 remember-me
@@ -0,0 +1,29 @@
+package com.dokkaebi.config;
+
+import com.dokkaebi.security.CachingSessionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.jdbc.config.annotation.web.http.EnableJdbcHttpSession;
+
+/**
+ * session 은 JDBC 저장소 (SPRING_SESSION) 에 두고, 요청에서는 그 앞의 CachingSessionRepository 를 쓴다.
+ * (SessionRepository 를 직접 등록하면 spring.session.store-type 자동 설정이 꺼지므로 JDBC 저장소도 여기서 켠다)
+ */
+@Configuration
+@EnableJdbcHttpSession
+public class SessionConfig {
+
+  @Bean
+  @Primary
+  public CachingSessionRepository cachingSessionRepository(
+      JdbcIndexedSessionRepository sessionRepository, JdbcTemplate jdbcTemplate,
+      @Value("${dokkaebi.session.cacheSize}") int cacheSize,
+      @Value("${dokkaebi.session.cacheSeconds}") int cacheSeconds) {
+    return new CachingSessionRepository(sessionRepository, jdbcTemplate,
+        JdbcIndexedSessionRepository.DEFAULT_TABLE_NAME, cacheSize, cacheSeconds);
+  }
+}
@@ -0,0 +1,55 @@
+package com.dokkaebi.controller.admin;
+
+import com.dokkaebi.dto.build.BuildQueueResponseDto;
+import com.dokkaebi.service.build.BuildQueueService;
+import com.dokkaebi.util.SettingCatalog;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Api(tags = {"Admin"})
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminController {
+
+  private final BuildQueueService buildQueueService;
+
+  private final SettingCatalog settingCatalog;
+
+  @ApiOperation(value = "빌드 큐 상태", notes = "빌드 큐의 실행/대기 현황을 반환한다.")
+  @GetMapping("/build/queue")
+  public ResponseEntity<BuildQueueResponseDto> buildQueue() {
+    log.info("API Request received");
+
+    BuildQueueResponseDto buildQueue = buildQueueService.status();
+
+    log.info("API Response return : running = {} , queued = {}", buildQueue.getRunning(),
+        buildQueue.getQueued());
+    return ResponseEntity.ok(buildQueue);
+  }
+
+  @ApiOperation(value = "설정 목록 다시 읽기", notes = "프레임워크/DB 종류와 버전, DB 속성 파일을 다시 읽는다.")
+  @PostMapping("/setting/refresh")
+  public ResponseEntity<Map<String, Object>> refreshSetting() throws IOException {
+    log.info("API Request received");
+
+    int count = settingCatalog.refresh();
+
+    Map<String, Object> map = new HashMap<>();
+    map.put("status", "Success");
+    map.put("count", count);
+    log.info("API Response return : count = {}", count);
+    return ResponseEntity.ok(map);
+  }
+}
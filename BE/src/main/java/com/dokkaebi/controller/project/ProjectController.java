@@ -1,9 +1,14 @@
 package com.dokkaebi.controller.project;
 
 
+import com.dokkaebi.common.exception.UserDefindedException;
 import com.dokkaebi.core.gitlab.GitlabWrapper;
 import com.dokkaebi.core.gitlab.dto.GitlabWebHookDto;
+import com.dokkaebi.core.util.LogReader;
+import com.dokkaebi.dto.build.BuildQueueResponseDto;
 import com.dokkaebi.dto.project.BuildDetailResponseDto;
+import com.dokkaebi.dto.project.BuildLogResponseDto;
+import com.dokkaebi.dto.project.BuildHistoryResponseDto;
 import com.dokkaebi.dto.project.BuildTotalResponseDto;
 import com.dokkaebi.dto.project.ConfigHistoryListResponseDto;
 import com.dokkaebi.dto.project.ProjectConfigDto;
@@ -12,22 +17,31 @@ import com.dokkaebi.dto.project.framework.DbTypeResponseDto;
 import com.dokkaebi.dto.project.framework.DbVersionResponseDto;
 import com.dokkaebi.dto.project.framework.FrameworkTypeResponseDto;
 import com.dokkaebi.dto.project.framework.FrameworkVersionResponseDto;
+import com.dokkaebi.dto.user.UserDetailDto;
 import com.dokkaebi.entity.project.Project;
+import com.dokkaebi.service.build.BuildJob;
+import com.dokkaebi.service.build.BuildQueueService;
 import com.dokkaebi.service.framework.SettingConfigService;
 import com.dokkaebi.service.project.ProjectServiceImpl;
+import com.dokkaebi.service.project.ProjectSummaryIndex;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import java.io.IOException;
-import java.time.LocalDateTime;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javassist.NotFoundException;
-import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -38,6 +52,9 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Api(tags = {"Project"})
 @RestController
@@ -49,6 +66,8 @@ public class ProjectController {
 
   private final SettingConfigService configService;
 
+  private final BuildQueueService buildQueueService;
+
   @ApiOperation(value = "프로젝트 삭제")
   @DeleteMapping("/{projectId}")
   public ResponseEntity deleteProject(@PathVariable Long projectId)
@@ -78,7 +97,7 @@ public class ProjectController {
 
   @ApiOperation(value = "프로젝트 생성", notes = "프로젝트를 생성한다.")
   @PostMapping
-  public ResponseEntity upsertProject(HttpServletRequest request,@Valid @RequestBody ProjectConfigDto projectConfigDto) throws NotFoundException, IOException {
+  public ResponseEntity upsertProject(@AuthenticationPrincipal UserDetailDto user, @Valid @RequestBody ProjectConfigDto projectConfigDto) throws NotFoundException, IOException {
     //요청 로그출력
     log.info("API Request received : projectConfigDto = {} ",projectConfigDto.toString());
 
@@ -87,7 +106,7 @@ public class ProjectController {
     //히스토리 저장
     try { //유저가 있을때
       for(Project project : upsertResult.keySet())
-        projectService.createConfigHistory(request,project,upsertResult.get(project));
+        projectService.createConfigHistory(user,project,upsertResult.get(project));
     }catch (Exception e){ // 유저가 없을때 //ex)git hook 상황
       log.error("information does not exist Exception {}",e);
     }
@@ -107,28 +126,37 @@ public class ProjectController {
     return ResponseEntity.ok(projectService.findConfigById(projectId));
   }
 
-  @ApiOperation(value = "프로젝트 빌드", notes = "프로젝트 빌드를 한다.")
+  @ApiOperation(value = "프로젝트 빌드", notes = "프로젝트 빌드를 빌드 큐에 등록한다. 진행 상황은 buildId 로 /build/job 에서 확인한다.")
   @PostMapping("/build")
-  public ResponseEntity buildProject(Long projectId ) throws IOException, NotFoundException {
+  public ResponseEntity buildProject(Long projectId) throws UserDefindedException {
     log.info("API Request received : projectId = {} ",projectId);
-    LocalDateTime startTime = LocalDateTime.now();
 
-    //프로젝트 기본 설정 시작
-    projectService.build(projectId, null);
-    //build 시작
-    projectService.pullStart(projectId, null);
-    projectService.buildStart(projectId, null);
-    projectService.runStart(projectId, null);
+    //빌드 큐 등록
+    BuildJob job = buildQueueService.submit(projectId, null);
+
+    Map<String, Object> map = new HashMap<>();
+    map.put("status", "Accepted");
+    map.put("buildId", job.getId());
+    log.info("API Response return : buildId = {}", job.getId());
+    return ResponseEntity.accepted().body(map);
+  }
+
+  @ApiOperation(value = "빌드 요청 상태", notes = "빌드 큐에 등록한 요청의 상태와 빌드 넘버를 가져온다. 대체된 요청은 supersededBy 를 따라간다.")
+  @GetMapping("/build/job/{buildId}")
+  public ResponseEntity<BuildQueueResponseDto.Job> buildJob(@PathVariable String buildId)
+      throws UserDefindedException {
+    log.info("API Request received : buildId = {}", buildId);
 
-    LocalDateTime endTime = LocalDateTime.now();
-    String duration = projectService.makeDuration(startTime,endTime);
+    BuildQueueResponseDto.Job job = buildQueueService.find(buildId);
 
-    return ResponseEntity.ok(projectService.updateProjectDone(projectId,duration));
+    log.info("API Response return : stateType = {} , buildNumber = {}", job.getStateType(),
+        job.getBuildNumber());
+    return ResponseEntity.ok(job);
   }
 
   @ApiOperation(value = "프레임 워크 타입", notes = "프레임 워크 타입을 반환 해준다.")
   @GetMapping("/frameworkType")
-  public ResponseEntity<List<FrameworkTypeResponseDto>> getFrameworkType(){
+  public ResponseEntity<List<FrameworkTypeResponseDto>> getFrameworkType() throws IOException {
     log.info("API Request received");
 
     //type list 입력
@@ -140,7 +168,7 @@ public class ProjectController {
   }
   @ApiOperation(value = "프레임 워크 버전", notes = "프레임 워크 타입별 버전을 반환 해준다.")
   @GetMapping("/frameworkVersion")
-  public ResponseEntity<FrameworkVersionResponseDto> GetFrameworkVersion(@RequestParam Long typeId) throws NotFoundException {
+  public ResponseEntity<FrameworkVersionResponseDto> GetFrameworkVersion(@RequestParam Long typeId) throws NotFoundException, IOException {
     //version 요청 로그 출력
     log.info("frameworkVersion API received typeId: {}",typeId);
 
@@ -149,7 +177,7 @@ public class ProjectController {
 
   @ApiOperation(value = "데이터베이스 타입", notes = "데이터베이스 서버 종류를 반환해준다.")
   @GetMapping("/dbType")
-  public ResponseEntity<List<DbTypeResponseDto>> dbTypes(){
+  public ResponseEntity<List<DbTypeResponseDto>> dbTypes() throws IOException {
     //type 요청 로그 출력
     log.info("dbType API received");
 
@@ -185,6 +213,21 @@ public class ProjectController {
     return ResponseEntity.ok(buildTotalResponseDtos);
   }
 
+  @ApiOperation(value = "프로젝트 빌드 이력", notes = "before 빌드 넘버보다 이전 빌드를 최근 빌드부터 최대 limit 개 가져온다. 다음 요청은 nextBefore 부터 읽는다.")
+  @GetMapping("/build/history")
+  public ResponseEntity<BuildHistoryResponseDto> buildHistory(@RequestParam Long projectId,
+      @RequestParam(required = false) Long before,
+      @RequestParam(defaultValue = "20") int limit) {
+    log.info("API Request received : projectId = {} , before = {} , limit = {}", projectId, before,
+        limit);
+
+    BuildHistoryResponseDto buildHistoryResponseDto = projectService.buildHistory(projectId,
+        before, limit);
+
+    log.info("API Response return");
+    return ResponseEntity.ok(buildHistoryResponseDto);
+  }
+
   @ApiOperation(value = "프로젝트 상세", notes = "프로젝트 상세 내역을 가져온다.")
   @GetMapping("/build/detail")
   public ResponseEntity<BuildDetailResponseDto> buildDetail(Long buildStateId) throws NotFoundException {
@@ -199,15 +242,93 @@ public class ProjectController {
     return ResponseEntity.ok(buildDetailResponseDto);
   }
 
+  @ApiOperation(value = "빌드 로그 (바이트)", notes = "offset 바이트부터 최대 limit 바이트의 로그를 가져온다. 다음 요청은 nextOffset 부터 읽는다.")
+  @GetMapping("/build/log")
+  public ResponseEntity<BuildLogResponseDto> buildLog(Long buildStateId,
+      @RequestParam(defaultValue = "0") long offset,
+      @RequestParam(defaultValue = "65536") int limit) throws NotFoundException, IOException {
+    log.info("API Request received : buildStateId = {} , offset = {} , limit = {}", buildStateId,
+        offset, limit);
+
+    BuildLogResponseDto buildLogResponseDto = projectService.buildLog(buildStateId, offset, limit);
+
+    log.info("API Response return");
+    return ResponseEntity.ok(buildLogResponseDto);
+  }
+
+  @ApiOperation(value = "빌드 로그 (줄)", notes = "from 번째 줄(0부터)부터 count 줄의 로그를 가져온다.")
+  @GetMapping("/build/log/lines")
+  public ResponseEntity<BuildLogResponseDto> buildLogLines(Long buildStateId,
+      @RequestParam(defaultValue = "0") long from,
+      @RequestParam(defaultValue = "500") int count) throws NotFoundException, IOException {
+    log.info("API Request received : buildStateId = {} , from = {} , count = {}", buildStateId,
+        from, count);
+
+    BuildLogResponseDto buildLogResponseDto = projectService.buildLogLines(buildStateId, from,
+        count);
+
+    log.info("API Response return");
+    return ResponseEntity.ok(buildLogResponseDto);
+  }
+
+  @ApiOperation(value = "빌드 로그 (마지막 줄)", notes = "마지막 lines 줄의 로그를 가져온다.")
+  @GetMapping("/build/log/tail")
+  public ResponseEntity<BuildLogResponseDto> buildLogTail(Long buildStateId,
+      @RequestParam(defaultValue = "200") int lines) throws NotFoundException, IOException {
+    log.info("API Request received : buildStateId = {} , lines = {}", buildStateId, lines);
+
+    BuildLogResponseDto buildLogResponseDto = projectService.buildLogTail(buildStateId, lines);
+
+    log.info("API Response return");
+    return ResponseEntity.ok(buildLogResponseDto);
+  }
+
+  @ApiOperation(value = "실시간 빌드 로그", notes = "진행 중인 단계의 로그를 SSE 로 받는다. (log : 줄 목록, done : 끝)")
+  @GetMapping(value = "/build/log/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter buildLogStream(Long buildStateId) throws NotFoundException {
+    log.info("API Request received : buildStateId = {}", buildStateId);
+
+    SseEmitter emitter = projectService.buildLogStream(buildStateId);
+
+    log.info("API Response return");
+    return emitter;
+  }
+
+  @ApiOperation(value = "빌드 로그 다운로드", notes = "로그 파일 전체를 내려받는다.")
+  @GetMapping("/build/log/download")
+  public ResponseEntity<StreamingResponseBody> buildLogDownload(Long buildStateId)
+      throws NotFoundException, IOException {
+    log.info("API Request received : buildStateId = {}", buildStateId);
+
+    Path path = projectService.buildLogPath(buildStateId);
+    StreamingResponseBody body = outputStream ->
+        LogReader.transfer(path, Channels.newChannel(outputStream));
+
+    log.info("API Response return");
+    return ResponseEntity.ok()
+        .contentType(MediaType.TEXT_PLAIN)
+        .contentLength(LogReader.size(path))
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(path.getFileName() + ".log").build()
+                .toString())
+        .body(body);
+  }
+
   @ApiOperation(value = "프로젝트 목록", notes = "프로젝트 목록을 가져온다.")
   @GetMapping("/all")
-  public ResponseEntity<List<ProjectListResponseDto>> projects() throws IOException {
+  public ResponseEntity<List<ProjectListResponseDto>> projects(WebRequest request)
+      throws IOException {
     log.info("API Request received");
 
-    List<ProjectListResponseDto> projectList = projectService.projectList();
+    ProjectSummaryIndex.Snapshot snapshot = projectService.projectListSnapshot();
+    // 목록이 바뀌지 않았으면 304 (If-None-Match)
+    if (request.checkNotModified(snapshot.getEtag())) {
+      log.info("API Response return : not modified");
+      return null;
+    }
 
     log.info("API Response return");
-    return ResponseEntity.ok(projectList);
+    return ResponseEntity.ok().eTag(snapshot.getEtag()).body(snapshot.getProjects());
   }
 
 
@@ -226,9 +347,8 @@ public class ProjectController {
   @PostMapping("/hook/{projectName}")
   public ResponseEntity webHook(@PathVariable String projectName,
       @RequestHeader(name = "X-Gitlab-Token") String token,
-      @RequestBody Map<String, Object> params) throws NotFoundException, IOException {
+      @RequestBody Map<String, Object> params) throws NotFoundException, UserDefindedException {
     log.info("API Request received : projectName = {}",projectName);
-    LocalDateTime startTime=LocalDateTime.now();
     GitlabWebHookDto webHookDto = GitlabWrapper.wrap(params);
 
     Project project = projectService.findProjectByName(projectName)
@@ -239,16 +359,13 @@ public class ProjectController {
 
     log.debug("ProjectController.Webhook : X-Gitlab-Toke : {} / " , token,params);
 
-    //프로젝트 기본 설정 시작
-    projectService.build(project.getId(), webHookDto);
-    projectService.pullStart(project.getId(), webHookDto);
-    projectService.buildStart(project.getId(), webHookDto);
-    projectService.runStart(project.getId(), webHookDto);
+    //빌드 큐 등록
+    BuildJob job = buildQueueService.submit(project.getId(), webHookDto);
 
-    LocalDateTime endTime=LocalDateTime.now();
-
-    String duration =projectService.makeDuration(startTime,endTime);
-    log.info("API Response null");
-    return ResponseEntity.ok(projectService.updateProjectDone(project.getId(),duration));
+    Map<String, Object> map = new HashMap<>();
+    map.put("status", "Accepted");
+    map.put("buildId", job.getId());
+    log.info("API Response return : buildId = {}", job.getId());
+    return ResponseEntity.accepted().body(map);
   }
-}
\ No newline at end of file
+}
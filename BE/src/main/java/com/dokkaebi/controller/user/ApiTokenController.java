@@ -0,0 +1,74 @@
+package com.dokkaebi.controller.user;
+
+import com.dokkaebi.dto.user.ApiTokenRequestDto;
+import com.dokkaebi.dto.user.ApiTokenResponseDto;
+import com.dokkaebi.dto.user.UserDetailDto;
+import com.dokkaebi.service.user.ApiTokenService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javassist.NotFoundException;
+import javax.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Api(tags = {"ApiToken"})
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+@RequestMapping("/api/token")
+public class ApiTokenController {
+
+    private final ApiTokenService apiTokenService;
+
+    @ApiOperation(value = "API 토큰 발급", notes = "토큰 원문은 이 응답에서만 확인할 수 있다. 요청 헤더 : Authorization: Bearer {token}")
+    @PostMapping
+    public ResponseEntity<ApiTokenResponseDto> createToken(
+        @AuthenticationPrincipal UserDetailDto user,
+        @Valid @RequestBody ApiTokenRequestDto apiTokenRequestDto) throws NotFoundException {
+        log.info("API Request received : user = {} , name = {}", user.getUsername(),
+            apiTokenRequestDto.getName());
+
+        ApiTokenResponseDto apiToken = apiTokenService.create(user.getId(), apiTokenRequestDto);
+
+        log.info("API Response return : tokenId = {}", apiToken.getId());
+        return ResponseEntity.ok(apiToken);
+    }
+
+    @ApiOperation(value = "API 토큰 목록", notes = "로그인한 사용자의 토큰 목록을 반환한다.")
+    @GetMapping
+    public ResponseEntity<List<ApiTokenResponseDto>> tokens(
+        @AuthenticationPrincipal UserDetailDto user) {
+        log.info("API Request received : user = {}", user.getUsername());
+
+        List<ApiTokenResponseDto> tokens = apiTokenService.findAll(user.getId());
+
+        log.info("API Response return : {} tokens", tokens.size());
+        return ResponseEntity.ok(tokens);
+    }
+
+    @ApiOperation(value = "API 토큰 폐기", notes = "폐기한 토큰은 바로 쓸 수 없다.")
+    @DeleteMapping("/{tokenId}")
+    public ResponseEntity deleteToken(@AuthenticationPrincipal UserDetailDto user,
+        @PathVariable Long tokenId) throws NotFoundException {
+        log.info("API Request received : user = {} , tokenId = {}", user.getUsername(), tokenId);
+
+        apiTokenService.delete(user.getId(), tokenId);
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("status", "Success");
+        log.info("API Response return : Success");
+        return ResponseEntity.ok(map);
+    }
+}
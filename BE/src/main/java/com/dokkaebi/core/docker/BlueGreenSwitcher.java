@@ -0,0 +1,292 @@
+package com.dokkaebi.core.docker;
+
+import com.dokkaebi.core.docker.vo.docker.BuildConfig;
+import com.dokkaebi.core.docker.vo.docker.DokkaebiProperty;
+import com.dokkaebi.core.docker.vo.nginx.NginxConfig;
+import com.dokkaebi.core.docker.vo.nginx.NginxProxyLocation;
+import com.dokkaebi.core.util.CommandCanceller;
+import com.dokkaebi.core.util.CommandInterpreter;
+import com.dokkaebi.util.FileManager;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * nginx 가 연결하는 서비스를 중단 없이 교체한다.
+ *  1. 새 컨테이너를 {projectName}-{name}-blue / -green 중 쓰지 않는 이름과 임의의 host 포트로 띄운다.
+ *  2. publish 된 host 포트로 준비 여부를 확인한다. 실패하면 새 컨테이너를 지우고 기존 컨테이너는 그대로 둔다.
+ *  3. nginx location 의 url 을 새 컨테이너로 바꾼 default.conf 를 nginx 컨테이너에 복사하고 reload 한다.
+ *  4. drainSeconds 동안 기존 컨테이너가 처리 중인 요청을 마치도록 기다린 뒤 지운다.
+ * 서비스별 실행 중인 컨테이너 이름은 {projectPath}/bluegreen 에 저장한다. (설정 저장 시 지워지지 않는 위치)
+ */
+@Slf4j
+public class BlueGreenSwitcher {
+
+    private static final String LOG_NAME = "Run";
+    private static final String STATE_FILE = "bluegreen";
+    private static final String NGINX_PATH = "nginx";
+    private static final String NGINX_CONF_PATH = "/etc/nginx/conf.d/default.conf";
+    private static final String BLUE = "-blue";
+    private static final String GREEN = "-green";
+
+    private final DockerAdapter dockerAdapter;
+    private final String projectPath;
+    private final String projectName;
+    private final PortProbe portProbe;
+    private final int drainSeconds;
+
+    private final Map<String, String> liveContainers;
+
+    public BlueGreenSwitcher(DockerAdapter dockerAdapter, String projectPath, String projectName,
+        PortProbe portProbe, int drainSeconds) {
+        this.dockerAdapter = dockerAdapter;
+        this.projectPath = projectPath;
+        this.projectName = projectName;
+        this.portProbe = portProbe;
+        this.drainSeconds = drainSeconds;
+        this.liveContainers = liveContainers(projectPath);
+    }
+
+    /**
+     * BuildConfig 이름 - 실행 중인 컨테이너 이름 (BlueGreen 으로 띄운 적이 없으면 비어 있음)
+     */
+    public static Map<String, String> liveContainers(String projectPath) {
+        Map<String, String> containers = new LinkedHashMap<>();
+        if (!new File(projectPath, STATE_FILE).exists()) {
+            return containers;
+        }
+        try {
+            Map<?, ?> state = FileManager.loadJsonFile(projectPath, STATE_FILE, Map.class);
+            state.forEach((name, container) -> containers.put(name.toString(), container.toString()));
+        } catch (IOException e) {
+            log.error("liveContainers : load failed {}", e.getMessage());
+        }
+        return containers;
+    }
+
+    /**
+     * nginx location 이 가리키는 BuildConfig 목록 (nginx 를 포함하는 BuildConfig 는 제외)
+     * url 의 host 가 {projectName}-{name} 이거나, 포트가 BuildConfig 가 publish 한 host 포트이면 가리키는 것으로 본다.
+     */
+    public List<BuildConfig> routes(List<BuildConfig> buildConfigs, NginxConfig nginxConfig) {
+        List<BuildConfig> routes = new ArrayList<>();
+        if (nginxConfig == null || nginxConfig.checkEmpty()) {
+            return routes;
+        }
+        for (BuildConfig config : buildConfigs) {
+            if (config.useNginx()) {
+                continue;
+            }
+            for (NginxProxyLocation location : nginxConfig.getLocations()) {
+                if (containerPort(config, location.getUrl()) != null) {
+                    routes.add(config);
+                    break;
+                }
+            }
+        }
+        log.info("routes : {}", routes.size());
+        return routes;
+    }
+
+    /**
+     * configs 의 새 컨테이너를 띄워 nginx 를 전환하고 기존 컨테이너를 지운다.
+     * configs 가 비어 있어도 nginx 컨테이너에 현재 실행 중인 컨테이너로 연결하는 default.conf 를 다시 적용한다.
+     * @param configs 새로 띄울 BuildConfig ({@link #routes} 에 포함되어야 함)
+     * @param routes {@link #routes} 의 결과
+     * @param nginxBuildConfig nginx 를 포함하는 BuildConfig
+     */
+    public void switchOver(String logPath, int buildNumber, List<BuildConfig> configs,
+        List<BuildConfig> routes, BuildConfig nginxBuildConfig, NginxConfig nginxConfig)
+        throws IOException {
+        log.info("switchOver Start : buildNumber = {} , services = {}", buildNumber, configs.size());
+        CommandCanceller canceller = new CommandCanceller();
+        List<String> streams = new ArrayList<>();
+        Map<String, String> next = new LinkedHashMap<>();
+        try {
+            for (BuildConfig config : configs) {
+                String stream = "switch-" + config.getName();
+                streams.add(stream);
+                String container = nextContainer(config);
+                next.put(config.getName(), container);
+                start(logPath, buildNumber, stream, config, container,
+                    routedPort(config, nginxConfig), canceller);
+            }
+
+            String stream = "switch-nginx";
+            streams.add(stream);
+            reload(logPath, buildNumber, stream, routes, next, nginxBuildConfig, nginxConfig,
+                canceller);
+        } catch (IOException e) {
+            log.error("switchOver Failed : remove new containers {}", e.getMessage());
+            removeQuietly(next.values());
+            CommandInterpreter.mergeStreams(logPath, LOG_NAME, buildNumber, streams);
+            throw e;
+        }
+
+        drain();
+        List<String> old = new ArrayList<>();
+        for (BuildConfig config : configs) {
+            old.add(currentContainer(config.getName()));
+        }
+        removeQuietly(old);
+
+        liveContainers.putAll(next);
+        save();
+        CommandInterpreter.mergeStreams(logPath, LOG_NAME, buildNumber, streams);
+        log.info("switchOver Done : {}", next);
+    }
+
+    /**
+     * BlueGreen 이 아닌 방식으로 다시 띄운 서비스는 저장된 컨테이너 이름을 지운다.
+     */
+    public void release(Collection<String> names) throws IOException {
+        if (liveContainers.keySet().removeAll(names)) {
+            log.info("release : {}", names);
+            save();
+        }
+    }
+
+    private void start(String logPath, int buildNumber, String stream, BuildConfig config,
+        String container, String containerPort, CommandCanceller canceller) throws IOException {
+        CommandInterpreter.runStreamTask(logPath, LOG_NAME, buildNumber, stream,
+            dockerAdapter.getRemoveTask(List.of(container))
+                .andThen(dockerAdapter.getRunAsTask(config, container)), canceller);
+
+        int hostPort = dockerAdapter.getHostPort(container, containerPort);
+        CommandInterpreter.writeStream(logPath, LOG_NAME, buildNumber, stream,
+            "probe : " + container + " " + containerPort + " -> " + hostPort);
+        portProbe.await(container, hostPort, canceller);
+        CommandInterpreter.writeStream(logPath, LOG_NAME, buildNumber, stream,
+            "ready : " + container);
+    }
+
+    // location url 을 실행 중인 (또는 새) 컨테이너로 바꾼 default.conf 를 nginx 컨테이너에 적용한다.
+    private void reload(String logPath, int buildNumber, String stream, List<BuildConfig> routes,
+        Map<String, String> next, BuildConfig nginxBuildConfig, NginxConfig nginxConfig,
+        CommandCanceller canceller) throws IOException {
+        List<NginxProxyLocation> locations = new ArrayList<>();
+        for (NginxProxyLocation location : nginxConfig.getLocations()) {
+            locations.add(new NginxProxyLocation(location.getLocation(),
+                target(location.getUrl(), routes, next)));
+        }
+        NginxConfig liveConfig = new NginxConfig(nginxConfig.getDomains(), locations,
+            nginxConfig.isHttps(), nginxConfig.getNginxHttpsOption(), nginxConfig.getMaxBodySize());
+
+        String nginxPath = projectPath + "/" + NGINX_PATH;
+        EtcConfigMaker.nginxConfig(nginxPath, liveConfig);
+        String nginxContainer = dockerAdapter.getContainerName(nginxBuildConfig);
+        CommandInterpreter.runStream(logPath, LOG_NAME, buildNumber, stream,
+            List.of(dockerAdapter.getCopyCommand(nginxPath + "/default.conf", nginxContainer,
+                    NGINX_CONF_PATH),
+                dockerAdapter.getReloadNginxCommand(nginxContainer)), canceller);
+    }
+
+    private String target(String url, List<BuildConfig> routes, Map<String, String> next) {
+        for (BuildConfig config : routes) {
+            String containerPort = containerPort(config, url);
+            if (containerPort == null) {
+                continue;
+            }
+            URI uri = uri(url);
+            String container = next.getOrDefault(config.getName(),
+                currentContainer(config.getName()));
+            StringBuilder sb = new StringBuilder();
+            sb.append(uri.getScheme()).append("://").append(container).append(':')
+                .append(containerPort);
+            if (uri.getRawPath() != null) {
+                sb.append(uri.getRawPath());
+            }
+            if (uri.getRawQuery() != null) {
+                sb.append('?').append(uri.getRawQuery());
+            }
+            return sb.toString();
+        }
+        return url;
+    }
+
+    private String routedPort(BuildConfig config, NginxConfig nginxConfig) throws IOException {
+        for (NginxProxyLocation location : nginxConfig.getLocations()) {
+            String containerPort = containerPort(config, location.getUrl());
+            if (containerPort != null) {
+                return containerPort;
+            }
+        }
+        throw new IOException("no nginx location : " + config.getName());
+    }
+
+    // url 이 config 를 가리키면 container 포트, 아니면 null
+    private String containerPort(BuildConfig config, String url) {
+        URI uri = uri(url);
+        if (uri == null || uri.getHost() == null) {
+            return null;
+        }
+        String port = String.valueOf(uri.getPort() == -1 ? 80 : uri.getPort());
+        if (uri.getHost().equals(projectName + "-" + config.getName())) {
+            return port;
+        }
+        if (isContainerHost(uri.getHost())) {
+            return null;
+        }
+        for (DokkaebiProperty property : config.getProperties()) {
+            if ("publish".equals(property.getType()) && port.equals(property.getHost())) {
+                return property.getContainer();
+            }
+        }
+        return null;
+    }
+
+    // 같은 프로젝트의 다른 컨테이너 이름인지 (ip, 도메인이 아닌 경우)
+    private boolean isContainerHost(String host) {
+        return host.startsWith(projectName + "-");
+    }
+
+    private String currentContainer(String name) {
+        return liveContainers.getOrDefault(name, projectName + "-" + name);
+    }
+
+    private String nextContainer(BuildConfig config) {
+        String base = projectName + "-" + config.getName();
+        return currentContainer(config.getName()).endsWith(BLUE) ? base + GREEN : base + BLUE;
+    }
+
+    private void drain() throws IOException {
+        log.info("drain : {}s", drainSeconds);
+        try {
+            Thread.sleep(drainSeconds * 1000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("drain interrupted");
+        }
+    }
+
+    private void removeQuietly(Collection<String> containers) {
+        try {
+            dockerAdapter.getRemoveTask(containers)
+                .run(OutputStream.nullOutputStream(), new CommandCanceller());
+        } catch (IOException e) {
+            log.error("removeQuietly : {} {}", containers, e.getMessage());
+        }
+    }
+
+    private void save() throws IOException {
+        FileManager.saveJsonFile(projectPath, STATE_FILE, liveContainers);
+    }
+
+    private static URI uri(String url) {
+        try {
+            return new URI(url.trim());
+        } catch (URISyntaxException e) {
+            log.error("uri : invalid url {}", url);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.dokkaebi.core.docker;
+
+import com.dokkaebi.core.docker.vo.docker.BuildConfig;
+import com.dokkaebi.core.docker.vo.docker.DbConfig;
+import com.dokkaebi.core.util.CommandCanceller;
+import com.dokkaebi.core.util.CommandInterpreter;
+import com.dokkaebi.core.util.StreamTask;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 컨테이너를 의존 순서대로 띄운다.
+ *  - DbConfig 컨테이너는 모두 동시에 띄운 뒤 publish 포트로 준비 여부를 확인한다.
+ *    확인은 probeScheduler 에서 하므로 기다리는 동안 명령어 실행 스레드를 점유하지 않는다.
+ *  - BuildConfig 컨테이너는 dependsOn 의 DB 가 모두 준비되는 즉시 띄운다. (dependsOn 이 없으면 모든 DB)
+ *  - 하나라도 실패하면 나머지를 취소하고, 컨테이너별 로그는 Run_{buildNumber} 로그로 합친다.
+ */
+@Slf4j
+public class ContainerLauncher {
+
+    private static final String LOG_NAME = "Run";
+
+    private final DockerAdapter dockerAdapter;
+    private final ExecutorService executorService;
+    private final ScheduledExecutorService probeScheduler;
+    private final PortProbe portProbe;
+
+    public ContainerLauncher(DockerAdapter dockerAdapter, ExecutorService executorService,
+        ScheduledExecutorService probeScheduler, PortProbe portProbe) {
+        this.dockerAdapter = dockerAdapter;
+        this.executorService = executorService;
+        this.probeScheduler = probeScheduler;
+        this.portProbe = portProbe;
+    }
+
+    public void launch(String logPath, int buildNumber, List<DbConfig> dbConfigs,
+        List<BuildConfig> buildConfigs) throws IOException {
+        log.info("launch Start : buildNumber = {} , db = {} , build = {}", buildNumber,
+            dbConfigs.size(), buildConfigs.size());
+        CommandCanceller canceller = new CommandCanceller();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<String> streams = new ArrayList<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        Map<String, CompletableFuture<Void>> dbReady = new LinkedHashMap<>();
+        for (DbConfig dbConfig : dbConfigs) {
+            String stream = "db-" + dbConfig.getName();
+            StreamTask task = dockerAdapter.getRunWithVersionTask(dbConfig);
+            CompletableFuture<Void> future = CompletableFuture
+                .runAsync(() -> start(logPath, buildNumber, stream, task, canceller),
+                    executorService)
+                .thenCompose(started -> probe(dbConfig, canceller));
+            dbReady.put(dbConfig.getName(), future);
+            streams.add(stream);
+            futures.add(future);
+        }
+
+        for (BuildConfig buildConfig : buildConfigs) {
+            String stream = "app-" + buildConfig.getName();
+            StreamTask task = dockerAdapter.getRunTask(buildConfig);
+            // 의존 DB 를 기다리는 동안 스레드를 점유하지 않도록 완료 콜백으로 이어서 실행한다.
+            CompletableFuture<Void> future = CompletableFuture
+                .allOf(dependencies(buildConfig, dbReady))
+                .thenRunAsync(() -> start(logPath, buildNumber, stream, task, canceller),
+                    executorService);
+            streams.add(stream);
+            futures.add(future);
+        }
+
+        for (CompletableFuture<Void> future : futures) {
+            future.whenComplete((result, e) -> {
+                if (e != null && failure.compareAndSet(null, unwrap(e))) {
+                    log.error("launch : container Failed, cancel others : {}", unwrap(e));
+                    canceller.cancel();
+                }
+            });
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            failure.compareAndSet(null, unwrap(e));
+        }
+
+        CommandInterpreter.mergeStreams(logPath, LOG_NAME, buildNumber, streams);
+        Throwable cause = failure.get();
+        if (cause != null) {
+            log.error("launch Failed : {}", cause.getMessage());
+            throw (cause instanceof IOException) ? (IOException) cause : new IOException(cause);
+        }
+        log.info("launch Done");
+    }
+
+    private CompletableFuture<?>[] dependencies(BuildConfig buildConfig,
+        Map<String, CompletableFuture<Void>> dbReady) {
+        if (buildConfig.getDependsOn() == null) {
+            return dbReady.values().toArray(new CompletableFuture<?>[0]);
+        }
+        List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+        for (String name : buildConfig.getDependsOn()) {
+            CompletableFuture<Void> ready = dbReady.get(name);
+            if (ready == null) {
+                // 설정에 없는 DB 이거나, 이번 실행에서 띄우지 않는 (이미 실행 중인) DB
+                log.info("dependencies : db not started in this run = {} , build = {}", name,
+                    buildConfig.getName());
+                continue;
+            }
+            dependencies.add(ready);
+        }
+        return dependencies.toArray(new CompletableFuture<?>[0]);
+    }
+
+    private void start(String logPath, int buildNumber, String stream, StreamTask task,
+        CommandCanceller canceller) {
+        try {
+            CommandInterpreter.runStreamTask(logPath, LOG_NAME, buildNumber, stream, task,
+                canceller);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // publish 포트가 없으면 확인하지 않는다.
+    private CompletableFuture<Void> probe(DbConfig dbConfig, CommandCanceller canceller) {
+        String port = dbConfig.returnPort();
+        if (port.isBlank()) {
+            log.info("probe : no publish port, skip = {}", dbConfig.getName());
+            return CompletableFuture.completedFuture(null);
+        }
+        return portProbe.ready(dbConfig.getName(), Integer.parseInt(port), canceller,
+            probeScheduler);
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof UncheckedIOException)
+            && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
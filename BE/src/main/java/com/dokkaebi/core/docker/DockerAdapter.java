@@ -2,36 +2,95 @@ package com.dokkaebi.core.docker;
 
 import com.dokkaebi.core.docker.vo.docker.BuildConfig;
 import com.dokkaebi.core.docker.vo.docker.DokkaebiConfig;
+import com.dokkaebi.core.util.CommandInterpreter;
+import com.dokkaebi.core.util.StreamTask;
+import com.dokkaebi.util.DockerOption;
+import com.dokkaebi.util.FileManager;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.exec.ExecuteException;
 
+/**
+ * Dockerfile 생성과 docker 작업을 담당한다.
+ * docker 작업은 {@link StreamTask} 로 반환하며, DockerEngine 이 있으면 Docker Engine API 를,
+ * 없으면 docker CLI 명령어를 실행한다.
+ */
 @Slf4j
 public class DockerAdapter {
 
+    private final String projectPath;
+    private final boolean buildkit;
     private final DockerfileMaker dockerfileMaker;
     private final DockerCommandMaker dockerCommandMaker;
+    private final DockerEngine dockerEngine;
 
     public DockerAdapter(String projectPath, String projectName) {
-        this.dockerfileMaker = new DockerfileMaker(projectPath);
-        this.dockerCommandMaker = new DockerCommandMaker(projectPath, projectName);
+        this(projectPath, projectName, false);
+    }
+
+    public DockerAdapter(String projectPath, String projectName, boolean buildkit) {
+        this(projectPath, projectName, buildkit, null);
+    }
+
+    public DockerAdapter(String projectPath, String projectName, DockerOption dockerOption) {
+        this(projectPath, projectName, dockerOption.isBuildkit(), dockerOption.engine());
+    }
+
+    private DockerAdapter(String projectPath, String projectName, boolean buildkit,
+        DockerEngine dockerEngine) {
+        this.projectPath = projectPath;
+        this.buildkit = buildkit;
+        this.dockerfileMaker = new DockerfileMaker(projectPath, buildkit);
+        this.dockerCommandMaker = new DockerCommandMaker(projectPath, projectName, buildkit);
+        this.dockerEngine = dockerEngine;
     }
 
     public void saveDockerfile(BuildConfig config) throws IOException {
-        dockerfileMaker.make(config);
+        dockerfileMaker.makeWithIgnore(config);
     }
 
     public void saveDockerfiles(List<BuildConfig> configs) throws IOException {
         log.info("saveDockerfiles Start");
         for (BuildConfig config : configs) {
-            dockerfileMaker.make(config);
+            dockerfileMaker.makeWithIgnore(config);
         }
         log.info("saveDockerfiles Done");
     }
 
+    /**
+     * .dockerignore 를 적용한 build context 크기를 BuildConfig 이름별로 반환한다. (예: 12.3 MB)
+     */
+    public Map<String, String> getContextSizes(List<BuildConfig> configs) {
+        log.info("getContextSizes Start");
+        Map<String, String> sizes = new LinkedHashMap<>();
+        for (BuildConfig config : configs) {
+            Path contextPath = Paths.get(projectPath + config.getProjectDirectory());
+            try {
+                long size = DockerIgnore.contextSize(contextPath);
+                log.info("getContextSizes : name = {} , size = {}", config.getName(), size);
+                sizes.put(config.getName(), FileManager.displaySize(size));
+            } catch (IOException e) {
+                log.error("getContextSizes : failed {} {}", config.getName(), e.getMessage());
+                sizes.put(config.getName(), "unknown");
+            }
+        }
+        log.info("getContextSizes Done");
+        return sizes;
+    }
+
     private String build(BuildConfig config) {
         log.info("build Start");
         return dockerCommandMaker.build(config);
@@ -72,6 +131,58 @@ public class DockerAdapter {
         return commands;
     }
 
+    /**
+     * 이미지 빌드 작업을 BuildConfig 이름별로 반환한다.
+     * 서로 독립적이므로 동시에 실행할 수 있다.
+     * resolveImageTags 이후 호출하면 같은 내용의 이미지가 이미 있는 경우 빌드 대신 tag 만 붙인다.
+     * BuildKit 빌드는 Engine API 로 할 수 없으므로 CLI 를 쓴다.
+     */
+    public Map<String, StreamTask> getBuildTasksByName(List<BuildConfig> configs)
+        throws IOException {
+        log.info("getBuildTasksByName Start");
+        Map<String, StreamTask> tasks = new LinkedHashMap<>();
+
+        for (BuildConfig config : configs) {
+            String contentImage = dockerCommandMaker.contentImage(config);
+            boolean contentTagged = !ImageTagger.FALLBACK_TAG.equals(
+                dockerCommandMaker.imageTag(config));
+            if (contentTagged && imageExists(contentImage)) {
+                // 같은 내용의 이미지가 있으면 빌드하지 않고 이름만 붙인다.
+                log.info("getBuildTasksByName : image exists, skip build = {}", contentImage);
+                tasks.put(config.getName(), dockerEngine == null
+                    ? StreamTask.of(List.of(dockerCommandMaker.tag(config)))
+                    : (outputStream, canceller) -> dockerEngine.tag(contentImage,
+                        dockerCommandMaker.image(config), outputStream));
+            } else if (dockerEngine == null || buildkit) {
+                tasks.put(config.getName(), StreamTask.of(List.of(build(config))));
+            } else {
+                Set<String> imageTags = new LinkedHashSet<>();
+                imageTags.add(dockerCommandMaker.image(config));
+                if (contentTagged) {
+                    imageTags.add(contentImage);
+                }
+                String contextPath = projectPath + config.getProjectDirectory();
+                tasks.put(config.getName(), (outputStream, canceller) ->
+                    dockerEngine.build(contextPath, imageTags, outputStream, canceller));
+            }
+        }
+        log.info("getBuildTasksByName Done");
+        return tasks;
+    }
+
+    /**
+     * 소스와 생성한 Dockerfile 등으로 BuildConfig 별 이미지 tag 를 정한다.
+     * 이후 빌드/실행 명령어는 latest 대신 이 tag 를 쓴다.
+     */
+    public void resolveImageTags(List<BuildConfig> configs) {
+        log.info("resolveImageTags Start");
+        for (BuildConfig config : configs) {
+            dockerCommandMaker.updateImageTag(config.getName(),
+                ImageTagger.tag(projectPath, config));
+        }
+        log.info("resolveImageTags Done");
+    }
+
     public List<String> getRemoveCommands(List<? extends DokkaebiConfig> configs) {
         log.info("getRemoveCommands Start");
         List<String> commands = new ArrayList<>();
@@ -112,8 +223,169 @@ public class DockerAdapter {
         return commands;
     }
 
-    public String createNetwork() {
-        return network();
+    /**
+     * BlueGreen 실행으로 이름이 바뀐 컨테이너를 지우거나 멈출 때 실제 컨테이너 이름을 쓰도록 한다.
+     * @param containerNames BuildConfig 이름 - 실행 중인 컨테이너 이름
+     */
+    public void updateContainerNames(Map<String, String> containerNames) {
+        containerNames.forEach(dockerCommandMaker::updateContainerName);
+    }
+
+    public String getContainerName(DokkaebiConfig config) {
+        return dockerCommandMaker.containerName(config);
+    }
+
+    /**
+     * 컨테이너를 {projectName}-{name} 으로 띄운다. (BuildConfig 는 빌드한 이미지, DbConfig 는 version 이미지)
+     */
+    public StreamTask getRunTask(BuildConfig config) {
+        if (dockerEngine == null) {
+            return StreamTask.of(List.of(run(config)));
+        }
+        return (outputStream, canceller) -> dockerEngine.run(dockerCommandMaker.baseName(config),
+            dockerCommandMaker.image(config), config.getProperties(), false,
+            dockerCommandMaker.networkName(), null, outputStream, canceller);
+    }
+
+    public StreamTask getRunWithVersionTask(DokkaebiConfig config) {
+        if (dockerEngine == null) {
+            return StreamTask.of(List.of(runWithVersion(config)));
+        }
+        return (outputStream, canceller) -> dockerEngine.run(dockerCommandMaker.baseName(config),
+            config.getVersion(), config.getProperties(), false, dockerCommandMaker.networkName(),
+            null, outputStream, canceller);
+    }
+
+    /**
+     * BlueGreen 실행용 컨테이너를 containerName 으로 띄운다. (publish 는 docker 가 정한 host 포트)
+     */
+    public StreamTask getRunAsTask(BuildConfig config, String containerName) {
+        if (dockerEngine == null) {
+            return StreamTask.of(List.of(dockerCommandMaker.runAs(config, containerName)));
+        }
+        return (outputStream, canceller) -> dockerEngine.run(containerName,
+            dockerCommandMaker.image(config), config.getProperties(), true,
+            dockerCommandMaker.networkName(), dockerCommandMaker.baseName(config), outputStream,
+            canceller);
+    }
+
+    public StreamTask getRemoveTask(List<? extends DokkaebiConfig> configs) {
+        List<String> containerNames = new ArrayList<>();
+        configs.forEach(config -> containerNames.add(dockerCommandMaker.containerName(config)));
+        return getRemoveTask(containerNames);
+    }
+
+    // 없는 컨테이너는 무시한다.
+    public StreamTask getRemoveTask(Collection<String> containerNames) {
+        if (dockerEngine == null) {
+            List<String> commands = new ArrayList<>();
+            containerNames.forEach(name -> commands.add(dockerCommandMaker.removeContainer(name)));
+            return StreamTask.of(commands);
+        }
+        return (outputStream, canceller) -> {
+            for (String containerName : containerNames) {
+                dockerEngine.remove(containerName, outputStream);
+            }
+        };
+    }
+
+    public StreamTask getStopTask(List<? extends DokkaebiConfig> configs) {
+        if (dockerEngine == null) {
+            return StreamTask.of(getStopCommands(configs));
+        }
+        return (outputStream, canceller) -> {
+            for (DokkaebiConfig config : configs) {
+                dockerEngine.stop(dockerCommandMaker.containerName(config), outputStream);
+            }
+        };
+    }
+
+    // 프로젝트 network 가 이미 있으면 만들지 않는다.
+    public StreamTask getNetworkTask() {
+        if (dockerEngine != null) {
+            return (outputStream, canceller) -> dockerEngine.ensureNetwork(
+                dockerCommandMaker.networkName(), outputStream);
+        }
+        return (outputStream, canceller) -> {
+            try {
+                CommandInterpreter.output(".", dockerCommandMaker.networkExists());
+                outputStream.write(("network : exists " + dockerCommandMaker.networkName() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                CommandInterpreter.execute(outputStream, List.of(network()), canceller);
+            }
+        };
+    }
+
+    /**
+     * 실행한 BuildConfig 마다 실행 중인 tag 와 최근 keepImages 개의 tag 만 남기고 이미지를 지운다.
+     * 지운 tag 의 dokkaebi-content 이름도 함께 지운다. (다른 프로젝트가 같은 이미지를 쓰면 이름만 지워짐)
+     * 지우지 못한 이미지는 로그만 남기고 다음 실행에서 다시 지운다.
+     */
+    public StreamTask getPruneImagesTask(List<BuildConfig> configs, int keepImages) {
+        return (outputStream, canceller) -> {
+            for (BuildConfig config : configs) {
+                String repository = dockerCommandMaker.imageRepository(config);
+                List<String> expired = ImageTagger.expiredTags(imageTags(repository),
+                    dockerCommandMaker.imageTag(config), keepImages);
+                log.info("getPruneImagesTask : repository = {} , expired = {}", repository,
+                    expired);
+                for (String tag : expired) {
+                    removeImage(repository + ':' + tag, outputStream);
+                    removeImage(ImageTagger.CONTENT_REPOSITORY + ':' + tag, outputStream);
+                }
+            }
+        };
+    }
+
+    private List<String> imageTags(String repository) throws IOException {
+        if (dockerEngine != null) {
+            return dockerEngine.imageTags(repository);
+        }
+        String output = CommandInterpreter.output(".",
+            dockerCommandMaker.listImageTags(repository));
+        return output.isEmpty() ? new ArrayList<>() : List.of(output.split("\n"));
+    }
+
+    private void removeImage(String image, OutputStream outputStream) throws IOException {
+        if (dockerEngine != null) {
+            dockerEngine.removeImage(image, outputStream);
+            return;
+        }
+        try {
+            CommandInterpreter.output(".", dockerCommandMaker.removeImage(image));
+            outputStream.write(("image : removed " + image + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        } catch (ExecuteException e) {
+            // 없거나 컨테이너가 쓰고 있는 이미지
+            outputStream.write(("image : not removed " + image + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public boolean imageExists(String image) throws IOException {
+        return dockerEngine == null ? ImageTagger.exists(image) : dockerEngine.imageExists(image);
+    }
+
+    /**
+     * containerPort 가 publish 된 host 포트
+     */
+    public int getHostPort(String containerName, String containerPort) throws IOException {
+        if (dockerEngine != null) {
+            return dockerEngine.hostPort(containerName, containerPort);
+        }
+        // 예: "0.0.0.0:49153\n:::49153"
+        String address = CommandInterpreter.output(".",
+            dockerCommandMaker.port(containerName, containerPort)).split("\n")[0].trim();
+        return Integer.parseInt(address.substring(address.lastIndexOf(':') + 1));
+    }
+
+    public String getCopyCommand(String filePath, String containerName, String containerPath) {
+        return dockerCommandMaker.copy(filePath, containerName, containerPath);
+    }
+
+    public String getReloadNginxCommand(String containerName) {
+        return dockerCommandMaker.reloadNginx(containerName);
     }
 
 }
@@ -2,6 +2,9 @@ package com.dokkaebi.core.docker;
 
 import com.dokkaebi.core.docker.vo.docker.BuildConfig;
 import com.dokkaebi.core.docker.vo.docker.DokkaebiConfig;
+import com.dokkaebi.core.docker.vo.docker.DokkaebiProperty;
+import java.util.HashMap;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -11,20 +14,37 @@ public class DockerCommandMaker {
 
     private final String projectPath;
 
+    private final boolean buildkit;
+
     private String networkBridge;
 
+    // BuildConfig 이름 - 이미지 tag (없으면 latest)
+    private final Map<String, String> imageTags = new HashMap<>();
+
+    // BuildConfig 이름 - 실행 중인 컨테이너 이름 (BlueGreen 실행, 없으면 {projectName}-{name})
+    private final Map<String, String> containerNames = new HashMap<>();
+
     public DockerCommandMaker(String projectPath, String projectName) {
+        this(projectPath, projectName, false);
+    }
+
+    public DockerCommandMaker(String projectPath, String projectName, boolean buildkit) {
         this.projectName = projectName;
         this.projectPath = projectPath;
+        this.buildkit = buildkit;
     }
 
     public String build(BuildConfig config) {
         log.info("build Start");
         StringBuilder sb = new StringBuilder();
-        // TODO : Image tag를 latest로 하는 것은 권장되지 않습니다.
-        sb.append("docker build -t ")
-            .append(projectName).append('-').append(config.getName()).append(":latest")
-            .append(' ').append(projectPath).append(config.getProjectDirectory());
+        if (buildkit) {
+            sb.append("env DOCKER_BUILDKIT=1 ");
+        }
+        sb.append("docker build -t ").append(image(config));
+        if (!ImageTagger.FALLBACK_TAG.equals(imageTag(config))) {
+            sb.append(" -t ").append(contentImage(config));
+        }
+        sb.append(' ').append(projectPath).append(config.getProjectDirectory());
         log.info("build Done");
         return sb.toString();
     }
@@ -65,13 +85,108 @@ public class DockerCommandMaker {
         }
         sb.append(" --network ").append(this.networkBridge);
 
-        // TODO : Image tag를 latest로 하는 것은 권장되지 않습니다.
-        sb.append(' ').append(projectName).append('-').append(config.getName()).append(":latest");
+        sb.append(' ').append(image(config));
 
         log.info("run Done");
         return sb.toString();
     }
 
+    /**
+     * BlueGreen 실행용 컨테이너를 띄운다.
+     * 기존 컨테이너와 host 포트가 겹치지 않도록 publish 는 docker 가 정한 host 포트를 쓰고,
+     * 같은 network 의 다른 컨테이너가 기존 이름으로도 찾을 수 있도록 {projectName}-{name} alias 를 붙인다.
+     */
+    public String runAs(BuildConfig config, String containerName) {
+        log.info("runAs Start {} {}", containerName, config);
+        StringBuilder sb = new StringBuilder();
+        sb.append("docker run -d --name ").append(containerName).append(' ');
+
+        for (DokkaebiProperty property : config.getProperties()) {
+            if ("publish".equals(property.getType())) {
+                sb.append("-p ").append(property.getContainer()).append(' ');
+            } else {
+                sb.append(property.command()).append(' ');
+            }
+        }
+
+        if (this.networkBridge == null) {
+            setBridge();
+        }
+        sb.append(" --network ").append(this.networkBridge);
+        sb.append(" --network-alias ").append(projectName).append('-').append(config.getName());
+
+        sb.append(' ').append(image(config));
+
+        log.info("runAs Done");
+        return sb.toString();
+    }
+
+    // containerPort 가 publish 된 host 주소 (예: 0.0.0.0:49153)
+    public String port(String containerName, String containerPort) {
+        return "docker port " + containerName + ' ' + containerPort;
+    }
+
+    public String copy(String filePath, String containerName, String containerPath) {
+        return "docker cp " + filePath + ' ' + containerName + ':' + containerPath;
+    }
+
+    public String reloadNginx(String containerName) {
+        return "docker exec " + containerName + " nginx -s reload";
+    }
+
+    /**
+     * 같은 내용으로 이미 빌드된 이미지에 이 프로젝트의 이미지 이름을 붙인다.
+     */
+    public String tag(BuildConfig config) {
+        log.info("tag Start");
+        StringBuilder sb = new StringBuilder();
+        sb.append("docker tag ").append(contentImage(config)).append(' ').append(image(config));
+        log.info("tag Done");
+        return sb.toString();
+    }
+
+    public void updateImageTag(String name, String tag) {
+        imageTags.put(name, tag);
+    }
+
+    public String imageTag(DokkaebiConfig config) {
+        return imageTags.getOrDefault(config.getName(), ImageTagger.FALLBACK_TAG);
+    }
+
+    // {projectName}-{name}:{tag}
+    public String image(DokkaebiConfig config) {
+        return imageRepository(config) + ':' + imageTag(config);
+    }
+
+    // {projectName}-{name}
+    public String imageRepository(DokkaebiConfig config) {
+        return projectName + '-' + config.getName();
+    }
+
+    // repository 의 tag 목록 (최근에 만든 것부터)
+    public String listImageTags(String repository) {
+        return "docker image ls --format {{.Tag}} " + repository;
+    }
+
+    // 실행 중인 컨테이너가 쓰는 이미지는 지우지 않는다. (-f 없음)
+    public String removeImage(String image) {
+        return "docker rmi " + image;
+    }
+
+    public void updateContainerName(String name, String containerName) {
+        containerNames.put(name, containerName);
+    }
+
+    // 실행 중인 컨테이너 이름
+    public String containerName(DokkaebiConfig config) {
+        return containerNames.getOrDefault(config.getName(), projectName + '-' + config.getName());
+    }
+
+    // dokkaebi-content:{tag}
+    public String contentImage(DokkaebiConfig config) {
+        return ImageTagger.CONTENT_REPOSITORY + ':' + imageTag(config);
+    }
+
     public String removeBridge() {
         log.info("removeBridge Start");
         if (this.networkBridge == null) {
@@ -94,10 +209,30 @@ public class DockerCommandMaker {
         this.networkBridge = projectName + "_bridge";
     }
 
+    public String networkName() {
+        if (this.networkBridge == null) {
+            setBridge();
+        }
+        return this.networkBridge;
+    }
+
+    public String networkExists() {
+        return "docker network inspect " + networkName();
+    }
+
+    // 새로 띄우는 컨테이너 이름 {projectName}-{name}
+    public String baseName(DokkaebiConfig config) {
+        return projectName + '-' + config.getName();
+    }
+
     public String removeContainer(DokkaebiConfig config) {
+        return removeContainer(containerName(config));
+    }
+
+    public String removeContainer(String containerName) {
         log.info("removeContainer Start");
         StringBuilder sb = new StringBuilder();
-        sb.append("/home/conf/remove.sh ").append(projectName).append('-').append(config.getName());
+        sb.append("/home/conf/remove.sh ").append(containerName);
         log.info("removeContainer Done");
         return sb.toString();
     }
@@ -105,7 +240,7 @@ public class DockerCommandMaker {
     public String stopContainer(DokkaebiConfig config) {
         log.info("stopContainer Start");
         StringBuilder sb = new StringBuilder();
-        sb.append("docker stop ").append(projectName).append('-').append(config.getName());
+        sb.append("docker stop ").append(containerName(config));
         log.info("stopContainer Done");
         return sb.toString();
     }
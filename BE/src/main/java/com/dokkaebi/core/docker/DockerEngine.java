@@ -0,0 +1,334 @@
+package com.dokkaebi.core.docker;
+
+import com.dokkaebi.core.docker.vo.docker.DokkaebiProperty;
+import com.dokkaebi.core.util.CommandCanceller;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.BuildImageResultCallback;
+import com.github.dockerjava.api.command.CreateContainerCmd;
+import com.github.dockerjava.api.command.PullImageCmd;
+import com.github.dockerjava.api.command.PullImageResultCallback;
+import com.github.dockerjava.api.exception.ConflictException;
+import com.github.dockerjava.api.exception.DockerClientException;
+import com.github.dockerjava.api.exception.DockerException;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.exception.NotModifiedException;
+import com.github.dockerjava.api.model.Bind;
+import com.github.dockerjava.api.model.BuildResponseItem;
+import com.github.dockerjava.api.model.ExposedPort;
+import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.Image;
+import com.github.dockerjava.api.model.Network;
+import com.github.dockerjava.api.model.PortBinding;
+import com.github.dockerjava.api.model.Ports;
+import com.github.dockerjava.api.model.PullResponseItem;
+import com.github.dockerjava.core.DefaultDockerClientConfig;
+import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.core.DockerClientImpl;
+import com.github.dockerjava.httpclient5.ApacheDockerHttpClient;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * docker CLI 대신 Docker Engine API 를 직접 호출한다. (기본 unix:///var/run/docker.sock)
+ * 프로세스를 만들지 않고, 실패는 Engine API 의 응답 (status, message) 을 담은 IOException 으로 던진다.
+ * host 에 tcp://localhost:port 를 주면 테스트용 가짜 서버에도 연결할 수 있다. (DockerEngineTest)
+ */
+@Slf4j
+public class DockerEngine {
+
+    private static final Duration CONNECTION_TIMEOUT = Duration.ofSeconds(10);
+
+    private final DockerClient client;
+
+    public DockerEngine(String host) {
+        DockerClientConfig config = DefaultDockerClientConfig.createDefaultConfigBuilder()
+            .withDockerHost(host)
+            .build();
+        ApacheDockerHttpClient httpClient = new ApacheDockerHttpClient.Builder()
+            .dockerHost(config.getDockerHost())
+            .sslConfig(config.getSSLConfig())
+            .connectionTimeout(CONNECTION_TIMEOUT)
+            .build();
+        this.client = DockerClientImpl.getInstance(config, httpClient);
+    }
+
+    /**
+     * contextPath 의 Dockerfile 로 이미지를 빌드하고 진행 상황을 outputStream 에 기록한다.
+     * .dockerignore 는 build context 를 만들 때 적용된다.
+     */
+    public void build(String contextPath, Set<String> tags, OutputStream outputStream,
+        CommandCanceller canceller) throws IOException {
+        log.info("build Start : contextPath = {} , tags = {}", contextPath, tags);
+        BuildImageResultCallback callback = new BuildImageResultCallback() {
+            @Override
+            public void onNext(BuildResponseItem item) {
+                write(outputStream, item.getStream());
+                if (item.getErrorDetail() != null) {
+                    write(outputStream, item.getErrorDetail().getMessage());
+                }
+                super.onNext(item);
+            }
+        };
+        canceller.register(callback);
+        try {
+            String imageId = client.buildImageCmd(new File(contextPath))
+                .withTags(tags)
+                .exec(callback)
+                .awaitImageId();
+            write(outputStream, "image : " + imageId);
+        } catch (DockerException | DockerClientException e) {
+            throw exception("build " + contextPath, e, canceller);
+        } finally {
+            canceller.unregister(callback);
+        }
+        log.info("build Done");
+    }
+
+    public void tag(String image, String target, OutputStream outputStream) throws IOException {
+        int separator = target.lastIndexOf(':');
+        try {
+            client.tagImageCmd(image, target.substring(0, separator),
+                target.substring(separator + 1)).withForce().exec();
+            write(outputStream, "tag : " + image + " -> " + target);
+        } catch (DockerException e) {
+            throw exception("tag " + image, e, null);
+        }
+    }
+
+    /**
+     * 컨테이너를 만들고 시작한다. 이미지가 없으면 받아온다. (docker run -d 와 같음)
+     * @param properties publish, volume, environment
+     * @param ephemeralPublish publish 의 host 포트를 쓰지 않고 docker 가 정한 포트를 쓴다.
+     * @param alias network 에서 쓸 다른 이름, 없으면 null
+     */
+    public void run(String name, String image, List<DokkaebiProperty> properties,
+        boolean ephemeralPublish, String network, String alias, OutputStream outputStream,
+        CommandCanceller canceller) throws IOException {
+        log.info("run Start : name = {} , image = {}", name, image);
+        List<String> env = new ArrayList<>();
+        List<PortBinding> portBindings = new ArrayList<>();
+        List<ExposedPort> exposedPorts = new ArrayList<>();
+        List<Bind> binds = new ArrayList<>();
+        for (DokkaebiProperty property : properties) {
+            if ("publish".equals(property.getType())) {
+                ExposedPort exposedPort = ExposedPort.parse(property.getContainer());
+                exposedPorts.add(exposedPort);
+                portBindings.add(new PortBinding(ephemeralPublish ? Ports.Binding.empty()
+                    : Ports.Binding.bindPortSpec(property.getHost()), exposedPort));
+            } else if ("volume".equals(property.getType())) {
+                binds.add(Bind.parse(property.getHost() + ":" + property.getContainer()));
+            } else if ("environment".equals(property.getType())) {
+                env.add(property.getHost() + "=" + property.getContainer());
+            } else {
+                throw new IllegalArgumentException(property.getType());
+            }
+        }
+
+        HostConfig hostConfig = HostConfig.newHostConfig()
+            .withPortBindings(portBindings)
+            .withBinds(binds)
+            .withNetworkMode(network);
+        try {
+            String id;
+            try {
+                id = create(name, image, env, exposedPorts, hostConfig, alias);
+            } catch (NotFoundException e) {
+                pull(image, outputStream, canceller);
+                id = create(name, image, env, exposedPorts, hostConfig, alias);
+            }
+            client.startContainerCmd(id).exec();
+            write(outputStream, "run : " + name + " " + id);
+        } catch (DockerException e) {
+            throw exception("run " + name, e, canceller);
+        }
+        log.info("run Done");
+    }
+
+    public void stop(String name, OutputStream outputStream) throws IOException {
+        try {
+            client.stopContainerCmd(name).exec();
+            write(outputStream, "stop : " + name);
+        } catch (NotModifiedException e) {
+            write(outputStream, "stop : already stopped " + name);
+        } catch (DockerException e) {
+            throw exception("stop " + name, e, null);
+        }
+    }
+
+    // 없는 컨테이너는 무시한다. (docker rm -f)
+    public void remove(String name, OutputStream outputStream) throws IOException {
+        try {
+            client.removeContainerCmd(name).withForce(true).exec();
+            write(outputStream, "remove : " + name);
+        } catch (NotFoundException e) {
+            write(outputStream, "remove : not found " + name);
+        } catch (DockerException e) {
+            throw exception("remove " + name, e, null);
+        }
+    }
+
+    // 이미 있으면 만들지 않는다.
+    public void ensureNetwork(String name, OutputStream outputStream) throws IOException {
+        try {
+            for (Network network : client.listNetworksCmd().withNameFilter(name).exec()) {
+                if (name.equals(network.getName())) {
+                    write(outputStream, "network : exists " + name);
+                    return;
+                }
+            }
+            client.createNetworkCmd().withName(name).withDriver("bridge").exec();
+            write(outputStream, "network : created " + name);
+        } catch (ConflictException e) {
+            write(outputStream, "network : exists " + name);
+        } catch (DockerException e) {
+            throw exception("network " + name, e, null);
+        }
+    }
+
+    public boolean imageExists(String image) throws IOException {
+        try {
+            client.inspectImageCmd(image).exec();
+            return true;
+        } catch (NotFoundException e) {
+            return false;
+        } catch (DockerException e) {
+            throw exception("inspect image " + image, e, null);
+        }
+    }
+
+    /**
+     * repository 의 tag 목록 (최근에 만든 것부터, docker image ls 와 같음)
+     */
+    public List<String> imageTags(String repository) throws IOException {
+        try {
+            List<Image> images = new ArrayList<>(
+                client.listImagesCmd().withImageNameFilter(repository).exec());
+            images.sort(Comparator.comparing(Image::getCreated,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+            List<String> tags = new ArrayList<>();
+            for (Image image : images) {
+                if (image.getRepoTags() == null) {
+                    continue;
+                }
+                for (String repoTag : image.getRepoTags()) {
+                    if (repoTag.startsWith(repository + ":")) {
+                        tags.add(repoTag.substring(repository.length() + 1));
+                    }
+                }
+            }
+            return tags;
+        } catch (DockerException e) {
+            throw exception("list images " + repository, e, null);
+        }
+    }
+
+    // 없거나 컨테이너가 쓰고 있는 이미지는 지우지 않고 넘어간다. (docker rmi)
+    public void removeImage(String image, OutputStream outputStream) throws IOException {
+        try {
+            client.removeImageCmd(image).exec();
+            write(outputStream, "image : removed " + image);
+        } catch (NotFoundException e) {
+            write(outputStream, "image : not found " + image);
+        } catch (ConflictException e) {
+            write(outputStream, "image : in use " + image);
+        } catch (DockerException e) {
+            throw exception("remove image " + image, e, null);
+        }
+    }
+
+    /**
+     * containerPort 가 publish 된 host 포트
+     */
+    public int hostPort(String name, String containerPort) throws IOException {
+        try {
+            Ports.Binding[] bindings = client.inspectContainerCmd(name).exec()
+                .getNetworkSettings().getPorts().getBindings()
+                .get(ExposedPort.parse(containerPort));
+            if (bindings == null || bindings.length == 0) {
+                throw new IOException("not published : " + name + " " + containerPort);
+            }
+            return Integer.parseInt(bindings[0].getHostPortSpec());
+        } catch (DockerException e) {
+            throw exception("inspect container " + name, e, null);
+        }
+    }
+
+    private String create(String name, String image, List<String> env,
+        List<ExposedPort> exposedPorts, HostConfig hostConfig, String alias) {
+        CreateContainerCmd command = client.createContainerCmd(image)
+            .withName(name)
+            .withEnv(env)
+            .withExposedPorts(exposedPorts)
+            .withHostConfig(hostConfig);
+        if (alias != null) {
+            command.withAliases(alias);
+        }
+        return command.exec().getId();
+    }
+
+    private void pull(String image, OutputStream outputStream, CommandCanceller canceller)
+        throws IOException {
+        write(outputStream, "pull : " + image);
+        ResultCallback.Adapter<PullResponseItem> callback = new PullImageResultCallback() {
+            @Override
+            public void onNext(PullResponseItem item) {
+                if (item.getStatus() != null && item.getId() == null) {
+                    write(outputStream, item.getStatus());
+                }
+                super.onNext(item);
+            }
+        };
+        canceller.register(callback);
+        try {
+            // tag 가 없으면 Engine API 는 모든 tag 를 받아오므로 latest 를 지정한다.
+            PullImageCmd command = client.pullImageCmd(image);
+            if (image.lastIndexOf(':') <= image.lastIndexOf('/')) {
+                command.withTag(ImageTagger.FALLBACK_TAG);
+            }
+            command.exec(callback).awaitCompletion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("pull interrupted");
+        } catch (DockerException | DockerClientException e) {
+            throw exception("pull " + image, e, canceller);
+        } finally {
+            canceller.unregister(callback);
+        }
+    }
+
+    private static IOException exception(String operation, RuntimeException e,
+        CommandCanceller canceller) {
+        if (canceller != null && canceller.isCancelled()) {
+            return new IOException("cancelled : " + operation, e);
+        }
+        String status = e instanceof DockerException
+            ? String.valueOf(((DockerException) e).getHttpStatus()) : "client";
+        log.error("{} Failed : status = {} , {}", operation, status, e.getMessage());
+        return new IOException(operation + " failed (" + status + ") : " + e.getMessage(), e);
+    }
+
+    private static void write(OutputStream outputStream, String line) {
+        if (line == null || line.isEmpty()) {
+            return;
+        }
+        try {
+            outputStream.write(line.getBytes(StandardCharsets.UTF_8));
+            if (!line.endsWith("\n")) {
+                outputStream.write('\n');
+            }
+            outputStream.flush();
+        } catch (IOException e) {
+            log.error("write : {}", e.getMessage());
+        }
+    }
+}
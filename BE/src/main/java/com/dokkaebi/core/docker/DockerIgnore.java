@@ -0,0 +1,156 @@
+package com.dokkaebi.core.docker;
+
+import com.dokkaebi.core.docker.vo.docker.BuildConfig;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 생성한 Dockerfile 옆에 두는 .dockerignore
+ * 빌드 결과물, 의존성 폴더, .git 등을 build context 에서 제외해 docker daemon 으로 보내는 양을 줄인다.
+ * 생성한 Dockerfile, default.conf, gradle init script 는 항상 context 에 포함한다.
+ */
+@Slf4j
+public class DockerIgnore {
+
+  public static final String FILE_NAME = ".dockerignore";
+
+  private static final List<String> COMMON = List.of(
+      ".git", ".gitignore", ".idea", ".vscode", "**/.DS_Store", "**/*.log");
+
+  private static final List<String> NODE = List.of(
+      "**/node_modules", "build", "dist", ".next", "coverage");
+
+  // 빌드 결과물은 루트와 한 단계 아래 모듈만 제외한다. (**/build 는 소스 패키지 build 까지 지움)
+  private static final List<String> GRADLE = List.of(
+      ".gradle", "**/.gradle", "build", "*/build", "out");
+
+  private static final List<String> MAVEN = List.of(
+      "target", "*/target");
+
+  private static final List<String> DJANGO = List.of(
+      "venv", ".venv", "**/__pycache__", "**/*.pyc");
+
+  private static final List<String> ALWAYS_INCLUDE = List.of(
+      "!Dockerfile", "!default.conf", "!" + DockerfileMaker.GRADLE_INIT_SCRIPT);
+
+  private final List<Rule> rules = new ArrayList<>();
+
+  private DockerIgnore(List<String> patterns) {
+    for (String pattern : patterns) {
+      String trimmed = pattern.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+      rules.add(new Rule(trimmed));
+    }
+  }
+
+  /**
+   * framework 별 기본 제외 목록 + BuildConfig 의 사용자 추가 목록
+   */
+  public static List<String> patterns(BuildConfig config) {
+    List<String> patterns = new ArrayList<>(COMMON);
+    String framework = config.getFramework();
+    if ("Vue".equals(framework) || "React".equals(framework) || "Next".equals(framework)) {
+      patterns.addAll(NODE);
+    } else if ("SpringBoot".equals(framework)) {
+      patterns.addAll("Maven".equals(config.getType()) ? MAVEN : GRADLE);
+    } else if ("Django".equals(framework)) {
+      patterns.addAll(DJANGO);
+    }
+    if (config.getDockerIgnore() != null) {
+      patterns.addAll(config.getDockerIgnore());
+    }
+    patterns.addAll(ALWAYS_INCLUDE);
+    return patterns;
+  }
+
+  /**
+   * contextPath 의 .dockerignore 를 적용했을 때 docker daemon 으로 보내는 build context 크기 (근사값)
+   * .dockerignore 가 없으면 전체 크기를 반환한다.
+   */
+  public static long contextSize(Path contextPath) throws IOException {
+    Path ignorePath = contextPath.resolve(FILE_NAME);
+    DockerIgnore ignore = new DockerIgnore(
+        Files.exists(ignorePath) ? Files.readAllLines(ignorePath) : new ArrayList<>());
+
+    AtomicLong size = new AtomicLong();
+    Files.walkFileTree(contextPath, new SimpleFileVisitor<>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+        if (!dir.equals(contextPath) && ignore.isExcluded(contextPath.relativize(dir))) {
+          return FileVisitResult.SKIP_SUBTREE;
+        }
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        if (!ignore.isExcluded(contextPath.relativize(file))) {
+          size.addAndGet(attrs.size());
+        }
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFileFailed(Path file, IOException e) {
+        log.error("contextSize : visit failed {}", file);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    return size.get();
+  }
+
+  // 마지막으로 일치한 규칙을 따른다. (! 는 다시 포함)
+  private boolean isExcluded(Path relativePath) {
+    boolean excluded = false;
+    for (Rule rule : rules) {
+      if (rule.matches(relativePath)) {
+        excluded = !rule.negate;
+      }
+    }
+    return excluded;
+  }
+
+  private static class Rule {
+
+    private final boolean negate;
+    private final List<PathMatcher> matchers = new ArrayList<>();
+
+    private Rule(String pattern) {
+      this.negate = pattern.startsWith("!");
+      String glob = negate ? pattern.substring(1) : pattern;
+      while (glob.startsWith("/")) {
+        glob = glob.substring(1);
+      }
+      matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+      // docker 는 **/ 가 최상위 경로도 포함한다.
+      if (glob.startsWith("**/")) {
+        matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob.substring(3)));
+      }
+    }
+
+    // 경로 자신이나 상위 폴더가 일치하면 제외 대상이다.
+    private boolean matches(Path relativePath) {
+      for (int i = 1; i <= relativePath.getNameCount(); i++) {
+        Path prefix = relativePath.subpath(0, i);
+        for (PathMatcher matcher : matchers) {
+          if (matcher.matches(prefix)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -9,10 +9,42 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class DockerfileMaker {
 
+  // BuildKit cache mount 대상 (이미지 기본 사용자 root 기준)
+  private static final String GRADLE_CACHE = "/root/.gradle";
+  private static final String MAVEN_CACHE = "/root/.m2";
+  private static final String NPM_CACHE = "/root/.npm";
+  private static final String PIP_CACHE = "/root/.cache/pip";
+
+  // 의존성 layer 에서 쓰는 gradle init script, Dockerfile 옆에 저장한다.
+  public static final String GRADLE_INIT_SCRIPT = "dokkaebi-dependencies.gradle";
+
+  // dependencies task 는 의존성 목록만 읽으므로, 빌드에 쓰는 classpath 를 직접 resolve 해 jar 까지 받는다.
+  private static final String GRADLE_INIT_SCRIPT_CONTENT = ""
+      + "allprojects {\n"
+      + "    tasks.create('dokkaebiResolveDependencies') {\n"
+      + "        doLast {\n"
+      + "            ['compileClasspath', 'runtimeClasspath', 'annotationProcessor',\n"
+      + "             'testCompileClasspath', 'testRuntimeClasspath'].each { name ->\n"
+      + "                def configuration = configurations.findByName(name)\n"
+      + "                if (configuration != null && configuration.canBeResolved) {\n"
+      + "                    configuration.resolve()\n"
+      + "                }\n"
+      + "            }\n"
+      + "        }\n"
+      + "    }\n"
+      + "}\n";
+
   private final String rootDir;
 
+  private final boolean buildkit;
+
   public DockerfileMaker(String rootDir) {
+    this(rootDir, false);
+  }
+
+  public DockerfileMaker(String rootDir, boolean buildkit) {
     this.rootDir = rootDir;
+    this.buildkit = buildkit;
   }
 
   /**
@@ -39,12 +71,24 @@ public class DockerfileMaker {
     }
   }
 
+  /**
+   * Dockerfile 과 함께 framework 에 맞는 .dockerignore 를 생성한다.
+   * Dockerfile 을 직접 관리하는 경우(Vue, React 의 nginx 미사용)는 .dockerignore 도 생성하지 않는다.
+   */
+  public void makeWithIgnore(BuildConfig config) throws IOException {
+    make(config);
+    String framework = config.getFramework();
+    if (("Vue".equals(framework) || "React".equals(framework)) && !"Yes".equals(config.getType()))
+      return;
+    saveDockerIgnore(config);
+  }
+
   private void makeNextDockerfile(BuildConfig config) throws IOException {
     log.info("makeNextDockerfile Start");
     StringBuilder sb = new StringBuilder();
     sb.append("FROM ").append(config.getVersion()).append('\n');
+    sb.append(npmDependencies());
     sb.append("COPY . . \n");
-    sb.append("RUN ").append("npm install").append('\n');
     sb.append("RUN ").append("npm run build").append('\n');
     sb.append("CMD [\"npm\", \"run\", \"start\"]");
     saveDockerFile(getDestPath(config.getProjectDirectory()),sb.toString());
@@ -55,13 +99,20 @@ public class DockerfileMaker {
     log.info("makeSpringBootDockerfile Start");
     StringBuilder sb = new StringBuilder();
     sb.append("FROM ").append(config.getVersion()).append(' ').append("as builder").append('\n');
-    sb.append("COPY . . \n");
     if ("Gradle".equals(config.getType())) {
+      FileManager.saveFile(getDestPath(config.getProjectDirectory()), GRADLE_INIT_SCRIPT,
+          GRADLE_INIT_SCRIPT_CONTENT);
+      sb.append(gradleDependencies());
+      sb.append("COPY . . \n");
       sb.append("RUN ").append("chmod +x ./gradlew").append('\n');
-      sb.append("RUN ").append("./gradlew clean build").append('\n');
+      sb.append(run("./gradlew clean build", GRADLE_CACHE));
     } else if ("Maven".equals(config.getType())) {
+      sb.append(mavenDependencies());
+      sb.append("COPY . . \n");
       sb.append("RUN ").append("chmod +x ./mvnw").append('\n');
-      sb.append("RUN ").append("./mvnw clean package").append('\n');
+      sb.append(run("./mvnw clean package", MAVEN_CACHE));
+    } else {
+      sb.append("COPY . . \n");
     }
     sb.append("FROM ").append(config.getVersion()).append('\n');
     sb.append("COPY --from=builder ");
@@ -81,9 +132,9 @@ public class DockerfileMaker {
     log.info("makeReactWithNginxDockerFile Start");
     StringBuilder sb = new StringBuilder();
     sb.append("FROM ").append(config.getVersion()).append(' ').append("as builder").append('\n');
+    sb.append(npmDependencies());
     sb.append("COPY . . \n");
 
-    sb.append("RUN ").append("npm install").append('\n');
     sb.append("RUN ").append("npm run build").append('\n');
 
     sb.append("FROM ").append("nginx:1.18.0").append('\n');
@@ -102,9 +153,9 @@ public class DockerfileMaker {
     log.info("makeVueWithNginxDockerFile Start");
     StringBuilder sb = new StringBuilder();
     sb.append("FROM ").append(config.getVersion()).append(' ').append("as builder").append('\n');
+    sb.append(npmDependencies());
     sb.append("COPY . . \n");
 
-    sb.append("RUN ").append("npm install").append('\n');
     sb.append("RUN ").append("npm run build").append('\n');
 
     sb.append("FROM ").append("nginx:1.18.0").append('\n');
@@ -131,11 +182,11 @@ public class DockerfileMaker {
 
     sb.append("COPY ./requirements.txt /usr/src/app").append('\n');
 
-    sb.append("RUN ").append("pip install --upgrade pip").append('\n');
+    sb.append(run("pip install --upgrade pip", PIP_CACHE));
+    sb.append(run("pip install -r requirements.txt", PIP_CACHE));
 
     sb.append("COPY ").append(". /usr/src/app").append('\n');
 
-    sb.append("RUN ").append("pip install -r requirements.txt").append('\n');
     sb.append("RUN ").append("python manage.py makemigrations").append('\n');
     sb.append("RUN ").append("python manage.py migrate").append('\n');
     sb.append("CMD [\"python\", \"manage.py\", \"runserver\", \"0.0.0.0:8000\"]");
@@ -144,6 +195,62 @@ public class DockerfileMaker {
     log.info("makeDjangoDockerfile Done");
   }
 
+  /*
+   * 의존성 layer
+   * 소스보다 의존성 목록 파일을 먼저 복사해 의존성을 받아두면, 소스만 바뀐 빌드는 이 layer 를 재사용한다.
+   * [] 로 감싼 파일은 없어도 되는 파일이다.
+   */
+
+  private String npmDependencies() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("COPY package.json package-lock.jso[n] ./\n");
+    sb.append(run("if [ -f package-lock.json ]; then npm ci; else npm install; fi", NPM_CACHE));
+    return sb.toString();
+  }
+
+  // 멀티 모듈 등 빌드 스크립트만으로 의존성을 받지 못하면 실제 빌드에서 받는다. (실패 내용은 빌드 로그에 남김)
+  private String gradleDependencies() {
+    StringBuilder sb = new StringBuilder();
+    // GRADLE_INIT_SCRIPT 도 *.gradle* 로 함께 복사된다.
+    sb.append("COPY gradlew *.gradle* gradle.propertie[s] ./\n");
+    sb.append("COPY gradle ./gradle\n");
+    sb.append("RUN ").append("chmod +x ./gradlew").append('\n');
+    sb.append(run("./gradlew --no-daemon -q --init-script " + GRADLE_INIT_SCRIPT
+        + " dokkaebiResolveDependencies || " + warmUpFailed(), GRADLE_CACHE));
+    return sb.toString();
+  }
+
+  private String mavenDependencies() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("COPY mvnw pom.xml ./\n");
+    sb.append("COPY .mvn ./.mvn\n");
+    sb.append("RUN ").append("chmod +x ./mvnw").append('\n');
+    sb.append(run("./mvnw -B -q dependency:go-offline || " + warmUpFailed(), MAVEN_CACHE));
+    return sb.toString();
+  }
+
+  private String warmUpFailed() {
+    return "echo \"dependency layer failed, dependencies are resolved in the build\"";
+  }
+
+  /**
+   * RUN 명령어를 만든다.
+   * buildkit 이면 cacheTarget 을 cache mount 로 두어 의존성 다운로드를 빌드 사이에 재사용한다.
+   * 같은 도구의 cache 는 프로젝트끼리 공유한다.
+   * gradle, maven 은 컨테이너 사이의 동시 접근을 보장하지 않으므로 한 번에 하나의 빌드만 쓰도록 locked 로 둔다.
+   */
+  private String run(String command, String cacheTarget) {
+    boolean locked = GRADLE_CACHE.equals(cacheTarget) || MAVEN_CACHE.equals(cacheTarget);
+    StringBuilder sb = new StringBuilder();
+    sb.append("RUN ");
+    if (buildkit) {
+      sb.append("--mount=type=cache,sharing=").append(locked ? "locked" : "shared")
+          .append(",target=").append(cacheTarget).append(' ');
+    }
+    sb.append(command).append('\n');
+    return sb.toString();
+  }
+
   private String getDestPath(String projectDirectory) {
     log.info("getDestPath Start");
     StringBuilder path = new StringBuilder();
@@ -157,4 +264,11 @@ public class DockerfileMaker {
       FileManager.saveFile(pjtDir, "Dockerfile", sb);
     log.info("saveDockerFile Done");
   }
+
+  private void saveDockerIgnore(BuildConfig config) throws IOException {
+    log.info("saveDockerIgnore Start");
+    FileManager.saveFile(getDestPath(config.getProjectDirectory()), DockerIgnore.FILE_NAME,
+        DockerIgnore.patterns(config));
+    log.info("saveDockerIgnore Done");
+  }
 }
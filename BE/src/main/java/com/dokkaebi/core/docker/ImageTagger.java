@@ -0,0 +1,104 @@
+package com.dokkaebi.core.docker;
+
+import com.dokkaebi.core.docker.vo.docker.BuildConfig;
+import com.dokkaebi.core.util.CommandInterpreter;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 이미지 내용으로 tag 를 만든다.
+ *  tag = sha256(projectDirectory 의 git tree hash + 생성한 Dockerfile, .dockerignore, default.conf) 앞 12자리
+ * 같은 소스와 같은 빌드 설정이면 프로젝트가 달라도 같은 tag 가 나오므로 이미 있는 이미지는 다시 빌드하지 않는다.
+ * 커밋마다 tag 가 늘어나므로 실행 중인 tag 와 최근 dokkaebi.docker.keepImages 개만 남기고 지운다. (expiredTags)
+ */
+@Slf4j
+public class ImageTagger {
+
+  // 프로젝트와 관계없이 내용으로만 이미지를 찾기 위한 repository
+  public static final String CONTENT_REPOSITORY = "dokkaebi-content";
+
+  // tag 를 구할 수 없을 때 (git repository 가 아닌 경우 등)
+  public static final String FALLBACK_TAG = "latest";
+
+  private static final List<String> GENERATED_FILES = List.of(
+      "Dockerfile", DockerIgnore.FILE_NAME, "default.conf");
+
+  private static final int TAG_LENGTH = 12;
+
+  public static String tag(String repositoryPath, BuildConfig config) {
+    String directory = gitDirectory(config.getProjectDirectory());
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      String treeHash = CommandInterpreter.output(repositoryPath, "git rev-parse HEAD:" + directory);
+      digest.update(treeHash.getBytes(StandardCharsets.UTF_8));
+
+      Path contextPath = Paths.get(repositoryPath, directory);
+      for (String fileName : GENERATED_FILES) {
+        Path file = contextPath.resolve(fileName);
+        digest.update(fileName.getBytes(StandardCharsets.UTF_8));
+        if (Files.exists(file)) {
+          digest.update(Files.readAllBytes(file));
+        }
+      }
+      String tag = String.format("%064x", new BigInteger(1, digest.digest()))
+          .substring(0, TAG_LENGTH);
+      log.info("tag : name = {} , tree = {} , tag = {}", config.getName(), treeHash, tag);
+      return tag;
+    } catch (IOException | NoSuchAlgorithmException e) {
+      log.error("tag : failed, use {} {}", FALLBACK_TAG, e.getMessage());
+      return FALLBACK_TAG;
+    }
+  }
+
+  /**
+   * 지울 tag 목록
+   * @param tags 최근에 만든 것부터 정렬한 tag
+   * @param runningTag 지금 실행 중인 tag (항상 남긴다)
+   * @param keep 실행 중인 tag 외에 되돌리기용으로 남길 최근 tag 수
+   */
+  public static List<String> expiredTags(List<String> tags, String runningTag, int keep) {
+    List<String> expired = new ArrayList<>();
+    int kept = 0;
+    for (String tag : tags) {
+      if (tag.isEmpty() || "<none>".equals(tag) || tag.equals(runningTag)) {
+        continue;
+      }
+      if (kept < keep) {
+        kept++;
+      } else {
+        expired.add(tag);
+      }
+    }
+    return expired;
+  }
+
+  public static boolean exists(String image) {
+    try {
+      CommandInterpreter.output(".", "docker image inspect --format {{.Id}} " + image);
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  // git 은 repository 최상위 기준 상대 경로를 쓴다. ("/front/" -> "front", "/" -> "")
+  private static String gitDirectory(String projectDirectory) {
+    String directory = projectDirectory == null ? "" : projectDirectory.trim();
+    while (directory.startsWith("/") || directory.startsWith("./")) {
+      directory = directory.substring(directory.startsWith("/") ? 1 : 2);
+    }
+    while (directory.endsWith("/")) {
+      directory = directory.substring(0, directory.length() - 1);
+    }
+    return directory;
+  }
+}
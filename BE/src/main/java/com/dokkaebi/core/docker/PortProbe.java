@@ -0,0 +1,112 @@
+package com.dokkaebi.core.docker;
+
+import com.dokkaebi.core.util.CommandCanceller;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * publish 된 host 포트로 접속해 컨테이너가 요청을 받을 수 있는지 확인한다.
+ * docker-proxy 는 컨테이너가 준비되지 않아도 접속을 받은 뒤 바로 끊으므로
+ * 접속 후 바로 끊기면 준비되지 않은 것으로 본다. (데이터 수신 또는 대기 중이면 준비됨)
+ */
+@Slf4j
+public class PortProbe {
+
+    private static final int PROBE_INTERVAL_MILLIS = 1000;
+
+    private final String probeHost;
+    private final int probeTimeoutSeconds;
+
+    public PortProbe(String probeHost, int probeTimeoutSeconds) {
+        this.probeHost = probeHost;
+        this.probeTimeoutSeconds = probeTimeoutSeconds;
+    }
+
+    /**
+     * 준비될 때까지 기다린다. 제한 시간이 지나거나 canceller 가 취소되면 예외를 던진다.
+     */
+    public void await(String name, int port, CommandCanceller canceller) throws IOException {
+        log.info("await Start : name = {} , {}:{}", name, probeHost, port);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(probeTimeoutSeconds);
+        try {
+            while (!isReady(port)) {
+                if (canceller.isCancelled()) {
+                    throw new IOException("cancelled : probe " + name);
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IOException("not ready in " + probeTimeoutSeconds + "s : " + name);
+                }
+                Thread.sleep(PROBE_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("probe interrupted");
+        }
+        log.info("await Done : name = {}", name);
+    }
+
+    /**
+     * await 와 같지만 기다리는 동안 스레드를 점유하지 않는다. 확인은 scheduler 에서 PROBE_INTERVAL_MILLIS 마다 한다.
+     * 제한 시간이 지나거나 canceller 가 취소되면 IOException 으로 완료된다.
+     */
+    public CompletableFuture<Void> ready(String name, int port, CommandCanceller canceller,
+        ScheduledExecutorService scheduler) {
+        log.info("ready Start : name = {} , {}:{}", name, probeHost, port);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(probeTimeoutSeconds);
+        schedule(name, port, canceller, scheduler, deadline, future, 0);
+        return future;
+    }
+
+    private void attempt(String name, int port, CommandCanceller canceller,
+        ScheduledExecutorService scheduler, long deadline, CompletableFuture<Void> future) {
+        if (isReady(port)) {
+            log.info("ready Done : name = {}", name);
+            future.complete(null);
+        } else if (canceller.isCancelled()) {
+            future.completeExceptionally(new IOException("cancelled : probe " + name));
+        } else if (System.nanoTime() > deadline) {
+            future.completeExceptionally(
+                new IOException("not ready in " + probeTimeoutSeconds + "s : " + name));
+        } else {
+            schedule(name, port, canceller, scheduler, deadline, future, PROBE_INTERVAL_MILLIS);
+        }
+    }
+
+    private void schedule(String name, int port, CommandCanceller canceller,
+        ScheduledExecutorService scheduler, long deadline, CompletableFuture<Void> future,
+        long delayMillis) {
+        try {
+            scheduler.schedule(() -> attempt(name, port, canceller, scheduler, deadline, future),
+                delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 종료 중
+            future.completeExceptionally(new IOException("probe rejected : " + name, e));
+        }
+    }
+
+    private boolean isReady(int port) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(probeHost, port), PROBE_INTERVAL_MILLIS);
+            socket.setSoTimeout(PROBE_INTERVAL_MILLIS);
+            InputStream inputStream = socket.getInputStream();
+            try {
+                return inputStream.read() != -1;
+            } catch (SocketTimeoutException e) {
+                // 접속은 유지되고 클라이언트 요청을 기다리는 중 (postgres, redis, http 등)
+                return true;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
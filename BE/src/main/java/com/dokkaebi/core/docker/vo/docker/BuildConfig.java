@@ -1,5 +1,6 @@
 package com.dokkaebi.core.docker.vo.docker;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
@@ -14,6 +15,12 @@ public class BuildConfig extends DokkaebiConfig {
 
   private String type;
 
+  // 먼저 준비되어야 하는 DbConfig 이름 목록, null 이면 모든 DbConfig
+  private List<String> dependsOn;
+
+  // 기본 .dockerignore 에 더해 build context 에서 제외할 경로
+  private List<String> dockerIgnore;
+
   public BuildConfig() {
   }
 
@@ -25,6 +32,14 @@ public class BuildConfig extends DokkaebiConfig {
     this.type = type;
   }
 
+  public BuildConfig(String name, String framework, String version, List<DokkaebiProperty> properties,
+      String projectDirectory, String buildPath, String type, List<String> dependsOn,
+      List<String> dockerIgnore) {
+    this(name, framework, version, properties, projectDirectory, buildPath, type);
+    this.dependsOn = dependsOn;
+    this.dockerIgnore = dockerIgnore;
+  }
+
   public String getProjectDirectory() {
     return projectDirectory;
   }
@@ -36,9 +51,44 @@ public class BuildConfig extends DokkaebiConfig {
   public String getType() {
     return type;
   }
+
+  public List<String> getDependsOn() {
+    return dependsOn;
+  }
+
+  public List<String> getDockerIgnore() {
+    return dockerIgnore;
+  }
+
   public List<DokkaebiProperty> getProperties() {
     return super.getProperties();
   }
+  /**
+   * 변경된 경로 중 projectDirectory 아래의 경로가 있는지 확인한다.
+   * projectDirectory 가 repository 최상위이면 어떤 변경이든 포함된다.
+   */
+  public boolean isChanged(Collection<String> changedPaths) {
+    String directory = normalize(projectDirectory);
+    for (String path : changedPaths) {
+      String changed = normalize(path);
+      if (directory.isEmpty() || changed.equals(directory) || changed.startsWith(directory + "/")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String normalize(String path) {
+    String normalized = path == null ? "" : path.trim();
+    while (normalized.startsWith("./") || normalized.startsWith("/")) {
+      normalized = normalized.substring(normalized.startsWith("/") ? 1 : 2);
+    }
+    while (normalized.endsWith("/")) {
+      normalized = normalized.substring(0, normalized.length() - 1);
+    }
+    return ".".equals(normalized) ? "" : normalized;
+  }
+
   public boolean useNginx() {
     return (getFramework().equals("Vue") || getFramework().equals("React") && getType().equals("Yes"));
   }
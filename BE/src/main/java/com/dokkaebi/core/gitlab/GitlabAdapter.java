@@ -1,6 +1,7 @@
 package com.dokkaebi.core.gitlab;
 
 import com.dokkaebi.core.gitlab.dto.GitlabCloneDto;
+import com.dokkaebi.entity.git.enums.CloneStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -29,12 +30,116 @@ public class GitlabAdapter {
     return sb.toString();
   }
 
+  /**
+   * repository 의 bare mirror 를 만들거나, 이미 있으면 변경분만 받아온다.
+   * 작업 트리가 --reference 로 mirror 의 object 를 빌려 쓰므로 mirror 는 gc 하지 않는다.
+   */
+  public static List<String> getMirrorCommands(GitlabCloneDto dto, String mirrorPath,
+      boolean exists) {
+    String url = authUrl(dto);
+    List<String> commands = new ArrayList<>();
+    if (!exists) {
+      commands.add("git clone --mirror " + url + " " + mirrorPath);
+      commands.add("git -C " + mirrorPath + " config gc.auto 0");
+    } else {
+      // access token 이 바뀌었을 수 있으므로 remote url 을 다시 설정한다.
+      commands.add("git -C " + mirrorPath + " remote set-url origin " + url);
+      commands.add("git -C " + mirrorPath + " fetch --prune origin");
+    }
+    return commands;
+  }
+
+  /**
+   * mirror 로부터 작업 트리를 만들거나, 이미 있으면 mirror 에서 받아와 branch 의 최신 커밋으로 맞춘다.
+   * origin 은 원격 repository 를 가리키도록 두어 pull 은 그대로 동작한다.
+   */
+  public static List<String> getCheckoutCommands(GitlabCloneDto dto, String mirrorPath,
+      String repositoryPath, boolean exists) {
+    String url = authUrl(dto);
+    String branch = dto.getBranch();
+    List<String> commands = new ArrayList<>();
+    if (!exists) {
+      commands.add("git clone --reference " + mirrorPath + " -b " + branch + " --single-branch "
+          + mirrorPath + " " + repositoryPath);
+      commands.add("git -C " + repositoryPath + " remote set-url origin " + url);
+    } else {
+      commands.add("git -C " + repositoryPath + " remote set-url origin " + url);
+      commands.add("git -C " + repositoryPath + " fetch " + mirrorPath + " +refs/heads/" + branch
+          + ":refs/remotes/origin/" + branch);
+      commands.add("git -C " + repositoryPath + " checkout -f -B " + branch + " origin/" + branch);
+      commands.add("git -C " + repositoryPath + " clean -ffdx");
+    }
+    return commands;
+  }
+
+  private static String authUrl(GitlabCloneDto dto) {
+    List<String> urls = parseHttpUrl(dto.getGitHttpUrl());
+    if(urls.size() != 2)
+      throw new IllegalArgumentException("GitlabAdapter.authUrl() Git http url이 잘못된 형식입니다. : " + dto.getGitHttpUrl());
+    StringBuilder sb = new StringBuilder();
+    sb.append(urls.get(0))
+        .append("gitlab-ci-token:").append(dto.getAccessToken())
+        .append("@").append(urls.get(1));
+    return sb.toString();
+  }
+
   public static String getPullCommand(String branchName) {
     StringBuilder sb = new StringBuilder();
     sb.append("git pull origin ").append(branchName);
     return sb.toString();
   }
 
+  public static String getHeadCommand() {
+    return "git rev-parse HEAD";
+  }
+
+  public static String getDiffCommand(String fromCommit, String toCommit) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("git diff --name-only ").append(fromCommit).append(' ').append(toCommit);
+    return sb.toString();
+  }
+
+  /**
+   * Shallow 는 pull(merge) 대신 최신 커밋부터 depth 만큼만 받아와 그 커밋으로 맞춘다.
+   * 이력이 없으므로 force push 된 branch 도 그대로 따라간다.
+   */
+  public static List<String> getPullCommands(String branchName, CloneStrategy cloneStrategy,
+      Integer cloneDepth) {
+    List<String> commands = new ArrayList<>();
+    if (cloneStrategy == CloneStrategy.Shallow) {
+      int depth = cloneDepth == null ? GitlabCloneDto.DEFAULT_DEPTH : cloneDepth;
+      commands.add("git fetch --depth " + depth + " origin " + branchName);
+      commands.add("git reset --hard FETCH_HEAD");
+    } else {
+      commands.add(getPullCommand(branchName));
+    }
+    return commands;
+  }
+
+  /**
+   * mirror 를 거치지 않고 원격 repository 에서 작업 트리를 직접 받아온다. (Shallow, Blobless)
+   * Blobless 는 clone 할 때의 filter 가 repository 설정에 남아 이후 fetch 에도 적용된다.
+   */
+  public static List<String> getCloneCommands(GitlabCloneDto dto, String repositoryPath,
+      boolean exists) {
+    String url = authUrl(dto);
+    String branch = dto.getBranch();
+    String option = dto.getCloneStrategy() == CloneStrategy.Shallow
+        ? "--depth " + dto.getCloneDepth() : "--filter=blob:none";
+    List<String> commands = new ArrayList<>();
+    if (!exists) {
+      commands.add("git clone " + option + " -b " + branch + " --single-branch " + url + " "
+          + repositoryPath);
+    } else {
+      String fetchOption = dto.getCloneStrategy() == CloneStrategy.Shallow ? option + " " : "";
+      commands.add("git -C " + repositoryPath + " remote set-url origin " + url);
+      commands.add("git -C " + repositoryPath + " fetch " + fetchOption + "origin " + branch);
+      commands.add("git -C " + repositoryPath + " checkout -f -B " + branch + " FETCH_HEAD");
+      commands.add("git -C " + repositoryPath + " clean -ffdx");
+    }
+    return commands;
+  }
+
   public static List<String> parseHttpUrl(String url) {
     List<String> result = new ArrayList<>();
     Matcher matcher = Pattern.compile(regex).matcher(url);
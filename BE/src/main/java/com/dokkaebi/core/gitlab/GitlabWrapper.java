@@ -1,7 +1,11 @@
 package com.dokkaebi.core.gitlab;
 
 import com.dokkaebi.core.gitlab.dto.GitlabWebHookDto;
+import java.util.LinkedHashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.ws.rs.NotSupportedException;
 
 public class GitlabWrapper {
@@ -17,7 +21,10 @@ public class GitlabWrapper {
           ((Map<String,Object>)request.get("project")).get("default_branch"));
       String repositoryName = String.valueOf(
           ((Map<String,Object>)request.get("repository")).get("name"));
-      return GitlabWebHookDto.of(eventType,username,gitHttpUrl,defaultBranch,repositoryName);
+      String before = String.valueOf(request.get("before"));
+      String after = String.valueOf(request.get("after"));
+      return GitlabWebHookDto.of(eventType,username,gitHttpUrl,defaultBranch,repositoryName,
+          before,after,changedPaths(request));
 
     } else if (eventType.equals("merge_request")) {
       String username = String.valueOf(((Map<String,Object>)request.get("user")).get("username"));
@@ -33,4 +40,26 @@ public class GitlabWrapper {
     }
   }
 
+  /**
+   * push 에 포함된 커밋들의 added/modified/removed 경로를 모은다.
+   * gitlab 은 payload 에 최대 20개의 커밋만 담으므로 전체 커밋이 없으면 null 을 반환한다.
+   */
+  private static List<String> changedPaths(Map<String, Object> request) {
+    List<Map<String,Object>> commits = (List<Map<String,Object>>) request.get("commits");
+    Object totalCommitsCount = request.get("total_commits_count");
+    if(commits == null || totalCommitsCount == null
+        || Integer.parseInt(String.valueOf(totalCommitsCount)) != commits.size())
+      return null;
+
+    Set<String> paths = new LinkedHashSet<>();
+    for (Map<String, Object> commit : commits) {
+      for (String key : List.of("added", "modified", "removed")) {
+        List<String> files = (List<String>) commit.get(key);
+        if(files != null)
+          paths.addAll(files);
+      }
+    }
+    return new ArrayList<>(paths);
+  }
+
 }
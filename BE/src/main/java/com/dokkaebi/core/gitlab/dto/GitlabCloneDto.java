@@ -1,5 +1,6 @@
 package com.dokkaebi.core.gitlab.dto;
 
+import com.dokkaebi.entity.git.enums.CloneStrategy;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -8,14 +9,26 @@ import lombok.Getter;
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class GitlabCloneDto {
 
+  public static final int DEFAULT_DEPTH = 1;
+
   private String accessToken;
   private String gitHttpUrl;
   private String branch;
 
   private Long gitProjectId;
 
+  private CloneStrategy cloneStrategy;
+  private int cloneDepth;
+
 
   public static GitlabCloneDto of(String accessToken, String gitHttpUrl, String branch, Long gitProjectId) {
-    return new GitlabCloneDto(accessToken,gitHttpUrl,branch,gitProjectId);
+    return new GitlabCloneDto(accessToken,gitHttpUrl,branch,gitProjectId,CloneStrategy.Full,DEFAULT_DEPTH);
+  }
+
+  public static GitlabCloneDto of(String accessToken, String gitHttpUrl, String branch, Long gitProjectId,
+      CloneStrategy cloneStrategy, Integer cloneDepth) {
+    return new GitlabCloneDto(accessToken, gitHttpUrl, branch, gitProjectId,
+        cloneStrategy == null ? CloneStrategy.Full : cloneStrategy,
+        cloneDepth == null ? DEFAULT_DEPTH : cloneDepth);
   }
 }
@@ -1,6 +1,7 @@
 package com.dokkaebi.core.gitlab.dto;
 
 import com.dokkaebi.entity.git.WebhookHistory;
+import java.util.List;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -17,19 +18,36 @@ public class GitlabWebHookDto {
   private String defaultBranch;
   private String repositoryName;
 
+  // push 이벤트의 이전/이후 커밋
+  private String before;
+  private String after;
+  // push 로 추가/수정/삭제된 경로, payload 에 모든 커밋이 없으면 null
+  private List<String> changedPaths;
+
   public static GitlabWebHookDto of(String eventKind, String username, String gitHttpUrl,
       String defaultBranch, String repositoryName) {
-    return new GitlabWebHookDto(eventKind, username, gitHttpUrl, defaultBranch,repositoryName
+    return new GitlabWebHookDto(eventKind, username, gitHttpUrl, defaultBranch,repositoryName,
+        null, null, null
     );
   }
 
+  public static GitlabWebHookDto of(String eventKind, String username, String gitHttpUrl,
+      String defaultBranch, String repositoryName, String before, String after,
+      List<String> changedPaths) {
+    return new GitlabWebHookDto(eventKind, username, gitHttpUrl, defaultBranch, repositoryName,
+        before, after, changedPaths);
+  }
+
   public static GitlabWebHookDto from(WebhookHistory history) {
     return new GitlabWebHookDto(
         history.getEventKind(),
         history.getUsername(),
         history.getGitHttpUrl(),
         history.getDefaultBranch(),
-        history.getRepositoryName()
+        history.getRepositoryName(),
+        null,
+        null,
+        null
     );
   }
 
@@ -0,0 +1,70 @@
+package com.dokkaebi.core.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.exec.ProcessDestroyer;
+
+/**
+ * 여러 명령어를 동시에 실행할 때 하나가 실패하면 나머지 프로세스를 종료하기 위한 ProcessDestroyer
+ * cancel 이후에 시작되는 프로세스는 바로 종료된다.
+ * 프로세스가 아닌 작업 (Docker Engine API 응답 스트림 등)은 register 하면 cancel 시 close 한다.
+ */
+@Slf4j
+public class CommandCanceller implements ProcessDestroyer {
+
+  private final Set<Process> processes = new HashSet<>();
+
+  private final Set<Closeable> closeables = new HashSet<>();
+
+  private boolean cancelled = false;
+
+  @Override
+  public synchronized boolean add(Process process) {
+    if (cancelled) {
+      process.destroy();
+    }
+    return processes.add(process);
+  }
+
+  @Override
+  public synchronized boolean remove(Process process) {
+    return processes.remove(process);
+  }
+
+  @Override
+  public synchronized int size() {
+    return processes.size();
+  }
+
+  public synchronized void register(Closeable closeable) {
+    if (cancelled) {
+      close(closeable);
+    }
+    closeables.add(closeable);
+  }
+
+  public synchronized void unregister(Closeable closeable) {
+    closeables.remove(closeable);
+  }
+
+  public synchronized void cancel() {
+    cancelled = true;
+    processes.forEach(Process::destroy);
+    closeables.forEach(CommandCanceller::close);
+  }
+
+  public synchronized boolean isCancelled() {
+    return cancelled;
+  }
+
+  private static void close(Closeable closeable) {
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      log.error("close : {}", e.getMessage());
+    }
+  }
+}
@@ -2,10 +2,21 @@ package com.dokkaebi.core.util;
 
 import com.dokkaebi.util.FileManager;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.exec.CommandLine;
 import org.apache.commons.exec.DefaultExecutor;
@@ -17,12 +28,9 @@ public class CommandInterpreter {
   public static void run(String path, String logName, int buildNumber, List<String> commands)
     throws IOException {
     log.info("run Start : logName = {} , buildNumber = {}", logName, buildNumber);
-    StringBuilder sb = new StringBuilder();
-    sb.append(path).append('/').append(logName).append('_').append(buildNumber);
     FileManager.checkAndMakeDir(path);
-    File file = new File(sb.toString());
     DefaultExecutor executor = new DefaultExecutor();
-    try (FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+    try (OutputStream fileOutputStream = logStream(path, logName, buildNumber, null, false)) {
       for (String command : commands) {
         CommandLine commandLine = CommandLine.parse(command);
         PumpStreamHandler handler = new PumpStreamHandler(fileOutputStream);
@@ -43,15 +51,194 @@ public class CommandInterpreter {
     log.info("run Done");
   }
 
-  //요거 안쓰이는중
-  public static void run(String path, String logName, int buildNumber, String command)
+  /**
+   * 서로 독립적인 작업을 executor 에서 동시에 실행한다.
+   * 작업마다 {logName}_{buildNumber}_{name} 로그 파일에 따로 기록한 뒤
+   * 모든 작업이 끝나면 {logName}_{buildNumber} 로그 파일로 합친다.
+   * 하나라도 실패하면 나머지 작업을 취소하고 첫 번째 예외를 던진다.
+   * @param tasks 작업 이름 - 작업
+   */
+  public static void runParallelTasks(String path, String logName, int buildNumber,
+    Map<String, StreamTask> tasks, ExecutorService executorService) throws IOException {
+    log.info("runParallelTasks Start : logName = {} , buildNumber = {} , streams = {}", logName,
+      buildNumber, tasks.keySet());
+    FileManager.checkAndMakeDir(path);
+    CommandCanceller canceller = new CommandCanceller();
+    CompletionService<String> completionService = new ExecutorCompletionService<>(
+      executorService);
+
+    List<String> names = new ArrayList<>(tasks.keySet());
+    for (Map.Entry<String, StreamTask> entry : tasks.entrySet()) {
+      completionService.submit(() -> {
+        runStreamTask(path, logName, buildNumber, entry.getKey(), entry.getValue(), canceller);
+        return entry.getKey();
+      });
+    }
+
+    IOException failure = null;
+    for (int i = 0; i < tasks.size(); i++) {
+      try {
+        log.info("runParallelTasks : stream Done = {}", completionService.take().get());
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          log.error("runParallelTasks : stream Failed, cancel others : {}", e.getCause());
+          failure = (e.getCause() instanceof IOException) ? (IOException) e.getCause()
+            : new IOException(e.getCause());
+          canceller.cancel();
+        }
+      } catch (InterruptedException e) {
+        canceller.cancel();
+        Thread.currentThread().interrupt();
+        failure = new InterruptedIOException("runParallelTasks interrupted");
+        break;
+      }
+    }
+
+    mergeStreams(path, logName, buildNumber, names);
+    if (failure != null) {
+      log.error("runParallelTasks Failed : {}", failure.getMessage());
+      throw failure;
+    }
+    log.info("runParallelTasks Done");
+  }
+
+  /**
+   * 명령어 묶음을 {logName}_{buildNumber}_{name} 로그 파일에 기록하며 순서대로 실행한다.
+   * writeStream 으로 미리 기록한 내용이 있으면 그 뒤에 이어서 기록한다.
+   * canceller 가 취소되면 실행 중인 프로세스가 종료되고 남은 명령어는 실행하지 않는다.
+   */
+  public static void runStream(String path, String logName, int buildNumber, String name,
+    List<String> commands, CommandCanceller canceller) throws IOException {
+    runStreamTask(path, logName, buildNumber, name, StreamTask.of(commands), canceller);
+  }
+
+  /**
+   * 작업의 출력을 {logName}_{buildNumber}_{name} 로그 파일에 이어서 기록하며 실행한다.
+   */
+  public static void runStreamTask(String path, String logName, int buildNumber, String name,
+    StreamTask task, CommandCanceller canceller) throws IOException {
+    FileManager.checkAndMakeDir(path);
+    try (OutputStream fileOutputStream = logStream(path, logName, buildNumber, name, true)) {
+      task.run(fileOutputStream, canceller);
+    }
+  }
+
+  /**
+   * 작업의 출력을 {logName}_{buildNumber} 로그 파일에 이어서 기록하며 실행한다.
+   */
+  public static void runTask(String path, String logName, int buildNumber, StreamTask task)
     throws IOException {
+    log.info("runTask Start : logName = {} , buildNumber = {}", logName, buildNumber);
+    FileManager.checkAndMakeDir(path);
+    try (OutputStream fileOutputStream = logStream(path, logName, buildNumber, null, true)) {
+      task.run(fileOutputStream, new CommandCanceller());
+    } catch (Exception e) {
+      log.error("runTask Failed : {}", e);
+      throw e;
+    }
+    log.info("runTask Done");
+  }
+
+  /**
+   * 명령어를 순서대로 실행하며 outputStream 에 기록한다.
+   * canceller 가 취소되면 실행 중인 프로세스가 종료되고 남은 명령어는 실행하지 않는다.
+   */
+  public static void execute(OutputStream outputStream, List<String> commands,
+    CommandCanceller canceller) throws IOException {
+    DefaultExecutor executor = new DefaultExecutor();
+    executor.setProcessDestroyer(canceller);
+    for (String command : commands) {
+      if (canceller.isCancelled()) {
+        throw new IOException("cancelled : " + command);
+      }
+      CommandLine commandLine = CommandLine.parse(command);
+      PumpStreamHandler handler = new PumpStreamHandler(outputStream);
+      outputStream.write(command.getBytes());
+      outputStream.write('\n');
+      executor.setStreamHandler(handler);
+      executor.setExitValues(new int[]{0});
+      executor.execute(commandLine);
+      outputStream.write('\n');
+      outputStream.flush();
+    }
+  }
+
+  /**
+   * runStream 실행 전에 {logName}_{buildNumber}_{name} 로그 파일에 한 줄을 기록한다.
+   */
+  public static void writeStream(String path, String logName, int buildNumber, String name,
+    String line) throws IOException {
+    FileManager.checkAndMakeDir(path);
+    try (OutputStream fileOutputStream = logStream(path, logName, buildNumber, name, true)) {
+      fileOutputStream.write(line.getBytes(StandardCharsets.UTF_8));
+      fileOutputStream.write('\n');
+    }
+  }
+
+  /**
+   * runStream 으로 기록한 로그 파일들을 names 순서대로 {logName}_{buildNumber} 로그 파일에 합친다.
+   * 이미 합친 내용이 있으면 그 뒤에 이어서 기록한다.
+   * 합친 내용은 이미 LogBroadcaster 로 전달했으므로 다시 전달하지 않는다.
+   */
+  public static void mergeStreams(String path, String logName, int buildNumber,
+    List<String> names) throws IOException {
     StringBuilder sb = new StringBuilder();
     sb.append(path).append('/').append(logName).append('_').append(buildNumber);
+    try (FileOutputStream fileOutputStream = new FileOutputStream(sb.toString(), true)) {
+      for (String name : names) {
+        File streamFile = new File(streamPath(path, logName, buildNumber, name));
+        if (!streamFile.exists()) {
+          continue;
+        }
+        long baseOffset = fileOutputStream.getChannel().position();
+        Files.copy(streamFile.toPath(), fileOutputStream);
+        fileOutputStream.write('\n');
+        LogBroadcaster.moved(path, logName, buildNumber, streamFile, baseOffset);
+        Files.delete(streamFile.toPath());
+      }
+    }
+  }
+
+  /**
+   * {logName}_{buildNumber} (name 이 null) 또는 {logName}_{buildNumber}_{name} 로그 파일에 쓰는 stream
+   * 진행 중인 단계이면 쓰는 내용을 LogBroadcaster 로도 전달한다.
+   */
+  private static OutputStream logStream(String path, String logName, int buildNumber,
+    String name, boolean append) throws IOException {
+    File file = new File(name == null ? path + '/' + logName + '_' + buildNumber
+      : streamPath(path, logName, buildNumber, name));
+    return LogBroadcaster.tee(path, logName, buildNumber, file, name, append,
+      new FileOutputStream(file, append));
+  }
+
+  private static String streamPath(String path, String logName, int buildNumber, String name) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(path).append('/').append(logName).append('_').append(buildNumber)
+      .append('_').append(name);
+    return sb.toString();
+  }
+
+  /**
+   * destPath 에서 명령어를 실행하고 표준 출력을 반환한다. (로그 파일에 기록하지 않음)
+   */
+  public static String output(String destPath, String command) throws IOException {
+    log.info("output Start : destPath = {} , command = {}", destPath, command);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    DefaultExecutor executor = new DefaultExecutor();
+    executor.setWorkingDirectory(new File(destPath));
+    executor.setStreamHandler(new PumpStreamHandler(outputStream, OutputStream.nullOutputStream()));
+    executor.setExitValues(new int[]{0});
+    executor.execute(CommandLine.parse(command));
+    log.info("output Done");
+    return outputStream.toString(StandardCharsets.UTF_8).trim();
+  }
+
+  //요거 안쓰이는중
+  public static void run(String path, String logName, int buildNumber, String command)
+    throws IOException {
     FileManager.checkAndMakeDir(path);
-    File file = new File(sb.toString());
     DefaultExecutor executor = new DefaultExecutor();
-    try (FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+    try (OutputStream fileOutputStream = logStream(path, logName, buildNumber, null, false)) {
       CommandLine commandLine = CommandLine.parse(command);
       PumpStreamHandler handler = new PumpStreamHandler(fileOutputStream);
       fileOutputStream.write(command.getBytes());
@@ -70,14 +257,11 @@ public class CommandInterpreter {
                                  int buildNumber, List<String> commands)
     throws IOException {
     log.info("runDestPath with commands Start : destPath = {} , logPath = {} , logName = {}", destPath, logPath, logName);
-    StringBuilder sb = new StringBuilder();
-    sb.append(logPath).append('/').append(logName).append('_').append(buildNumber);
     FileManager.checkAndMakeDir(destPath);
     FileManager.checkAndMakeDir(logPath);
-    File file = new File(sb.toString());
     File destFile = new File(destPath);
     DefaultExecutor executor = new DefaultExecutor();
-    try (FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+    try (OutputStream fileOutputStream = logStream(logPath, logName, buildNumber, null, false)) {
       for (String command : commands) {
         CommandLine commandLine = CommandLine.parse(command);
         PumpStreamHandler handler = new PumpStreamHandler(fileOutputStream);
@@ -102,14 +286,11 @@ public class CommandInterpreter {
                                  int buildNumber, String command)
     throws IOException {
     log.info("runDestPath Start : destPath = {} , logPath = {} , logName = {}", destPath, logPath, logName);
-    StringBuilder sb = new StringBuilder();
-    sb.append(logPath).append('/').append(logName).append('_').append(buildNumber);
     FileManager.checkAndMakeDir(destPath);
     FileManager.checkAndMakeDir(logPath);
-    File file = new File(sb.toString());
     File destFile = new File(destPath);
     DefaultExecutor executor = new DefaultExecutor();
-    try (FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+    try (OutputStream fileOutputStream = logStream(logPath, logName, buildNumber, null, false)) {
       CommandLine commandLine = CommandLine.parse(command);
       PumpStreamHandler handler = new PumpStreamHandler(fileOutputStream);
       fileOutputStream.write(command.getBytes());
@@ -0,0 +1,496 @@
+package com.dokkaebi.core.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 진행 중인 단계 (Pull, Build, Run) 의 로그를 실시간으로 여러 viewer 에게 전달한다.
+ *  - CommandInterpreter 가 로그 파일에 쓰는 내용을 줄 단위로 받아 단계별 channel 에 넣는다.
+ *  - channel 은 최근 RING_LINES 줄만 메모리에 두고, 연결된 viewer 마다 보낼 줄을 쌓아 두었다가 전달한다.
+ *  - 늦게 연결한 viewer 는 메모리에 없는 앞부분을 로그 파일에서 한 번 읽어 받는다.
+ * 로그 파일은 viewer 수와 관계없이 다시 읽지 않는다. (늦게 연결한 viewer 의 따라잡기만 파일을 읽음)
+ * channel 은 open 부터 complete 까지만 존재하며, 그 밖의 로그 (Remove, Clone 등) 는 전달하지 않는다.
+ */
+@Slf4j
+public class LogBroadcaster {
+
+  private static final int RING_LINES = 2000;
+
+  // 보내지 못하고 쌓인 줄이 이보다 많으면 느린 viewer 로 보고 연결을 끊는다.
+  private static final int MAX_PENDING_LINES = 20000;
+
+  private static final int BATCH_LINES = 500;
+
+  // 줄바꿈 없이 이보다 길면 나눠서 보낸다.
+  private static final int MAX_LINE_BYTES = 64 * 1024;
+
+  private static final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+  private static final ExecutorService dispatcher = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "log-broadcaster");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * 로그를 받는 쪽 (SSE 등)
+   */
+  public interface Viewer {
+
+    void send(List<String> lines) throws IOException;
+
+    void complete();
+  }
+
+  /**
+   * {logName}_{buildNumber} 단계의 channel 을 연다. 이후 이 단계의 로그는 viewer 에게 전달된다.
+   */
+  public static void open(String path, String logName, int buildNumber) {
+    String key = stagePath(path, logName, buildNumber);
+    channels.computeIfAbsent(key, Channel::new);
+    log.info("open : {}", key);
+  }
+
+  /**
+   * 단계가 끝났음을 알린다. viewer 는 남은 줄을 모두 받은 뒤 연결이 끝난다.
+   */
+  public static void complete(String path, String logName, int buildNumber) {
+    String key = stagePath(path, logName, buildNumber);
+    Channel channel = channels.remove(key);
+    if (channel == null) {
+      return;
+    }
+    List<Subscription> subscriptions;
+    synchronized (channel) {
+      channel.completed = true;
+      subscriptions = new ArrayList<>(channel.subscriptions);
+    }
+    subscriptions.forEach(Subscription::complete);
+    log.info("complete : {} , viewers = {}", key, subscriptions.size());
+  }
+
+  /**
+   * 진행 중인 단계이면 viewer 를 연결하고 true 를 반환한다.
+   * 진행 중이 아니면 (끝났거나 시작 전) false 를 반환한다.
+   */
+  public static boolean subscribe(Path stageFile, Viewer viewer) {
+    Channel channel = channels.get(stageFile.toString());
+    if (channel == null) {
+      return false;
+    }
+    Subscription subscription;
+    synchronized (channel) {
+      if (channel.completed) {
+        return false;
+      }
+      subscription = new Subscription(channel, viewer, channel.catchUp(), channel.ringLines());
+      channel.subscriptions.add(subscription);
+    }
+    log.info("subscribe : {} , viewers = {}", stageFile, channel.subscriptions.size());
+    subscription.schedule();
+    return true;
+  }
+
+  /**
+   * 진행 중인 단계의 로그 파일인지 ({logName}_{buildNumber})
+   */
+  public static boolean isOpen(Path stageFile) {
+    return channels.containsKey(stageFile.toString());
+  }
+
+  /**
+   * 끝난 단계의 로그 파일 전체를 viewer 에게 보내고 연결을 끝낸다.
+   */
+  public static void replay(Path stageFile, Viewer viewer) {
+    dispatcher.execute(() -> {
+      try {
+        if (LogReader.exists(stageFile)) {
+          sendFile(viewer, stageFile, 0, LogReader.size(stageFile), "");
+        }
+      } catch (IOException e) {
+        log.error("replay : {} {}", stageFile, e.getMessage());
+      }
+      viewer.complete();
+    });
+  }
+
+  /**
+   * 로그 파일에 쓰는 내용을 진행 중인 단계의 channel 에도 전달하는 OutputStream
+   * channel 이 없으면 파일에만 쓴다.
+   * @param sourceFile 실제로 쓰는 파일 (단계 로그 또는 {logName}_{buildNumber}_{name} 로그)
+   * @param name 병렬 실행 묶음 이름, 단계 로그에 직접 쓰면 null
+   * @param append 이어서 쓰는지 (false 면 파일을 비우고 처음부터 씀)
+   */
+  static OutputStream tee(String path, String logName, int buildNumber, File sourceFile,
+      String name, boolean append, OutputStream outputStream) {
+    Channel channel = channels.get(stagePath(path, logName, buildNumber));
+    if (channel == null) {
+      return outputStream;
+    }
+    Source source;
+    synchronized (channel) {
+      source = channel.sources.computeIfAbsent(sourceFile.getPath(),
+          key -> new Source(key, name == null ? "" : "[" + name + "] "));
+      if (!append) {
+        source.lineEnd = 0;
+      }
+    }
+    long offset = append ? sourceFile.length() : 0;
+    return new TeeOutputStream(outputStream, channel, source, offset);
+  }
+
+  /**
+   * 병렬 실행 묶음 로그가 단계 로그의 baseOffset 위치로 합쳐졌음을 알린다.
+   * 이후 따라잡기는 묶음 로그 대신 단계 로그에서 읽는다.
+   */
+  static void moved(String path, String logName, int buildNumber, File sourceFile,
+      long baseOffset) {
+    String stagePath = stagePath(path, logName, buildNumber);
+    Channel channel = channels.get(stagePath);
+    if (channel == null) {
+      return;
+    }
+    synchronized (channel) {
+      Source source = channel.sources.get(sourceFile.getPath());
+      if (source != null) {
+        source.readPath = stagePath;
+        source.base = baseOffset;
+      }
+    }
+  }
+
+  private static String stagePath(String path, String logName, int buildNumber) {
+    return Paths.get(path, logName + "_" + buildNumber).toString();
+  }
+
+  // file 의 [from, to) 를 줄 단위로 나눠 보낸다.
+  private static void sendFile(Viewer viewer, Path file, long from, long to, String label)
+      throws IOException {
+    long offset = from;
+    while (offset < to) {
+      LogReader.Page page = LogReader.range(file, offset,
+          (int) Math.min(LogReader.MAX_PAGE_BYTES, to - offset));
+      if (page.getNextOffset() <= offset) {
+        break;
+      }
+      String content = page.getContent();
+      // 마지막 줄바꿈 뒤의 빈 문자열은 보내지 않는다.
+      if (content.endsWith("\n")) {
+        content = content.substring(0, content.length() - 1);
+      }
+      List<String> lines = new ArrayList<>();
+      for (String line : content.split("\n", -1)) {
+        lines.add(label + line);
+        if (lines.size() >= BATCH_LINES) {
+          viewer.send(lines);
+          lines = new ArrayList<>();
+        }
+      }
+      if (!lines.isEmpty()) {
+        viewer.send(lines);
+      }
+      offset = page.getNextOffset();
+    }
+  }
+
+  private static class Channel {
+
+    private final String key;
+    private final Deque<Line> ring = new ArrayDeque<>();
+    private final Map<String, Source> sources = new LinkedHashMap<>();
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private boolean completed = false;
+
+    private Channel(String key) {
+      this.key = key;
+    }
+
+    // lock 안에서 호출
+    private void publish(Source source, long offset, String text) {
+      Line line = new Line(source, offset, source.label + text);
+      ring.addLast(line);
+      if (ring.size() > RING_LINES) {
+        ring.removeFirst();
+      }
+      subscriptions.forEach(subscription -> subscription.offer(line.text));
+    }
+
+    // 메모리에 없는 앞부분을 파일에서 읽을 위치 (lock 안에서 호출)
+    private List<CatchUp> catchUp() {
+      Map<Source, Long> firstOffsets = new LinkedHashMap<>();
+      for (Line line : ring) {
+        firstOffsets.putIfAbsent(line.source, line.offset);
+      }
+      List<CatchUp> catchUps = new ArrayList<>();
+      for (Source source : sources.values()) {
+        long end = firstOffsets.getOrDefault(source, source.lineEnd);
+        if (end > 0) {
+          catchUps.add(new CatchUp(source, source.readPath, source.base, end));
+        }
+      }
+      return catchUps;
+    }
+
+    private List<String> ringLines() {
+      List<String> lines = new ArrayList<>();
+      ring.forEach(line -> lines.add(line.text));
+      return lines;
+    }
+  }
+
+  private static class Source {
+
+    private final String label;
+    // 따라잡기에서 읽을 파일과 시작 위치 (합쳐진 뒤에는 단계 로그)
+    private String readPath;
+    private long base = 0;
+    // 전달한 마지막 줄의 끝 위치
+    private long lineEnd = 0;
+
+    private Source(String path, String label) {
+      this.readPath = path;
+      this.label = label;
+    }
+  }
+
+  private static class Line {
+
+    private final Source source;
+    private final long offset;
+    private final String text;
+
+    private Line(Source source, long offset, String text) {
+      this.source = source;
+      this.offset = offset;
+      this.text = text;
+    }
+  }
+
+  private static class CatchUp {
+
+    private final Source source;
+    private final String readPath;
+    private final long base;
+    private final long end;
+
+    private CatchUp(Source source, String readPath, long base, long end) {
+      this.source = source;
+      this.readPath = readPath;
+      this.base = base;
+      this.end = end;
+    }
+  }
+
+  private static class Subscription implements Runnable {
+
+    private final Channel channel;
+    private final Viewer viewer;
+    private List<CatchUp> catchUps;
+    private List<String> ringLines;
+
+    private final Deque<String> pending = new ArrayDeque<>();
+    private boolean scheduled = false;
+    private boolean completed = false;
+    private boolean closed = false;
+    // close() 를 불렀는지 (viewer.complete 는 한 번만)
+    private boolean finished = false;
+
+    private Subscription(Channel channel, Viewer viewer, List<CatchUp> catchUps,
+        List<String> ringLines) {
+      this.channel = channel;
+      this.viewer = viewer;
+      this.catchUps = catchUps;
+      this.ringLines = ringLines;
+    }
+
+    private synchronized void offer(String line) {
+      if (closed) {
+        return;
+      }
+      if (pending.size() >= MAX_PENDING_LINES) {
+        log.error("offer : viewer too slow, disconnect {}", channel.key);
+        closed = true;
+        pending.clear();
+        completed = true;
+      } else {
+        pending.addLast(line);
+      }
+      schedule();
+    }
+
+    private synchronized void complete() {
+      completed = true;
+      schedule();
+    }
+
+    private synchronized void schedule() {
+      if (!scheduled) {
+        scheduled = true;
+        dispatcher.execute(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      try {
+        if (catchUps != null) {
+          sendCatchUp();
+          catchUps = null;
+          sendLines(ringLines);
+          ringLines = null;
+        }
+        while (true) {
+          List<String> batch = new ArrayList<>();
+          boolean done;
+          synchronized (this) {
+            while (!pending.isEmpty() && batch.size() < BATCH_LINES) {
+              batch.add(pending.removeFirst());
+            }
+            done = batch.isEmpty() && completed && !finished;
+            if (batch.isEmpty()) {
+              scheduled = false;
+              finished |= done;
+            }
+          }
+          if (batch.isEmpty()) {
+            // channel lock 은 이 lock 밖에서 잡는다. (publish 가 channel lock 을 잡고 offer 를 부름)
+            if (done) {
+              close();
+            }
+            return;
+          }
+          sendLines(batch);
+        }
+      } catch (IOException e) {
+        log.info("run : viewer disconnected {} {}", channel.key, e.getMessage());
+        boolean done;
+        synchronized (this) {
+          scheduled = false;
+          closed = true;
+          pending.clear();
+          done = !finished;
+          finished = true;
+        }
+        if (done) {
+          close();
+        }
+      }
+    }
+
+    private void sendCatchUp() throws IOException {
+      for (CatchUp catchUp : catchUps) {
+        Path file = Paths.get(catchUp.readPath);
+        long base = catchUp.base;
+        if (!Files.isRegularFile(file)) {
+          // 따라잡는 중에 단계 로그로 합쳐진 경우
+          synchronized (channel) {
+            file = Paths.get(catchUp.source.readPath);
+            base = catchUp.source.base;
+          }
+        }
+        if (Files.isRegularFile(file)) {
+          sendFile(viewer, file, base, base + catchUp.end, catchUp.source.label);
+        }
+      }
+    }
+
+    private void sendLines(List<String> lines) throws IOException {
+      if (!lines.isEmpty()) {
+        viewer.send(lines);
+      }
+    }
+
+    private void close() {
+      synchronized (channel) {
+        channel.subscriptions.remove(this);
+      }
+      viewer.complete();
+    }
+  }
+
+  /**
+   * 파일에 쓰면서 완성된 줄을 channel 에 전달한다.
+   * PumpStreamHandler 의 stdout, stderr 스레드가 함께 쓰므로 동기화한다.
+   */
+  private static class TeeOutputStream extends OutputStream {
+
+    private final OutputStream outputStream;
+    private final Channel channel;
+    private final Source source;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    // 현재 줄의 시작 위치
+    private long offset;
+
+    private TeeOutputStream(OutputStream outputStream, Channel channel, Source source,
+        long offset) {
+      this.outputStream = outputStream;
+      this.channel = channel;
+      this.source = source;
+      this.offset = offset;
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+      outputStream.write(b);
+      append(b);
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int off, int len) throws IOException {
+      outputStream.write(bytes, off, len);
+      for (int i = off; i < off + len; i++) {
+        append(bytes[i]);
+      }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+      outputStream.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+      if (line.size() > 0) {
+        publish();
+      }
+      outputStream.close();
+    }
+
+    private void append(int b) {
+      line.write(b);
+      if (b == '\n' || line.size() >= MAX_LINE_BYTES) {
+        publish();
+      }
+    }
+
+    private void publish() {
+      int length = line.size();
+      String text = line.toString(StandardCharsets.UTF_8);
+      if (text.endsWith("\n")) {
+        text = text.substring(0, text.length() - 1);
+      }
+      line.reset();
+      synchronized (channel) {
+        channel.publish(source, offset, text);
+        source.lineEnd = offset + length;
+      }
+      offset += length;
+    }
+  }
+}
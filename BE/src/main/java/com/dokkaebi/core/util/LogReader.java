@@ -0,0 +1,322 @@
+package com.dokkaebi.core.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.zip.GZIPInputStream;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 빌드 로그 파일을 FileChannel 로 필요한 부분만 읽는다.
+ * 한 번에 읽는 양은 MAX_PAGE_BYTES 를 넘지 않으므로 로그 크기와 관계없이 메모리 사용량이 일정하다.
+ *  range : 바이트 offset 부터 limit 바이트 (줄 중간에서 끊기지 않도록 마지막 줄바꿈까지)
+ *  lines : fromLine 번째 줄부터 count 줄
+ *  tail  : 마지막 lines 줄 (MAX_PAGE_BYTES 를 넘으면 그 안의 마지막 부분)
+ * 로그 파일이 없고 압축된 {path}.gz 가 있으면 압축을 풀면서 읽는다. (offset, 줄 번호는 압축 전 기준)
+ */
+public class LogReader {
+
+  public static final int MAX_PAGE_BYTES = 1024 * 1024;
+
+  public static final String GZIP_SUFFIX = ".gz";
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  @Getter
+  @AllArgsConstructor(access = AccessLevel.PRIVATE)
+  public static class Page {
+
+    private final long fileSize;
+    // 읽은 내용의 시작 바이트 위치
+    private final long offset;
+    // 다음 페이지의 시작 바이트 위치
+    private final long nextOffset;
+    // 읽은 내용의 시작 줄 (0부터), 바이트 단위로 읽었으면 null
+    private final Long line;
+    // 다음 페이지의 시작 줄, 바이트 단위로 읽었으면 null
+    private final Long nextLine;
+    private final String content;
+
+    public boolean isEof() {
+      return nextOffset >= fileSize;
+    }
+  }
+
+  public static Page range(Path path, long offset, int limit) throws IOException {
+    Path file = resolve(path);
+    if (isGzip(file)) {
+      return gzipRange(file, offset, limit);
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long start = Math.max(0, Math.min(offset, size));
+      int length = (int) Math.min(Math.min(Math.max(limit, 0), MAX_PAGE_BYTES), size - start);
+      ByteBuffer buffer = ByteBuffer.allocate(length);
+      readFully(channel, buffer, start);
+      return page(buffer, size, start, length);
+    }
+  }
+
+  private static Page gzipRange(Path file, long offset, int limit) throws IOException {
+    long size = gzipSize(file);
+    long start = Math.max(0, Math.min(offset, size));
+    int length = (int) Math.min(Math.min(Math.max(limit, 0), MAX_PAGE_BYTES), size - start);
+    try (InputStream inputStream = gzipInputStream(file)) {
+      skipFully(inputStream, start);
+      ByteBuffer buffer = ByteBuffer.wrap(inputStream.readNBytes(length));
+      return page(buffer, size, start, buffer.capacity());
+    }
+  }
+
+  private static Page page(ByteBuffer buffer, long size, long start, int length) {
+    int used = length;
+    if (start + length < size) {
+      int lastNewLine = lastIndexOf(buffer, length);
+      if (lastNewLine >= 0) {
+        used = lastNewLine + 1;
+      }
+    }
+    String content = new String(buffer.array(), 0, used, StandardCharsets.UTF_8);
+    return new Page(size, start, start + used, null, null, content);
+  }
+
+  public static Page lines(Path path, long fromLine, int count) throws IOException {
+    Path file = resolve(path);
+    long size = sizeOf(file);
+    try (ReadableByteChannel channel = openChannel(file)) {
+      ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+      ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+      long line = 0;
+      long position = 0;
+      long start = -1;
+      long lines = 0;
+      long end = size;
+      scan:
+      while (position < size) {
+        buffer.clear();
+        int read = channel.read(buffer);
+        if (read <= 0) {
+          break;
+        }
+        for (int i = 0; i < read; i++) {
+          byte b = buffer.get(i);
+          if (line >= fromLine) {
+            if (start < 0) {
+              start = position + i;
+            }
+            if (lines >= count || content.size() >= MAX_PAGE_BYTES) {
+              end = position + i;
+              break scan;
+            }
+            content.write(b);
+          }
+          if (b == '\n') {
+            line++;
+            if (line > fromLine) {
+              lines++;
+            }
+          }
+        }
+        position += read;
+      }
+      if (start < 0) {
+        start = size;
+      }
+      return new Page(size, start, end, Math.min(fromLine, line), fromLine + lines,
+          content.toString(StandardCharsets.UTF_8));
+    }
+  }
+
+  public static Page tail(Path path, int lines) throws IOException {
+    Path file = resolve(path);
+    if (isGzip(file)) {
+      return gzipTail(file, lines);
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+      long start = 0;
+      int newLines = 0;
+      long position = size;
+      scan:
+      while (position > 0 && size - position < MAX_PAGE_BYTES) {
+        int length = (int) Math.min(BUFFER_SIZE, position);
+        position -= length;
+        buffer.clear();
+        buffer.limit(length);
+        readFully(channel, buffer, position);
+        for (int i = length - 1; i >= 0; i--) {
+          // 파일 끝의 줄바꿈은 마지막 줄의 끝이므로 세지 않는다.
+          if (buffer.get(i) == '\n' && position + i != size - 1 && ++newLines > lines - 1) {
+            start = position + i + 1;
+            break scan;
+          }
+        }
+        start = position;
+      }
+      start = Math.max(start, size - MAX_PAGE_BYTES);
+      Page page = range(file, start, (int) (size - start));
+      return new Page(size, start, size, null, null, page.getContent());
+    }
+  }
+
+  // 압축된 파일은 뒤에서부터 읽을 수 없으므로 처음부터 풀면서 마지막 lines 개의 줄바꿈 위치를 기억한다.
+  private static Page gzipTail(Path file, int lines) throws IOException {
+    long size = gzipSize(file);
+    Deque<Long> newLines = new ArrayDeque<>();
+    int keep = Math.max(Math.min(lines, MAX_PAGE_BYTES), 1);
+    try (ReadableByteChannel channel = openChannel(file)) {
+      ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+      long position = 0;
+      while (true) {
+        buffer.clear();
+        int read = channel.read(buffer);
+        if (read < 0) {
+          break;
+        }
+        for (int i = 0; i < read; i++) {
+          // 파일 끝의 줄바꿈은 마지막 줄의 끝이므로 세지 않는다.
+          if (buffer.get(i) == '\n' && position + i != size - 1) {
+            newLines.addLast(position + i);
+            if (newLines.size() > keep) {
+              newLines.removeFirst();
+            }
+          }
+        }
+        position += read;
+      }
+    }
+    long start = newLines.size() >= lines && lines > 0 ? newLines.getFirst() + 1 : 0;
+    start = Math.max(start, size - MAX_PAGE_BYTES);
+    Page page = gzipRange(file, start, (int) (size - start));
+    return new Page(size, start, size, null, null, page.getContent());
+  }
+
+  /**
+   * 파일 전체를 target 으로 보낸다. (커널이 지원하면 사용자 메모리로 복사하지 않음)
+   */
+  public static long transfer(Path path, WritableByteChannel target) throws IOException {
+    Path file = resolve(path);
+    if (isGzip(file)) {
+      try (InputStream inputStream = gzipInputStream(file)) {
+        return inputStream.transferTo(Channels.newOutputStream(target));
+      }
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long position = 0;
+      while (position < size) {
+        position += channel.transferTo(position, size - position, target);
+      }
+      return position;
+    }
+  }
+
+  /**
+   * 로그 파일 또는 압축된 {path}.gz 가 있는지
+   */
+  public static boolean exists(Path path) {
+    return Files.isRegularFile(resolve(path));
+  }
+
+  /**
+   * 압축 전 기준 로그 크기
+   */
+  public static long size(Path path) throws IOException {
+    return sizeOf(resolve(path));
+  }
+
+  /**
+   * 로그 파일이 없으면 압축된 {path}.gz
+   * 압축은 {path}.gz 를 만든 뒤 로그 파일을 지우므로 로그 파일을 먼저 확인한다.
+   */
+  public static Path resolve(Path path) {
+    if (Files.isRegularFile(path)) {
+      return path;
+    }
+    Path gzip = gzipPath(path);
+    return Files.isRegularFile(gzip) ? gzip : path;
+  }
+
+  public static Path gzipPath(Path path) {
+    return path.resolveSibling(path.getFileName() + GZIP_SUFFIX);
+  }
+
+  private static boolean isGzip(Path file) {
+    return file.getFileName().toString().endsWith(GZIP_SUFFIX);
+  }
+
+  private static long sizeOf(Path file) throws IOException {
+    return isGzip(file) ? gzipSize(file) : Files.size(file);
+  }
+
+  private static InputStream gzipInputStream(Path file) throws IOException {
+    return new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE);
+  }
+
+  private static ReadableByteChannel openChannel(Path file) throws IOException {
+    if (isGzip(file)) {
+      return Channels.newChannel(gzipInputStream(file));
+    }
+    return FileChannel.open(file, StandardOpenOption.READ);
+  }
+
+  // gzip 끝 4바이트 (ISIZE) 에 기록된 압축 전 크기 (4GB 미만의 로그만 만든다)
+  private static long gzipSize(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+      readFully(channel, buffer, Math.max(channel.size() - 4, 0));
+      if (buffer.position() < 4) {
+        throw new EOFException("invalid gzip : " + file);
+      }
+      return Integer.toUnsignedLong(buffer.getInt(0));
+    }
+  }
+
+  private static void skipFully(InputStream inputStream, long bytes) throws IOException {
+    long remaining = bytes;
+    while (remaining > 0) {
+      long skipped = inputStream.skip(remaining);
+      if (skipped <= 0) {
+        throw new EOFException("skip : " + remaining + " bytes left");
+      }
+      remaining -= skipped;
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0) {
+        break;
+      }
+    }
+  }
+
+  private static int lastIndexOf(ByteBuffer buffer, int length) {
+    for (int i = length - 1; i >= 0; i--) {
+      if (buffer.get(i) == '\n') {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,30 @@
+package com.dokkaebi.core.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * 로그 파일에 출력을 기록하며 실행하는 작업 (명령어 실행, Docker Engine API 호출 등)
+ * canceller 가 취소되면 가능한 빨리 중단하고 IOException 을 던진다.
+ */
+@FunctionalInterface
+public interface StreamTask {
+
+  void run(OutputStream outputStream, CommandCanceller canceller) throws IOException;
+
+  /**
+   * 명령어를 순서대로 실행하는 작업
+   */
+  static StreamTask of(List<String> commands) {
+    return (outputStream, canceller) -> CommandInterpreter.execute(outputStream, commands,
+        canceller);
+  }
+
+  default StreamTask andThen(StreamTask next) {
+    return (outputStream, canceller) -> {
+      run(outputStream, canceller);
+      next.run(outputStream, canceller);
+    };
+  }
+}
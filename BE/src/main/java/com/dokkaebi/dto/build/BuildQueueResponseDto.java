@@ -0,0 +1,62 @@
+package com.dokkaebi.dto.build;
+
+import com.dokkaebi.entity.project.enums.StateType;
+import com.dokkaebi.service.build.BuildJob;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BuildQueueResponseDto {
+
+  private int concurrency;
+
+  private int capacity;
+
+  private int running;
+
+  private int queued;
+
+  private List<Job> jobs;
+
+  @Getter
+  @Builder
+  @AllArgsConstructor(access = AccessLevel.PRIVATE)
+  @NoArgsConstructor(access = AccessLevel.PRIVATE)
+  public static class Job {
+
+    private String buildId;
+
+    private Long projectId;
+
+    private StateType stateType;
+
+    // 실행을 시작해 Build 행을 만든 뒤에만 있다.
+    private Long buildNumber;
+
+    // 뒤에 들어온 요청에 대체되어 실행하지 않은 경우 그 요청의 buildId
+    private String supersededBy;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Asia/Seoul")
+    private LocalDateTime enqueuedDate;
+
+    public static Job from(BuildJob job) {
+      return Job.builder()
+          .buildId(job.getId())
+          .projectId(job.getProjectId())
+          .stateType(job.getStateType())
+          .buildNumber(job.getBuildNumber())
+          .supersededBy(job.getSupersededBy())
+          .enqueuedDate(job.getEnqueuedDate())
+          .build();
+    }
+  }
+}
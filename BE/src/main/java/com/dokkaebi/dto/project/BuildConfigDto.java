@@ -35,6 +35,12 @@ public class BuildConfigDto {
 
   private List<ConfigProperty> properties;
 
+  // Optional, 먼저 준비되어야 하는 DB 이름 목록 (없으면 모든 DB)
+  private List<String> dependsOn;
+
+  // Optional, 기본 .dockerignore 에 추가할 경로
+  private List<String> dockerIgnore;
+
   @Override
   public String toString() {
     return "BuildConfigDto{" +
@@ -45,6 +51,8 @@ public class BuildConfigDto {
         ", projectDirectory='" + projectDirectory + '\'' +
         ", buildPath='" + buildPath + '\'' +
         ", properties=" + properties +
+        ", dependsOn=" + dependsOn +
+        ", dockerIgnore=" + dockerIgnore +
         '}';
   }
 }
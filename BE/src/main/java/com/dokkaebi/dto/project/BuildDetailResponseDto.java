@@ -4,6 +4,7 @@ import com.dokkaebi.entity.project.enums.StateType;
 import com.fasterxml.jackson.annotation.JsonFormat;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.validation.constraints.NotNull;
@@ -44,6 +45,9 @@ public class BuildDetailResponseDto {
   @NotNull
   private String consoleLog;
 
+  // 변경이 없어 빌드/실행하지 않은 서비스
+  private List<String> skippedServices;
+
   @Getter
   @Builder
   @AllArgsConstructor(access = AccessLevel.PRIVATE)
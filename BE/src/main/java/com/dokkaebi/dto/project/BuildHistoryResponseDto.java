@@ -0,0 +1,30 @@
+package com.dokkaebi.dto.project;
+
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 빌드 이력의 한 페이지 (최근 빌드부터)
+ * 다음 페이지는 nextBefore 를 before 로 넘겨서 읽는다. nextBefore 가 null 이면 마지막 페이지
+ */
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BuildHistoryResponseDto {
+
+  private List<BuildTotalResponseDto> builds;
+
+  private Long nextBefore;
+
+  public static BuildHistoryResponseDto of(List<BuildTotalResponseDto> builds, Long nextBefore) {
+    return BuildHistoryResponseDto.builder()
+        .builds(builds)
+        .nextBefore(nextBefore)
+        .build();
+  }
+}
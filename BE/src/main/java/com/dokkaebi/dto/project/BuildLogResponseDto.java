@@ -0,0 +1,50 @@
+package com.dokkaebi.dto.project;
+
+import com.dokkaebi.core.util.LogReader;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 빌드 로그의 일부분
+ * 이어서 읽을 때는 nextOffset (바이트) 또는 nextLine (줄) 을 다음 요청에 넘긴다.
+ */
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BuildLogResponseDto {
+
+  private Long buildStateId;
+
+  // 로그 파일 전체 크기 (바이트)
+  private long fileSize;
+
+  private long offset;
+
+  private long nextOffset;
+
+  // 줄 단위로 읽었을 때만 값이 있음
+  private Long line;
+
+  private Long nextLine;
+
+  private boolean eof;
+
+  private String content;
+
+  public static BuildLogResponseDto of(Long buildStateId, LogReader.Page page) {
+    return BuildLogResponseDto.builder()
+        .buildStateId(buildStateId)
+        .fileSize(page.getFileSize())
+        .offset(page.getOffset())
+        .nextOffset(page.getNextOffset())
+        .line(page.getLine())
+        .nextLine(page.getNextLine())
+        .eof(page.isEof())
+        .content(page.getContent())
+        .build();
+  }
+}
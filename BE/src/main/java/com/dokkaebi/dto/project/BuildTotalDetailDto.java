@@ -1,5 +1,6 @@
 package com.dokkaebi.dto.project;
 
+import com.dokkaebi.entity.project.BuildState;
 import com.dokkaebi.entity.project.enums.BuildType;
 import com.dokkaebi.entity.project.enums.StateType;
 import com.fasterxml.jackson.annotation.JsonFormat;
@@ -39,6 +40,17 @@ public class BuildTotalDetailDto implements Comparable {
   @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Asia/Seoul")
   private LocalDateTime lastModifiedDate;
 
+  public static BuildTotalDetailDto from(BuildState buildState) {
+    return BuildTotalDetailDto.builder()
+        .buildStateId(buildState.getId())
+        .buildNumber(buildState.getBuildNumber())
+        .buildType(buildState.getBuildType())
+        .stateType(buildState.getStateType())
+        .registDate(buildState.getRegistDate())
+        .lastModifiedDate(buildState.getLastModifiedDate())
+        .build();
+  }
+
   public Long getBuildStateIdAsLong(){
     return this.buildStateId;
   }
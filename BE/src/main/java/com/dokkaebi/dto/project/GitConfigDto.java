@@ -1,6 +1,7 @@
 package com.dokkaebi.dto.project;
 
 import com.dokkaebi.entity.git.GitlabConfig;
+import com.dokkaebi.entity.git.enums.CloneStrategy;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Positive;
@@ -26,6 +27,11 @@ public class GitConfigDto {
   private String branchName;    // branchSpecifier
   @NotBlank
   private String secretToken;
+  // Optional, 없으면 Full
+  private CloneStrategy cloneStrategy;
+  // Optional, Shallow 일 때 받아올 커밋 수
+  @Positive
+  private Integer cloneDepth;
 
   public boolean checkEmpty() {
     return hostUrl.isBlank() && accessTokenId ==0 && gitProjectId == 0 && repositoryUrl.isBlank() && secretToken.isBlank() && branchName.isBlank();
@@ -37,7 +43,9 @@ public class GitConfigDto {
         config.getHostUrl(),
         config.getToken().getId(),
         config.getBranchName(),
-        config.getSecretToken()
+        config.getSecretToken(),
+        config.getCloneStrategy(),
+        config.getCloneDepth()
     );
   }
 }
@@ -1,5 +1,6 @@
 package com.dokkaebi.dto.project;
 
+import com.dokkaebi.entity.project.enums.RunMode;
 import java.util.List;
 import javax.validation.constraints.NotBlank;
 
@@ -23,9 +24,17 @@ public class ProjectConfigDto {
 
   private List<DBConfigDto> dbConfigs;
 
+  // Optional, webhook 합치기 대기 시간(초)
+  private Integer coalesceSeconds;
+
+  // Optional, 컨테이너 실행 방식 (Recreate, BlueGreen)
+  private RunMode runMode;
+
   public static ProjectConfigDto of(Long projectId, String projectName, List<BuildConfigDto> buildConfigs,
-      GitConfigDto gitConfig, NginxConfigDto nginxConfigDto, List<DBConfigDto> dbConfigs) {
-    return new ProjectConfigDto(projectId, projectName, buildConfigs, gitConfig, nginxConfigDto, dbConfigs);
+      GitConfigDto gitConfig, NginxConfigDto nginxConfigDto, List<DBConfigDto> dbConfigs,
+      Integer coalesceSeconds, RunMode runMode) {
+    return new ProjectConfigDto(projectId, projectName, buildConfigs, gitConfig, nginxConfigDto,
+        dbConfigs, coalesceSeconds, runMode);
   }
 
   @Override
@@ -36,6 +45,8 @@ public class ProjectConfigDto {
       ", buildConfigs=" + buildConfigs +
       ", gitConfig=" + gitConfig +
       ", nginxConfig=" + nginxConfig +
+      ", coalesceSeconds=" + coalesceSeconds +
+      ", runMode=" + runMode +
       '}';
   }
 }
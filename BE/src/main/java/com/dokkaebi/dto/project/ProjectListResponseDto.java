@@ -1,6 +1,7 @@
 package com.dokkaebi.dto.project;
 
 import com.dokkaebi.entity.project.Project;
+import com.dokkaebi.repository.project.ProjectSummary;
 import com.fasterxml.jackson.annotation.JsonFormat;
 
 import java.time.format.DateTimeFormatter;
@@ -64,4 +65,23 @@ public class ProjectListResponseDto {
             .ports(ports)
             .build();
     }
+
+    public static ProjectListResponseDto of(ProjectSummary summary,
+        List<Map<String, String>> ports) {
+        String buildDate = "";
+        if (summary.getRecentBuildDate() != null) {
+            buildDate = summary.getRecentBuildDate().format(
+                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        }
+        return ProjectListResponseDto.builder()
+            .projectId(summary.getId())
+            .projectName(summary.getProjectName())
+            .state(summary.getStateType().getName())
+            .lastSuccessDate(summary.getLastSuccessDate())
+            .lastFailDate(summary.getLastFailDate())
+            .lastDuration(summary.getLastDuration())
+            .recentBuildDate(buildDate)
+            .ports(ports)
+            .build();
+    }
 }
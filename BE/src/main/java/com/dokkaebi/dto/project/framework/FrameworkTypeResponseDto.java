@@ -1,6 +1,6 @@
 package com.dokkaebi.dto.project.framework;
 
-import com.dokkaebi.entity.core.SettingConfig;
+import com.dokkaebi.util.SettingCatalog.Framework;
 import com.sun.istack.NotNull;
 import lombok.*;
 
@@ -14,8 +14,8 @@ public class FrameworkTypeResponseDto {
   @NotNull
   private String name;
 
-  public static FrameworkTypeResponseDto from(SettingConfig settingConfig) {
-    return new FrameworkTypeResponseDto(settingConfig.getId(), settingConfig.getSettingConfigName());
+  public static FrameworkTypeResponseDto from(Framework framework) {
+    return new FrameworkTypeResponseDto(framework.getId(), framework.getSettingConfigName());
   }
 
 }
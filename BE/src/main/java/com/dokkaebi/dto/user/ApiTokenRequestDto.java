@@ -0,0 +1,17 @@
+package com.dokkaebi.dto.user;
+
+import com.sun.istack.NotNull;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ApiTokenRequestDto {
+    // 토큰 용도 (ex. jenkins, deploy-script)
+    @NotNull
+    private String name;
+
+}
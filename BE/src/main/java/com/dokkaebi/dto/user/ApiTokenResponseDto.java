@@ -0,0 +1,46 @@
+package com.dokkaebi.dto.user;
+
+import com.dokkaebi.entity.user.ApiToken;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ApiTokenResponseDto {
+    private Long id;
+    private String name;
+    private String prefix;
+
+    // 토큰 원문, 발급 응답에만 포함된다.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String token;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Asia/Seoul")
+    private LocalDateTime registDate;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Asia/Seoul")
+    private LocalDateTime lastUsedDate;
+
+    public static ApiTokenResponseDto from(ApiToken apiToken) {
+        return of(apiToken, null);
+    }
+
+    public static ApiTokenResponseDto of(ApiToken apiToken, String token) {
+        return ApiTokenResponseDto.builder()
+            .id(apiToken.getId())
+            .name(apiToken.getName())
+            .prefix(apiToken.getPrefix())
+            .token(token)
+            .registDate(apiToken.getRegistDate())
+            .lastUsedDate(apiToken.getLastUsedDate())
+            .build();
+    }
+}
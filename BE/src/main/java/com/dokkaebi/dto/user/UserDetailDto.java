@@ -7,12 +7,14 @@ import java.util.Collection;
 import java.util.List;
 
 import lombok.Builder;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 @Builder
+@Getter
 @Slf4j
 public class UserDetailDto implements UserDetails {
 
@@ -3,8 +3,11 @@ package com.dokkaebi.entity.git;
 import com.dokkaebi.entity.project.Project;
 import com.dokkaebi.dto.project.GitConfigDto;
 
+import com.dokkaebi.entity.git.enums.CloneStrategy;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -35,6 +38,11 @@ public class GitlabConfig {
 
   private Long gitProjectId;
 
+  @Enumerated(EnumType.STRING)
+  private CloneStrategy cloneStrategy;
+
+  private Integer cloneDepth;
+
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "gitlab_access_token_id")
   GitlabAccessToken token;
@@ -60,6 +68,8 @@ public class GitlabConfig {
         .repositoryUrl(configDto.getRepositoryUrl())
         .branchName(configDto.getBranchName())
         .gitProjectId(configDto.getGitProjectId())
+        .cloneStrategy(configDto.getCloneStrategy())
+        .cloneDepth(configDto.getCloneDepth())
         .build();
   }
 
@@ -78,5 +88,11 @@ public class GitlabConfig {
     this.secretToken = configDto.getSecretToken();
     this.repositoryUrl = configDto.getRepositoryUrl();
     this.branchName = configDto.getBranchName();
+    this.cloneStrategy = configDto.getCloneStrategy();
+    this.cloneDepth = configDto.getCloneDepth();
+  }
+
+  public CloneStrategy getCloneStrategy() {
+    return cloneStrategy == null ? CloneStrategy.Full : cloneStrategy;
   }
 }
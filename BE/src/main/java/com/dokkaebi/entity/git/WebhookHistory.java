@@ -1,16 +1,16 @@
 package com.dokkaebi.entity.git;
 
-import com.dokkaebi.entity.project.BuildState;
 import com.dokkaebi.core.gitlab.dto.GitlabWebHookDto;
+import com.dokkaebi.entity.git.enums.WebhookStateType;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.JoinColumn;
-import javax.persistence.OneToOne;
+import javax.persistence.SequenceGenerator;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -22,7 +22,10 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor(access = AccessLevel.PROTECTED)
 public class WebhookHistory {
 
-  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "webhook_history_seq")
+  @SequenceGenerator(name = "webhook_history_seq", sequenceName = "webhook_history_seq",
+      allocationSize = 50)
   @Column(name = "webhook_history_id")
   private Long id;
 
@@ -31,9 +34,10 @@ public class WebhookHistory {
   private String gitHttpUrl;
   private String defaultBranch;
   private String repositoryName;
-  @OneToOne(fetch = FetchType.LAZY)
-  @JoinColumn(name = "build_state_id")
-  private BuildState buildState;
+
+  // 같은 프로젝트의 더 최신 이벤트로 대체되어 빌드되지 않은 경우 Skipped
+  @Enumerated(value = EnumType.STRING)
+  private WebhookStateType webhookStateType;
 
   public static WebhookHistory of(GitlabWebHookDto dto) {
     return new WebhookHistory(
@@ -43,12 +47,19 @@ public class WebhookHistory {
         dto.getGitHttpUrl(),
         dto.getDefaultBranch(),
         dto.getRepositoryName(),
-        null
+        WebhookStateType.Accepted
     );
   }
 
-  public void setBuildState(BuildState buildState) {
-    this.buildState = buildState;
-    buildState.setWebhookHistory(this);
+  public static WebhookHistory skipped(GitlabWebHookDto dto) {
+    return new WebhookHistory(
+        null,
+        dto.getEventKind(),
+        dto.getUsername(),
+        dto.getGitHttpUrl(),
+        dto.getDefaultBranch(),
+        dto.getRepositoryName(),
+        WebhookStateType.Skipped
+    );
   }
 }
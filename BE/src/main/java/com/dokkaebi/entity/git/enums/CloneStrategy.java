@@ -0,0 +1,11 @@
+package com.dokkaebi.entity.git.enums;
+
+/**
+ * 작업 트리를 받아오는 방식
+ *  - Full : 전체 이력 (repository 별 mirror 를 공유)
+ *  - Shallow : 최신 커밋부터 cloneDepth 개의 이력만
+ *  - Blobless : 전체 커밋 이력, 파일 내용은 checkout 하는 것만 (--filter=blob:none)
+ */
+public enum CloneStrategy {
+  Full, Shallow, Blobless
+}
@@ -0,0 +1,5 @@
+package com.dokkaebi.entity.git.enums;
+
+public enum WebhookStateType {
+  Accepted, Skipped
+}
@@ -0,0 +1,71 @@
+package com.dokkaebi.entity.project;
+
+import com.dokkaebi.entity.BaseEntity;
+import com.dokkaebi.entity.git.WebhookHistory;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+/**
+ * 빌드 한 번 (빌드 넘버 하나) 에 해당하는 행
+ * 단계 (Pull, Build, Run) 는 BuildState 로 저장하고 build_id 로 묶는다.
+ * webhook 으로 시작한 빌드는 webhook 기록 하나를 세 단계가 함께 쓴다.
+ */
+@Entity
+@Getter
+@Builder
+@EntityListeners(AuditingEntityListener.class)
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk-build-project_build_number",
+    columnNames = {"project_id", "build_number"}))
+@AllArgsConstructor(access = AccessLevel.PROTECTED)
+@RequiredArgsConstructor(access = AccessLevel.PROTECTED)
+public class Build extends BaseEntity {
+
+  @Id
+  @Column(name = "build_id")
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "build_seq")
+  @SequenceGenerator(name = "build_seq", sequenceName = "build_seq", allocationSize = 50)
+  private Long id;
+
+  private Long buildNumber;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "project_id")
+  private Project project;
+
+  // 직접 시작한 빌드는 null
+  @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
+  @JoinColumn(name = "webhook_history_id")
+  private WebhookHistory webhookHistory;
+
+  @OneToMany(mappedBy = "build", fetch = FetchType.LAZY)
+  @OrderBy("id ASC")
+  @Builder.Default
+  private List<BuildState> stages = new ArrayList<>();
+
+  public static Build of(Project project, Long buildNumber, WebhookHistory webhookHistory) {
+    return Build.builder()
+        .project(project)
+        .buildNumber(buildNumber)
+        .webhookHistory(webhookHistory)
+        .build();
+  }
+
+  public void addStage(BuildState buildState) {
+    this.stages.add(buildState);
+  }
+
+  @Override
+  public String toString() {
+    return "Build{" +
+      "id=" + id +
+      ", buildNumber=" + buildNumber +
+      '}';
+  }
+}
@@ -4,6 +4,9 @@ import com.dokkaebi.entity.BaseEntity;
 import com.dokkaebi.entity.git.WebhookHistory;
 import com.dokkaebi.entity.project.enums.BuildType;
 import com.dokkaebi.entity.project.enums.StateType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import javax.persistence.*;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -16,13 +19,17 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @Getter
 @Builder
 @EntityListeners(AuditingEntityListener.class)
+@Table(indexes = @Index(name = "idx-build_state-project_build_number",
+    columnList = "project_id, build_number"))
 @AllArgsConstructor(access = AccessLevel.PROTECTED)
 @RequiredArgsConstructor(access = AccessLevel.PROTECTED)
 public class BuildState extends BaseEntity {
 
   @Id
   @Column(name = "build_state_id")
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "build_state_seq")
+  @SequenceGenerator(name = "build_state_seq", sequenceName = "build_state_seq",
+      allocationSize = 50)
   private Long id;
 
   private Long buildNumber;
@@ -33,12 +40,17 @@ public class BuildState extends BaseEntity {
   @Enumerated(value = EnumType.STRING)
   private StateType stateType;
 
+  // 변경이 없어 빌드/실행하지 않은 서비스 이름 (쉼표 구분), null 이면 모든 서비스를 빌드/실행
+  private String skippedServices;
+
   @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
   @JoinColumn(name = "project_id")
   private Project project;
 
-  @OneToOne(mappedBy = "buildState", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
-  private WebhookHistory webhookHistory;
+  // 같은 빌드 넘버의 단계를 묶는 빌드
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "build_id")
+  private Build build;
 
   public static BuildState from() {
     return BuildState.builder().build();
@@ -49,13 +61,34 @@ public class BuildState extends BaseEntity {
 
   }
 
+  public void updateSkippedServices(List<String> skippedServices) {
+    this.skippedServices = String.join(",", skippedServices);
+  }
+
+  public List<String> skippedServiceList() {
+    if (skippedServices == null || skippedServices.isEmpty()) {
+      return new ArrayList<>();
+    }
+    return new ArrayList<>(Arrays.asList(skippedServices.split(",")));
+  }
+
+  public boolean isIncremental() {
+    return skippedServices != null;
+  }
+
   public void setProject(Project project) {
     this.project = project;
     project.addBuildState(this);
   }
 
-  public void setWebhookHistory(WebhookHistory history) {
-    this.webhookHistory = history;
+  public void setBuild(Build build) {
+    this.build = build;
+    build.addStage(this);
+  }
+
+  // webhook 으로 시작한 빌드의 webhook 기록, 직접 시작했거나 빌드 행이 없는 이전 기록은 null
+  public WebhookHistory getWebhookHistory() {
+    return build == null ? null : build.getWebhookHistory();
   }
 
   @Override
@@ -65,8 +98,8 @@ public class BuildState extends BaseEntity {
       ", buildNumber=" + buildNumber +
       ", buildType=" + buildType +
       ", stateType=" + stateType +
+      ", skippedServices=" + skippedServices +
       ", project=" + project +
-      ", webhookHistory=" + webhookHistory +
       '}';
   }
 }
@@ -1,5 +1,6 @@
 package com.dokkaebi.entity.project;
 
+import com.dokkaebi.entity.project.enums.RunMode;
 import com.dokkaebi.entity.project.enums.StateType;
 import com.dokkaebi.dto.project.ProjectConfigDto;
 import com.dokkaebi.entity.BaseEntity;
@@ -65,6 +66,24 @@ public class Project extends BaseEntity {
     @Nullable
     private String lastDuration;
 
+    // 연속된 push 를 하나의 빌드로 합치기 위해 대기하는 시간(초), null 이면 기본값 사용
+    @Nullable
+    private Integer coalesceSeconds;
+
+    // 마지막으로 배포에 성공한 커밋, null 이면 다음 빌드는 모든 서비스를 다시 빌드
+    @Nullable
+    private String lastDeployedCommit;
+
+    // 컨테이너 실행 방식, null 이면 Recreate
+    @Nullable
+    @Enumerated(EnumType.STRING)
+    private RunMode runMode;
+
+    // 다음 빌드에 붙일 빌드 넘버, ProjectRepository.incrementNextBuildNumber 로만 바꾼다.
+    // (엔티티를 저장할 때 덮어쓰지 않도록 insert/update 에서 제외)
+    @Column(insertable = false, updatable = false)
+    private Long nextBuildNumber;
+
     //연관관계 매핑
     @OneToOne(mappedBy = "project", fetch = FetchType.LAZY)
     private GitlabConfig gitConfig;
@@ -110,6 +129,22 @@ public class Project extends BaseEntity {
         this.recentBuildDate = LocalDateTime.now();
     }
 
+    public void updateCoalesceSeconds(Integer coalesceSeconds) {
+        this.coalesceSeconds = coalesceSeconds;
+    }
+
+    public void updateLastDeployedCommit(String lastDeployedCommit) {
+        this.lastDeployedCommit = lastDeployedCommit;
+    }
+
+    public void updateRunMode(RunMode runMode) {
+        this.runMode = runMode;
+    }
+
+    public RunMode getRunMode() {
+        return runMode == null ? RunMode.Recreate : runMode;
+    }
+
     public void setConfig(GitlabConfig config) {
         this.gitConfig = config;
     }
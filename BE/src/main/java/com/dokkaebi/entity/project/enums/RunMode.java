@@ -0,0 +1,10 @@
+package com.dokkaebi.entity.project.enums;
+
+/**
+ * 새 컨테이너를 띄우는 방식
+ *  Recreate : 기존 컨테이너를 지운 뒤 새로 띄운다.
+ *  BlueGreen : nginx 가 연결하는 서비스는 새 컨테이너가 준비된 뒤 nginx 를 전환하고 기존 컨테이너를 지운다.
+ */
+public enum RunMode {
+  Recreate, BlueGreen
+}
@@ -0,0 +1,64 @@
+package com.dokkaebi.entity.user;
+
+import com.dokkaebi.entity.BaseEntity;
+import com.sun.istack.NotNull;
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 자동화 스크립트용 API 토큰
+ * 토큰 원문은 발급할 때 한 번만 보여주고 HMAC-SHA256 값 (token_hash) 만 저장한다.
+ */
+@Entity
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PROTECTED)
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ApiToken extends BaseEntity {
+
+    @Id
+    @Column(name = "api_token_id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @NotNull
+    @Column(length = 60)
+    private String name;
+
+    // 목록에서 토큰을 구분하기 위한 앞부분 (dkb_xxxxxxxx)
+    @NotNull
+    @Column(length = 12)
+    private String prefix;
+
+    @NotNull
+    @Column(length = 64, unique = true)
+    private String tokenHash;
+
+    private LocalDateTime lastUsedDate;
+
+    public static ApiToken of(User user, String name, String prefix, String tokenHash) {
+        return ApiToken.builder()
+            .user(user)
+            .name(name)
+            .prefix(prefix)
+            .tokenHash(tokenHash)
+            .build();
+    }
+}
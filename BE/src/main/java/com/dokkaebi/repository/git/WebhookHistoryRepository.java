@@ -0,0 +1,8 @@
+package com.dokkaebi.repository.git;
+
+import com.dokkaebi.entity.git.WebhookHistory;
+import org.springframework.data.repository.CrudRepository;
+
+public interface WebhookHistoryRepository extends CrudRepository<WebhookHistory, Long> {
+
+}
@@ -0,0 +1,15 @@
+package com.dokkaebi.repository.project;
+
+import com.dokkaebi.entity.project.Build;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BuildRepository extends JpaRepository<Build, Long> {
+
+  // 최근 빌드부터 (project_id, build_number) 인덱스를 거꾸로 읽는다.
+  List<Build> findByProjectIdOrderByBuildNumberDesc(Long projectId, Pageable pageable);
+
+  List<Build> findByProjectIdAndBuildNumberLessThanOrderByBuildNumberDesc(Long projectId,
+      Long buildNumber, Pageable pageable);
+}
@@ -1,5 +1,6 @@
 package com.dokkaebi.repository.project;
 
+import com.dokkaebi.entity.project.Build;
 import com.dokkaebi.entity.project.BuildState;
 import org.springframework.data.jpa.repository.JpaRepository;
 
@@ -13,4 +14,6 @@ public interface BuildStateRepository extends JpaRepository<BuildState,Long> {
   List<BuildState> findAllByProjectIdOrderByBuildNumberDesc(Long projectId);
 
   List<BuildState> findTop3ByProjectIdOrderByIdDesc(Long projectId);
+
+  List<BuildState> findAllByBuildInOrderByIdAsc(List<Build> builds);
 }
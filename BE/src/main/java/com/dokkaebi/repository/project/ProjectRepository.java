@@ -2,9 +2,33 @@ package com.dokkaebi.repository.project;
 
 import com.dokkaebi.entity.project.Project;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface ProjectRepository extends JpaRepository<Project,Long> {
   Optional<Project> findOneByProjectName(String projectName);
+
+  @Query("select p.id as id, p.projectName as projectName, p.stateType as stateType,"
+      + " p.lastSuccessDate as lastSuccessDate, p.lastFailDate as lastFailDate,"
+      + " p.lastDuration as lastDuration, p.recentBuildDate as recentBuildDate"
+      + " from Project p order by p.id")
+  List<ProjectSummary> findAllSummaries();
+
+  @Query("select p.id as id, p.projectName as projectName, p.stateType as stateType,"
+      + " p.lastSuccessDate as lastSuccessDate, p.lastFailDate as lastFailDate,"
+      + " p.lastDuration as lastDuration, p.recentBuildDate as recentBuildDate"
+      + " from Project p where p.id = :id")
+  Optional<ProjectSummary> findSummaryById(@Param("id") Long id);
+
+  // 행 잠금을 잡고 다음 빌드 넘버를 올린다. (잠금은 transaction 이 끝날 때 풀림)
+  @Modifying(flushAutomatically = true)
+  @Query("update Project p set p.nextBuildNumber = p.nextBuildNumber + 1 where p.id = :id")
+  int incrementNextBuildNumber(@Param("id") Long id);
+
+  @Query("select p.nextBuildNumber from Project p where p.id = :id")
+  Long findNextBuildNumberById(@Param("id") Long id);
 }
@@ -0,0 +1,24 @@
+package com.dokkaebi.repository.project;
+
+import com.dokkaebi.entity.project.enums.StateType;
+import java.time.LocalDateTime;
+
+/**
+ * 프로젝트 목록에 보여줄 컬럼만 읽는 projection (연관관계를 읽지 않음)
+ */
+public interface ProjectSummary {
+
+  Long getId();
+
+  String getProjectName();
+
+  StateType getStateType();
+
+  LocalDateTime getLastSuccessDate();
+
+  LocalDateTime getLastFailDate();
+
+  String getLastDuration();
+
+  LocalDateTime getRecentBuildDate();
+}
@@ -0,0 +1,25 @@
+package com.dokkaebi.repository.user;
+
+import com.dokkaebi.entity.user.ApiToken;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ApiTokenRepository extends JpaRepository<ApiToken, Long> {
+
+    @EntityGraph(attributePaths = "user")
+    Optional<ApiToken> findByTokenHash(String tokenHash);
+
+    List<ApiToken> findAllByUserIdOrderByIdDesc(Long userId);
+
+    Optional<ApiToken> findByIdAndUserId(Long id, Long userId);
+
+    @Modifying
+    @Query("update ApiToken t set t.lastUsedDate = :lastUsedDate where t.id = :id")
+    int updateLastUsedDate(@Param("id") Long id, @Param("lastUsedDate") LocalDateTime lastUsedDate);
+}
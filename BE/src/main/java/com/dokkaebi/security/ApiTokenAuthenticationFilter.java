@@ -0,0 +1,74 @@
+package com.dokkaebi.security;
+
+import com.dokkaebi.dto.user.UserDetailDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authorization: Bearer dkb_... 요청을 API 토큰으로 인증한다.
+ * 요청 하나에만 인증 정보를 두고 session 은 만들지 않는다. (ApiTokenSecurityContextRepository)
+ * 토큰이 틀리면 로그인 화면으로 보내지 않고 401 을 돌려준다.
+ */
+@Slf4j
+public class ApiTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ApiTokenVerifier apiTokenVerifier;
+
+    public ApiTokenAuthenticationFilter(ApiTokenVerifier apiTokenVerifier) {
+        this.apiTokenVerifier = apiTokenVerifier;
+    }
+
+    // API 토큰 원문, 토큰 요청이 아니면 null
+    public static String resolveToken(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.startsWith(BEARER)) {
+            return null;
+        }
+        String token = authorization.substring(BEARER.length()).trim();
+        return token.startsWith(ApiTokenVerifier.TOKEN_PREFIX) ? token : null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+        FilterChain filterChain) throws ServletException, IOException {
+        String token = resolveToken(request);
+        if (token == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Optional<UserDetailDto> user = apiTokenVerifier.verify(token);
+        if (user.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType("application/json");
+            response.setCharacterEncoding("utf-8");
+            Map<String, Object> map = new HashMap<>();
+            map.put("status", "Fail");
+            map.put("message", "Invalid API token");
+            response.getWriter().write(objectMapper.writeValueAsString(map));
+            return;
+        }
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(user.get(), null,
+            user.get().getAuthorities()));
+        SecurityContextHolder.setContext(context);
+        filterChain.doFilter(request, response);
+    }
+}
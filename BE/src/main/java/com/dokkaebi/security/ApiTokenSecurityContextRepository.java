@@ -0,0 +1,40 @@
+package com.dokkaebi.security;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+
+/**
+ * 로그인 요청은 인증 정보를 session 에 두고, API 토큰 요청은 session 을 읽지도 만들지도 않는다.
+ */
+public class ApiTokenSecurityContextRepository implements SecurityContextRepository {
+
+    private final HttpSessionSecurityContextRepository delegate =
+        new HttpSessionSecurityContextRepository();
+
+    @Override
+    public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+        if (ApiTokenAuthenticationFilter.resolveToken(requestResponseHolder.getRequest()) != null) {
+            return SecurityContextHolder.createEmptyContext();
+        }
+        return delegate.loadContext(requestResponseHolder);
+    }
+
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request,
+        HttpServletResponse response) {
+        if (ApiTokenAuthenticationFilter.resolveToken(request) != null) {
+            return;
+        }
+        delegate.saveContext(context, request, response);
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        return delegate.containsContext(request);
+    }
+}
@@ -0,0 +1,210 @@
+package com.dokkaebi.security;
+
+import com.dokkaebi.dto.user.UserDetailDto;
+import com.dokkaebi.entity.user.ApiToken;
+import com.dokkaebi.entity.user.User;
+import com.dokkaebi.repository.user.ApiTokenRepository;
+import com.dokkaebi.util.FileManager;
+import com.dokkaebi.util.PathParser;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * API 토큰 발급과 검증
+ *  - 토큰은 dkb_ + 임의의 32 byte (base64url) 이고 DB 에는 HMAC-SHA256 값만 저장한다.
+ *    (임의의 값이라 BCrypt 처럼 느린 hash 가 필요 없음)
+ *  - HMAC key 는 {dokkaebiConfigPath}/{dokkaebi.apiToken.keyFile} 에 두고, 없으면 처음 시작할 때 만든다.
+ *    key 를 바꾸면 발급한 토큰을 모두 쓸 수 없다.
+ *  - 검증한 토큰은 최대 dokkaebi.apiToken.cacheSize 개를 dokkaebi.apiToken.cacheSeconds 동안 메모리에 둔다.
+ *    마지막 사용 시각도 DB 에서 다시 읽을 때만 저장한다.
+ *  - 없는 토큰도 dokkaebi.apiToken.negativeCacheSeconds 동안 기억해 잘못된 토큰마다 DB 를 읽지 않는다.
+ */
+@Slf4j
+@Component
+public class ApiTokenVerifier {
+
+    public static final String TOKEN_PREFIX = "dkb_";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int TOKEN_BYTES = 32;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int DISPLAY_PREFIX_LENGTH = TOKEN_PREFIX.length() + 8;
+
+    private final ApiTokenRepository apiTokenRepository;
+    private final PathParser pathParser;
+    private final TransactionTemplate transactionTemplate;
+    private final String keyFile;
+    private final Duration cacheTtl;
+    private final Duration negativeCacheTtl;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    // token hash - 검증한 사용자, 없는 토큰이면 user 가 null (오래 쓰지 않은 토큰부터 버린다)
+    private final Map<String, CachedToken> cache;
+
+    // 폐기할 때마다 올린다. DB 에서 읽는 사이 폐기가 있었으면 읽은 결과를 cache 에 두지 않는다.
+    private final AtomicLong evictions = new AtomicLong();
+
+    private SecretKeySpec key;
+
+    public ApiTokenVerifier(ApiTokenRepository apiTokenRepository, PathParser pathParser,
+        TransactionTemplate transactionTemplate,
+        @Value("${dokkaebi.apiToken.keyFile}") String keyFile,
+        @Value("${dokkaebi.apiToken.cacheSize}") int cacheSize,
+        @Value("${dokkaebi.apiToken.cacheSeconds}") int cacheSeconds,
+        @Value("${dokkaebi.apiToken.negativeCacheSeconds}") int negativeCacheSeconds) {
+        this.apiTokenRepository = apiTokenRepository;
+        this.pathParser = pathParser;
+        this.transactionTemplate = transactionTemplate;
+        this.keyFile = keyFile;
+        this.cacheTtl = Duration.ofSeconds(cacheSeconds);
+        this.negativeCacheTtl = Duration.ofSeconds(negativeCacheSeconds);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedToken> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        String configPath = pathParser.dokkaebiConfigPath().toString();
+        String encodedKey;
+        if (new File(configPath, keyFile).isFile()) {
+            encodedKey = FileManager.loadFile(configPath, keyFile).trim();
+        } else {
+            log.info("init : {} not found, create new key", keyFile);
+            byte[] bytes = new byte[TOKEN_BYTES];
+            secureRandom.nextBytes(bytes);
+            encodedKey = Base64.getEncoder().encodeToString(bytes);
+            FileManager.saveFile(configPath, keyFile, encodedKey);
+        }
+        this.key = new SecretKeySpec(Base64.getDecoder().decode(encodedKey), ALGORITHM);
+    }
+
+    // 새 토큰 원문
+    public String generate() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        return TOKEN_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // 목록에 보여줄 토큰 앞부분
+    public String displayPrefix(String token) {
+        return token.substring(0, DISPLAY_PREFIX_LENGTH);
+    }
+
+    public String hash(String token) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] digest = mac.doFinal(token.getBytes(StandardCharsets.UTF_8));
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+                hex[i * 2 + 1] = HEX[digest[i] & 0xf];
+            }
+            return new String(hex);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("hash : " + ALGORITHM + " unavailable", e);
+        }
+    }
+
+    /**
+     * 토큰 주인을 찾는다.
+     *
+     * @return 없는 토큰이면 empty
+     */
+    public Optional<UserDetailDto> verify(String token) {
+        String tokenHash = hash(token);
+        CachedToken entry = cache.get(tokenHash);
+        if (entry != null && entry.loadedTime.plus(entry.user == null ? negativeCacheTtl : cacheTtl)
+            .isAfter(Instant.now())) {
+            return Optional.ofNullable(entry.user);
+        }
+        long generation = evictions.get();
+        UserDetailDto user = transactionTemplate.execute(status -> {
+            Optional<ApiToken> apiToken = apiTokenRepository.findByTokenHash(tokenHash);
+            if (apiToken.isEmpty()) {
+                return null;
+            }
+            apiTokenRepository.updateLastUsedDate(apiToken.get().getId(), LocalDateTime.now());
+            return principal(apiToken.get().getUser());
+        });
+        if (user == null) {
+            log.info("verify : unknown token");
+        }
+        synchronized (cache) {
+            if (evictions.get() == generation) {
+                cache.put(tokenHash, new CachedToken(user, Instant.now()));
+            }
+        }
+        return Optional.ofNullable(user);
+    }
+
+    /**
+     * 폐기한 토큰은 바로 쓸 수 없도록 메모리에서도 지운다.
+     * transaction 안이면 commit 이후에 지운다. (commit 전에 지우면 다른 요청이 지워지기 전의 행을 다시 읽어 둘 수 있음)
+     */
+    public void evict(String tokenHash) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        remove(tokenHash);
+                    }
+                });
+        } else {
+            remove(tokenHash);
+        }
+    }
+
+    private void remove(String tokenHash) {
+        synchronized (cache) {
+            evictions.incrementAndGet();
+            cache.remove(tokenHash);
+        }
+    }
+
+    // 비밀번호 hash 는 담지 않는다.
+    private static UserDetailDto principal(User user) {
+        return UserDetailDto.builder()
+            .id(user.getId())
+            .name(user.getName())
+            .principal(user.getPrincipal())
+            .build();
+    }
+
+    private static class CachedToken {
+
+        private final UserDetailDto user;
+        private final Instant loadedTime;
+
+        private CachedToken(UserDetailDto user, Instant loadedTime) {
+            this.user = user;
+            this.loadedTime = loadedTime;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.dokkaebi.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+
+/**
+ * JDBC session 저장소 (SPRING_SESSION) 앞에 두는 session cache
+ *  - 최근에 쓴 session 을 최대 dokkaebi.session.cacheSize 개 메모리에 두고 조회는 메모리에서 찾는다.
+ *    (dokkaebi.session.cacheSeconds 가 지나면 DB 에서 다시 읽음)
+ *  - 요청마다 바뀌는 마지막 접근 시각은 모아 두었다가 dokkaebi.session.flushIntervalMillis 마다 한 번에 저장한다.
+ *  - 속성, 유효 시간, session id 가 바뀌면 JDBC 저장소에서 읽어 바로 저장한다. (로그인, 로그아웃)
+ *    그때 DB 에 없으면 (만료 정리 등) 무효인 session 으로 보고 변경을 저장하지 않는다.
+ * DB 가 원본이므로 재시작하면 cache 만 비고 session 은 그대로 남는다.
+ */
+@Slf4j
+public class CachingSessionRepository implements
+    FindByIndexNameSessionRepository<CachingSessionRepository.CachedSession> {
+
+    private static final String UPDATE_LAST_ACCESS_QUERY = "UPDATE %TABLE_NAME%"
+        + " SET LAST_ACCESS_TIME = ?, EXPIRY_TIME = ?"
+        + " WHERE SESSION_ID = ? AND LAST_ACCESS_TIME < ?";
+
+    private final FindByIndexNameSessionRepository<Session> delegate;
+    private final JdbcTemplate jdbcTemplate;
+    private final String updateLastAccessQuery;
+    private final Duration cacheTtl;
+
+    // session id - 마지막으로 읽거나 저장한 session (오래 쓰지 않은 session 부터 버린다)
+    private final Map<String, CachedEntry> cache;
+
+    // session id - 아직 DB 에 저장하지 않은 마지막 접근 시각
+    private final Map<String, MapSession> pending = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public CachingSessionRepository(FindByIndexNameSessionRepository<? extends Session> delegate,
+        JdbcTemplate jdbcTemplate, String tableName, int cacheSize, int cacheSeconds) {
+        // JDBC 저장소의 session 타입은 공개되지 않으므로 Session 으로 다룬다. (저장소에서 받은 session 만 넘김)
+        this.delegate = (FindByIndexNameSessionRepository<Session>) delegate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.updateLastAccessQuery = UPDATE_LAST_ACCESS_QUERY.replace("%TABLE_NAME%", tableName);
+        this.cacheTtl = Duration.ofSeconds(cacheSeconds);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedEntry> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    public CachedSession createSession() {
+        Session stored = delegate.createSession();
+        return new CachedSession(new MapSession(stored), stored);
+    }
+
+    @Override
+    public void save(CachedSession session) {
+        if (session.removed) {
+            // DB 에서 지워진 session 은 다시 저장하지 않는다.
+            return;
+        }
+        if (session.stored == null) {
+            // 마지막 접근 시각만 바뀌었으면 메모리에만 두고 나중에 저장한다.
+            MapSession snapshot = new MapSession(session.local);
+            pending.put(session.getId(), snapshot);
+            put(session.getId(), snapshot, null);
+            return;
+        }
+        session.stored.setLastAccessedTime(session.getLastAccessedTime());
+        delegate.save(session.stored);
+        if (!session.originalId.equals(session.getId())) {
+            cache.remove(session.originalId);
+            pending.remove(session.originalId);
+        }
+        pending.remove(session.getId());
+        put(session.getId(), new MapSession(session.local), Instant.now());
+        session.originalId = session.getId();
+    }
+
+    @Override
+    public CachedSession findById(String id) {
+        CachedEntry entry = cache.get(id);
+        if (entry != null && !entry.session.isExpired()
+            && entry.loadedTime.plus(cacheTtl).isAfter(Instant.now())) {
+            return new CachedSession(new MapSession(entry.session), null);
+        }
+        // 만료된 session 은 JDBC 저장소가 지운다.
+        Session loaded = delegate.findById(id);
+        if (loaded == null) {
+            cache.remove(id);
+            pending.remove(id);
+            return null;
+        }
+        MapSession local = new MapSession(loaded);
+        MapSession unsaved = pending.get(id);
+        if (unsaved != null && unsaved.getLastAccessedTime().isAfter(local.getLastAccessedTime())) {
+            local.setLastAccessedTime(unsaved.getLastAccessedTime());
+        }
+        put(id, new MapSession(local), Instant.now());
+        return new CachedSession(local, null);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        cache.remove(id);
+        pending.remove(id);
+        delegate.deleteById(id);
+    }
+
+    @Override
+    public Map<String, CachedSession> findByIndexNameAndIndexValue(String indexName,
+        String indexValue) {
+        Map<String, CachedSession> sessions = new HashMap<>();
+        delegate.findByIndexNameAndIndexValue(indexName, indexValue).forEach((id, session) ->
+            sessions.put(id, new CachedSession(new MapSession(session), null)));
+        return sessions;
+    }
+
+    /**
+     * 모아 둔 마지막 접근 시각을 한 번의 batch 로 저장한다.
+     * DB 의 값이 더 최근이면 (바로 저장한 경우) 바꾸지 않는다.
+     */
+    @Scheduled(fixedDelayString = "${dokkaebi.session.flushIntervalMillis}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<MapSession> sessions = new ArrayList<>();
+        for (Map.Entry<String, MapSession> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                sessions.add(entry.getValue());
+            }
+        }
+        List<Object[]> args = new ArrayList<>();
+        for (MapSession session : sessions) {
+            long lastAccessedTime = session.getLastAccessedTime().toEpochMilli();
+            long expiryTime = session.getMaxInactiveInterval().isNegative() ? Long.MAX_VALUE
+                : lastAccessedTime + session.getMaxInactiveInterval().toMillis();
+            args.add(new Object[]{lastAccessedTime, expiryTime, session.getId(),
+                lastAccessedTime});
+        }
+        try {
+            jdbcTemplate.batchUpdate(updateLastAccessQuery, args);
+            log.debug("flush : {} sessions", args.size());
+        } catch (Exception e) {
+            // 다음 주기에 다시 저장한다. (그 사이 더 최근 값이 들어왔으면 그 값을 저장)
+            log.error("flush : {} sessions failed {}", args.size(), e.getMessage());
+            for (MapSession session : sessions) {
+                pending.putIfAbsent(session.getId(), session);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    // loadedTime 이 null 이면 이전에 읽은 시각을 그대로 둔다.
+    private void put(String id, MapSession session, Instant loadedTime) {
+        synchronized (cache) {
+            CachedEntry entry = cache.get(id);
+            if (loadedTime == null && entry == null) {
+                return;
+            }
+            cache.put(id,
+                new CachedEntry(session, loadedTime == null ? entry.loadedTime : loadedTime));
+        }
+    }
+
+    private static class CachedEntry {
+
+        private final MapSession session;
+        private final Instant loadedTime;
+
+        private CachedEntry(MapSession session, Instant loadedTime) {
+            this.session = session;
+            this.loadedTime = loadedTime;
+        }
+    }
+
+    /**
+     * 요청 하나에서 쓰는 session
+     * 읽기와 마지막 접근 시각은 메모리의 복사본을 쓰고, 그 외의 변경은 JDBC 저장소의 session 에 함께 반영한다.
+     */
+    public class CachedSession implements Session {
+
+        private final MapSession local;
+
+        // JDBC 저장소의 session, 마지막 접근 시각 외의 변경이 생길 때 읽는다.
+        private Session stored;
+
+        private String originalId;
+
+        // DB 에서 지워진 session, 이 요청의 변경은 저장하지 않는다.
+        private boolean removed;
+
+        private CachedSession(MapSession local, Session stored) {
+            this.local = local;
+            this.stored = stored;
+            this.originalId = local.getId();
+        }
+
+        @Override
+        public String getId() {
+            return local.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            Session stored = stored();
+            if (stored == null) {
+                return local.getId();
+            }
+            String id = stored.changeSessionId();
+            local.setId(id);
+            return id;
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return local.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return local.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            if (attributeValue == null) {
+                removeAttribute(attributeName);
+                return;
+            }
+            Session stored = stored();
+            if (stored != null) {
+                stored.setAttribute(attributeName, attributeValue);
+            }
+            local.setAttribute(attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            if (local.getAttribute(attributeName) == null) {
+                return;
+            }
+            Session stored = stored();
+            if (stored != null) {
+                stored.removeAttribute(attributeName);
+            }
+            local.removeAttribute(attributeName);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return local.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            local.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return local.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            if (interval.equals(local.getMaxInactiveInterval())) {
+                return;
+            }
+            Session stored = stored();
+            if (stored != null) {
+                stored.setMaxInactiveInterval(interval);
+            }
+            local.setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return local.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return local.isExpired();
+        }
+
+        // JDBC 저장소의 session, DB 에서 지워졌으면 null
+        private Session stored() {
+            if (stored != null || removed) {
+                return stored;
+            }
+            stored = delegate.findById(originalId);
+            if (stored == null) {
+                // 서버가 지운 session (만료 정리 등) 은 되살리지 않는다. 다음 요청은 session 없이 시작한다.
+                log.info("stored : session {} not found, discard", originalId);
+                cache.remove(originalId);
+                pending.remove(originalId);
+                removed = true;
+            }
+            return stored;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.dokkaebi.service.build;
+
+import com.dokkaebi.core.gitlab.dto.GitlabWebHookDto;
+import com.dokkaebi.entity.project.enums.StateType;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 빌드 큐에 적재되는 빌드 요청 단위
+ * webhook 으로 들어온 경우 webHookDto 를 가지고, 수동 빌드는 null 이다.
+ * buildNumber 는 실행을 시작해 Build 행을 만든 뒤에 정해지고,
+ * 뒤에 들어온 요청에 대체되면 supersededBy 에 그 요청의 id 가 남는다.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class BuildJob {
+
+  private final String id;
+  private final Long projectId;
+  private final GitlabWebHookDto webHookDto;
+  private final LocalDateTime enqueuedDate;
+  private StateType stateType;
+  private Long buildNumber;
+  private String supersededBy;
+
+  public static BuildJob of(Long projectId, GitlabWebHookDto webHookDto) {
+    return new BuildJob(UUID.randomUUID().toString(), projectId, webHookDto,
+        LocalDateTime.now(), StateType.Waiting, null, null);
+  }
+
+  public void updateStateType(StateType stateType) {
+    this.stateType = stateType;
+  }
+
+  public void updateBuildNumber(Long buildNumber) {
+    this.buildNumber = buildNumber;
+  }
+
+  public void supersede(String buildId) {
+    this.supersededBy = buildId;
+  }
+}
@@ -0,0 +1,14 @@
+package com.dokkaebi.service.build;
+
+import com.dokkaebi.common.exception.UserDefindedException;
+import com.dokkaebi.core.gitlab.dto.GitlabWebHookDto;
+import com.dokkaebi.dto.build.BuildQueueResponseDto;
+
+public interface BuildQueueService {
+
+  BuildJob submit(Long projectId, GitlabWebHookDto webHookDto) throws UserDefindedException;
+
+  BuildQueueResponseDto status();
+
+  BuildQueueResponseDto.Job find(String buildId) throws UserDefindedException;
+}
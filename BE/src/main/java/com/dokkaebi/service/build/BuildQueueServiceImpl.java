@@ -0,0 +1,282 @@
+package com.dokkaebi.service.build;
+
+import com.dokkaebi.common.ExceptionClass;
+import com.dokkaebi.common.exception.UserDefindedException;
+import com.dokkaebi.core.gitlab.dto.GitlabWebHookDto;
+import com.dokkaebi.dto.build.BuildQueueResponseDto;
+import com.dokkaebi.entity.git.WebhookHistory;
+import com.dokkaebi.entity.project.Project;
+import com.dokkaebi.entity.project.enums.StateType;
+import com.dokkaebi.repository.git.WebhookHistoryRepository;
+import com.dokkaebi.repository.project.ProjectRepository;
+import com.dokkaebi.service.project.ProjectService;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * 빌드 요청을 요청 스레드에서 분리해 worker pool 에서 실행한다.
+ *  - 프로젝트별 lane 을 두어 한 프로젝트는 한 번에 하나의 빌드만 실행된다.
+ *  - lane 에는 실행 중인 요청과 대기 중인 요청이 최대 하나씩 있으며,
+ *    대기 중인 요청이 있을 때 들어온 요청은 기존 요청을 대체한다. (가장 최신 커밋만 빌드)
+ *  - webhook 대기 요청은 coalesce window 가 지난 뒤 실행된다.
+ *    수동 빌드 (webhook 없음) 는 window 를 기다리지 않고 lane 이 비는 대로 실행된다.
+ *  - 전체 동시 실행 수는 dokkaebi.build.concurrency 로 제한한다.
+ *  - 대기 중인 요청 수가 dokkaebi.build.queueCapacity 를 넘으면 요청을 거절한다.
+ *  - 끝났거나 대체된 요청은 최근 RECENT_JOBS 개까지 buildId 로 조회할 수 있다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BuildQueueServiceImpl implements BuildQueueService {
+
+  private static final int RECENT_JOBS = 200;
+
+  private final ProjectService projectService;
+  private final ProjectRepository projectRepository;
+  private final WebhookHistoryRepository webhookHistoryRepository;
+
+  @Value("${dokkaebi.build.concurrency}")
+  private int concurrency;
+
+  @Value("${dokkaebi.build.queueCapacity}")
+  private int queueCapacity;
+
+  @Value("${dokkaebi.build.coalesceSeconds}")
+  private int defaultCoalesceSeconds;
+
+  private ThreadPoolExecutor executor;
+
+  private ScheduledExecutorService timer;
+
+  private final Map<Long, Lane> lanes = new HashMap<>();
+
+  // 끝났거나 대체된 요청 (오래된 것부터 버린다)
+  private final Map<String, BuildJob> recentJobs = new LinkedHashMap<>() {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, BuildJob> eldest) {
+      return size() > RECENT_JOBS;
+    }
+  };
+
+  @PostConstruct
+  public void init() {
+    executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), new CustomizableThreadFactory("build-worker-"));
+    timer = Executors.newSingleThreadScheduledExecutor(
+        new CustomizableThreadFactory("build-coalesce-"));
+    log.info("init Done : concurrency = {} , queueCapacity = {} , coalesceSeconds = {}",
+        concurrency, queueCapacity, defaultCoalesceSeconds);
+  }
+
+  @PreDestroy
+  public void destroy() {
+    timer.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  @Override
+  public BuildJob submit(Long projectId, GitlabWebHookDto webHookDto)
+      throws UserDefindedException {
+    log.info("submit Start : projectId = {} ", projectId);
+
+    if (projectId == null || !projectRepository.existsById(projectId)) {
+      log.error("submit Failed : project not found {}", projectId);
+      throw new UserDefindedException(ExceptionClass.PROJECT, HttpStatus.NOT_FOUND,
+          "project not found : " + projectId);
+    }
+    int coalesceSeconds = webHookDto == null ? 0 : coalesceSeconds(projectId);
+    BuildJob job = BuildJob.of(projectId, webHookDto);
+    BuildJob superseded;
+
+    synchronized (this) {
+      Lane lane = lanes.get(projectId);
+      if ((lane == null || lane.pending == null) && countPending() >= queueCapacity) {
+        log.error("submit Failed : build queue is full");
+        throw new UserDefindedException(ExceptionClass.PROJECT, HttpStatus.SERVICE_UNAVAILABLE,
+            "build queue is full");
+      }
+      if (lane == null) {
+        lane = new Lane();
+        lanes.put(projectId, lane);
+      }
+
+      superseded = lane.pending;
+      lane.pending = job;
+      if (superseded != null) {
+        superseded.supersede(job.getId());
+        recentJobs.put(superseded.getId(), superseded);
+      }
+      if (webHookDto == null) {
+        // 수동 빌드는 진행 중인 window 를 끝내고 바로 실행한다.
+        if (lane.coalescing != null) {
+          lane.coalescing.cancel(false);
+          lane.coalescing = null;
+        }
+        if (lane.running == null) {
+          dispatch(lane);
+        }
+      } else if (superseded == null) {
+        // 대기 중인 요청을 대체하는 경우 처음 요청의 window 를 그대로 이어간다.
+        lane.coalescing = timer.schedule(() -> ready(projectId), coalesceSeconds,
+            TimeUnit.SECONDS);
+      }
+    }
+
+    if (superseded != null) {
+      skip(superseded);
+    }
+    log.info("submit Done : buildId = {} ", job.getId());
+    return job;
+  }
+
+  @Override
+  public synchronized BuildQueueResponseDto status() {
+    List<BuildQueueResponseDto.Job> jobs = new ArrayList<>();
+    for (Lane lane : lanes.values()) {
+      if (lane.running != null) {
+        jobs.add(BuildQueueResponseDto.Job.from(lane.running));
+      }
+      if (lane.pending != null) {
+        jobs.add(BuildQueueResponseDto.Job.from(lane.pending));
+      }
+    }
+
+    return BuildQueueResponseDto.builder()
+        .concurrency(concurrency)
+        .capacity(queueCapacity)
+        .running(jobs.size() - countPending())
+        .queued(countPending())
+        .jobs(jobs)
+        .build();
+  }
+
+  @Override
+  public synchronized BuildQueueResponseDto.Job find(String buildId)
+      throws UserDefindedException {
+    BuildJob job = recentJobs.get(buildId);
+    for (Lane lane : lanes.values()) {
+      if (lane.running != null && lane.running.getId().equals(buildId)) {
+        job = lane.running;
+      } else if (lane.pending != null && lane.pending.getId().equals(buildId)) {
+        job = lane.pending;
+      }
+    }
+    if (job == null) {
+      throw new UserDefindedException(ExceptionClass.PROJECT, HttpStatus.NOT_FOUND,
+          "build not found : " + buildId);
+    }
+    return BuildQueueResponseDto.Job.from(job);
+  }
+
+  // coalesce window 가 끝난 lane 의 대기 요청을 실행한다.
+  private synchronized void ready(Long projectId) {
+    Lane lane = lanes.get(projectId);
+    if (lane == null) {
+      return;
+    }
+    lane.coalescing = null;
+    if (lane.running == null) {
+      dispatch(lane);
+    }
+  }
+
+  private void dispatch(Lane lane) {
+    BuildJob job = lane.pending;
+    lane.pending = null;
+    lane.running = job;
+    job.updateStateType(StateType.Processing);
+    executor.execute(() -> execute(job));
+  }
+
+  private void execute(BuildJob job) {
+    Long projectId = job.getProjectId();
+    GitlabWebHookDto webHookDto = job.getWebHookDto();
+    log.info("execute Start : buildId = {} , projectId = {}", job.getId(), projectId);
+
+    LocalDateTime startTime = LocalDateTime.now();
+    try {
+      //프로젝트 기본 설정 시작
+      job.updateBuildNumber(projectService.build(projectId, webHookDto));
+      //build 시작
+      projectService.pullStart(projectId, webHookDto);
+      projectService.buildStart(projectId, webHookDto);
+      projectService.runStart(projectId, webHookDto);
+
+      LocalDateTime endTime = LocalDateTime.now();
+      String duration = projectService.makeDuration(startTime, endTime);
+      job.updateStateType(projectService.updateProjectDone(projectId, duration));
+      log.info("execute Done : buildId = {} ", job.getId());
+    } catch (Exception e) {
+      // 단계별 실패 상태는 ProjectService 에서 기록한다.
+      job.updateStateType(StateType.Failed);
+      log.error("execute Failed : buildId = {} , {}", job.getId(), e);
+    } finally {
+      release(job);
+    }
+  }
+
+  private synchronized void release(BuildJob job) {
+    Lane lane = lanes.get(job.getProjectId());
+    lane.running = null;
+    recentJobs.put(job.getId(), job);
+    if (lane.pending == null) {
+      lanes.remove(job.getProjectId());
+    } else if (lane.coalescing == null) {
+      dispatch(lane);
+    }
+  }
+
+  // 대체된 webhook 은 빌드하지 않고 Skipped 로 기록만 남긴다.
+  private void skip(BuildJob job) {
+    log.info("skip : buildId = {} superseded", job.getId());
+    if (job.getWebHookDto() == null) {
+      return;
+    }
+    try {
+      webhookHistoryRepository.save(WebhookHistory.skipped(job.getWebHookDto()));
+    } catch (Exception e) {
+      log.error("skip : webhook history save failed {}", e);
+    }
+  }
+
+  private int coalesceSeconds(Long projectId) {
+    return projectRepository.findById(projectId)
+        .map(Project::getCoalesceSeconds)
+        .orElse(defaultCoalesceSeconds);
+  }
+
+  private int countPending() {
+    int count = 0;
+    for (Lane lane : lanes.values()) {
+      if (lane.pending != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static class Lane {
+
+    private BuildJob running;
+    private BuildJob pending;
+    private ScheduledFuture<?> coalescing;
+  }
+}
@@ -10,11 +10,11 @@ import javassist.NotFoundException;
 
 public interface SettingConfigService {
 
-  List<FrameworkTypeResponseDto> frameworkTypes();
+  List<FrameworkTypeResponseDto> frameworkTypes() throws IOException;
 
-  FrameworkVersionResponseDto frameworkVersion(Long typeId) throws NotFoundException;
+  FrameworkVersionResponseDto frameworkVersion(Long typeId) throws NotFoundException, IOException;
 
-  List<DbTypeResponseDto> dbTypes();
+  List<DbTypeResponseDto> dbTypes() throws IOException;
 
   DbVersionResponseDto dbVersion(Long typeId) throws NotFoundException, IOException;
 
@@ -1,15 +1,11 @@
 package com.dokkaebi.service.framework;
 
-import com.dokkaebi.repository.project.SettingConfigRepository;
-import com.dokkaebi.dto.framework.DbPropertyConfigDto;
 import com.dokkaebi.dto.project.framework.DbTypeResponseDto;
 import com.dokkaebi.dto.project.framework.DbVersionResponseDto;
 import com.dokkaebi.dto.project.framework.FrameworkTypeResponseDto;
 import com.dokkaebi.dto.project.framework.FrameworkVersionResponseDto;
-import com.dokkaebi.entity.core.SettingConfig;
-import com.dokkaebi.util.FileManager;
-import com.dokkaebi.util.PathParser;
-import java.io.File;
+import com.dokkaebi.util.SettingCatalog;
+import com.dokkaebi.util.SettingCatalog.Framework;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -24,13 +20,12 @@ import org.springframework.stereotype.Service;
 public class SettingConfigServiceImpl implements
     SettingConfigService {
 
-  private final SettingConfigRepository configRepository;
-
-  private final PathParser pathParser;
+  // DB 와 DB 속성 파일을 읽지 않고 메모리의 목록으로 응답한다.
+  private final SettingCatalog settingCatalog;
 
   @Override
-  public List<FrameworkTypeResponseDto> frameworkTypes() {
-    List<SettingConfig> frameworkTypes = configRepository.findAllByGroupCode("Framework");
+  public List<FrameworkTypeResponseDto> frameworkTypes() throws IOException {
+    List<Framework> frameworkTypes = settingCatalog.findAllByGroupCode("Framework");
 
     List<FrameworkTypeResponseDto> result = new ArrayList<>();
     frameworkTypes.forEach(framework -> result.add(FrameworkTypeResponseDto.from(framework)));
@@ -39,30 +34,24 @@ public class SettingConfigServiceImpl implements
   }
 
   @Override
-  public FrameworkVersionResponseDto frameworkVersion(Long typeId) throws NotFoundException {
+  public FrameworkVersionResponseDto frameworkVersion(Long typeId)
+      throws NotFoundException, IOException {
     log.info("frameworkVersion.typeId {}", typeId);
 
-    SettingConfig settingConfig = configRepository.findById(typeId)
+    Framework framework = settingCatalog.findById(typeId)
         .orElseThrow(() -> new NotFoundException("frameworkVersion not found : " + typeId));
 
-    List<String> versions = new ArrayList<>();
-    List<String> buildTools = new ArrayList<>();
-
-    settingConfig.getLanguage().getVersions()
-        .forEach(version -> versions.add(version.getInputVersion()));
-    settingConfig.getBuildTools()
-        .forEach(buildTool -> buildTools.add(buildTool.getBuildToolName()));
-
     FrameworkVersionResponseDto result = FrameworkVersionResponseDto.from(
-        settingConfig.getLanguage().getLanguageName(), versions, buildTools);
+        framework.getLanguageName(), new ArrayList<>(framework.getInputVersions()),
+        new ArrayList<>(framework.getBuildToolNames()));
     log.info("frameworkVersion.response {}", result);
 
     return result;
   }
 
   @Override
-  public List<DbTypeResponseDto> dbTypes() {
-    List<SettingConfig> dbTypes = configRepository.findAllByGroupCode("Dbms");
+  public List<DbTypeResponseDto> dbTypes() throws IOException {
+    List<Framework> dbTypes = settingCatalog.findAllByGroupCode("Dbms");
 
     List<DbTypeResponseDto> result = new ArrayList<>();
     dbTypes.forEach(dbType -> result.add(new DbTypeResponseDto(dbType.getId(),
@@ -76,22 +65,14 @@ public class SettingConfigServiceImpl implements
 
     log.info("getDbVersion.typeId {}", typeId);
 
-    SettingConfig settingConfig = configRepository.findById(typeId)
+    Framework framework = settingCatalog.findById(typeId)
         .orElseThrow(() -> new NotFoundException("getDbVersion not found : " + typeId));
 
-    List<String> versions = new ArrayList<>();
+    List<String> versions = new ArrayList<>(framework.getInputVersions());
     List<String> properties = new ArrayList<>();
 
-    settingConfig.getLanguage().getVersions()
-        .forEach(version -> versions.add(version.getInputVersion()));
-
-    if (!settingConfig.getOption().isBlank()) {
-      String filePath = pathParser.dokkaebiConfigPath().toString();
-      if(new File(filePath).exists()) {
-        DbPropertyConfigDto dbPropertyConfigDto = FileManager.loadJsonFile(filePath,
-            settingConfig.getOption(), DbPropertyConfigDto.class);
-        dbPropertyConfigDto.getProperties().forEach(property -> properties.add(property));
-      }
+    if (framework.getDbProperty() != null) {
+      properties.addAll(framework.getDbProperty().getProperties());
     }
 
     DbVersionResponseDto result = new DbVersionResponseDto(versions,properties);
@@ -3,6 +3,8 @@ package com.dokkaebi.service.project;
 import com.dokkaebi.common.exception.UserDefindedException;
 import com.dokkaebi.core.gitlab.dto.GitlabWebHookDto;
 import com.dokkaebi.dto.project.BuildDetailResponseDto;
+import com.dokkaebi.dto.project.BuildLogResponseDto;
+import com.dokkaebi.dto.project.BuildHistoryResponseDto;
 import com.dokkaebi.dto.project.BuildTotalResponseDto;
 import com.dokkaebi.dto.project.ProjectConfigDto;
 import com.dokkaebi.dto.project.ProjectListResponseDto;
@@ -11,10 +13,12 @@ import com.dokkaebi.entity.project.enums.StateType;
 import javassist.NotFoundException;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface ProjectService {
 
@@ -28,7 +32,8 @@ public interface ProjectService {
 
   boolean projectIsFailed(Long projectId) throws NotFoundException;
 
-  void build(Long ProjectId, GitlabWebHookDto webHookDto) throws NotFoundException, IOException;
+  // 새 빌드 넘버를 반환한다.
+  Long build(Long ProjectId, GitlabWebHookDto webHookDto) throws NotFoundException, IOException;
 
   void pullStart(Long projectId, GitlabWebHookDto webHookDto) throws NotFoundException, IOException;
 
@@ -41,12 +46,29 @@ public interface ProjectService {
   List<BuildTotalResponseDto> buildTotal(Long projectId)
     throws NotFoundException;
 
+  BuildHistoryResponseDto buildHistory(Long projectId, Long before, int limit);
+
   BuildDetailResponseDto buildDetail(Long buildStateId)
       throws NotFoundException;
 
+  BuildLogResponseDto buildLog(Long buildStateId, long offset, int limit)
+      throws NotFoundException, IOException;
+
+  BuildLogResponseDto buildLogLines(Long buildStateId, long fromLine, int count)
+      throws NotFoundException, IOException;
+
+  BuildLogResponseDto buildLogTail(Long buildStateId, int lines)
+      throws NotFoundException, IOException;
+
+  SseEmitter buildLogStream(Long buildStateId) throws NotFoundException;
+
+  Path buildLogPath(Long buildStateId) throws NotFoundException;
+
   List<ProjectListResponseDto> projectList()
       throws NotFoundException, UserDefindedException, IOException;
 
+  ProjectSummaryIndex.Snapshot projectListSnapshot() throws IOException;
+
   String makeDuration(LocalDateTime start, LocalDateTime end);
 
   void deleteProject(Long projectId) throws NotFoundException, IOException;
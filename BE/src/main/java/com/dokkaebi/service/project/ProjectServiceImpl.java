@@ -1,12 +1,15 @@
 package com.dokkaebi.service.project;
 
+import com.dokkaebi.repository.project.BuildRepository;
 import com.dokkaebi.repository.project.BuildStateRepository;
 import com.dokkaebi.repository.project.ConfigHistoryRepository;
 import com.dokkaebi.repository.project.ProjectRepository;
-import com.dokkaebi.repository.project.SettingConfigRepository;
 import com.dokkaebi.repository.user.UserRepository;
+import com.dokkaebi.core.docker.BlueGreenSwitcher;
+import com.dokkaebi.core.docker.ContainerLauncher;
 import com.dokkaebi.core.docker.DockerAdapter;
 import com.dokkaebi.core.docker.EtcConfigMaker;
+import com.dokkaebi.core.docker.PortProbe;
 import com.dokkaebi.core.docker.vo.docker.BuildConfig;
 import com.dokkaebi.core.docker.vo.docker.DbConfig;
 import com.dokkaebi.core.docker.vo.docker.DokkaebiProperty;
@@ -16,9 +19,14 @@ import com.dokkaebi.core.gitlab.GitlabAdapter;
 import com.dokkaebi.core.gitlab.dto.GitlabCloneDto;
 import com.dokkaebi.core.gitlab.dto.GitlabWebHookDto;
 import com.dokkaebi.core.util.CommandInterpreter;
+import com.dokkaebi.core.util.LogBroadcaster;
+import com.dokkaebi.core.util.LogReader;
+import com.dokkaebi.core.util.StreamTask;
 import com.dokkaebi.dto.framework.DbPropertyConfigDto;
 import com.dokkaebi.dto.project.BuildConfigDto;
 import com.dokkaebi.dto.project.BuildDetailResponseDto;
+import com.dokkaebi.dto.project.BuildHistoryResponseDto;
+import com.dokkaebi.dto.project.BuildLogResponseDto;
 import com.dokkaebi.dto.project.BuildTotalDetailDto;
 import com.dokkaebi.dto.project.BuildTotalResponseDto;
 import com.dokkaebi.dto.project.ConfigHistoryListResponseDto;
@@ -30,35 +38,51 @@ import com.dokkaebi.dto.project.ProjectConfigDto;
 import com.dokkaebi.dto.project.ProjectListResponseDto;
 import com.dokkaebi.dto.user.UserDetailDto;
 import com.dokkaebi.entity.ConfigHistory;
-import com.dokkaebi.entity.core.SettingConfig;
-import com.dokkaebi.entity.core.Version;
 import com.dokkaebi.entity.git.GitlabAccessToken;
 import com.dokkaebi.entity.git.WebhookHistory;
+import com.dokkaebi.entity.git.enums.CloneStrategy;
+import com.dokkaebi.entity.project.Build;
 import com.dokkaebi.entity.project.BuildState;
 import com.dokkaebi.entity.project.Project;
 import com.dokkaebi.entity.project.enums.BuildType;
+import com.dokkaebi.entity.project.enums.RunMode;
 import com.dokkaebi.entity.project.enums.StateType;
 import com.dokkaebi.entity.user.User;
 import com.dokkaebi.service.git.GitlabService;
+import com.dokkaebi.util.CommandExecutorPool;
 import com.dokkaebi.util.DockerConfigParser;
-import com.dokkaebi.util.FileManager;
+import com.dokkaebi.util.DockerOption;
+import com.dokkaebi.util.GitMirrorManager;
 import com.dokkaebi.util.PathParser;
+import com.dokkaebi.util.ProjectConfigStore;
+import com.dokkaebi.util.SettingCatalog;
+import com.dokkaebi.util.SettingCatalog.Framework;
+import com.dokkaebi.util.SettingCatalog.FrameworkVersion;
+import com.dokkaebi.util.SseLogViewer;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import javassist.NotFoundException;
 import javax.persistence.EntityManager;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpSession;
 import javax.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tomcat.util.http.fileupload.FileUtils;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Service
 @Transactional
@@ -69,7 +93,7 @@ public class ProjectServiceImpl implements ProjectService {
     private final EntityManager em;
     private final ProjectRepository projectRepository;
     private final BuildStateRepository buildStateRepository;
-    private final SettingConfigRepository settingConfigRepository;
+    private final BuildRepository buildRepository;
     private final ConfigHistoryRepository configHistoryRepository;
     private final UserRepository userRepository;
     private final GitlabService gitlabService;
@@ -78,6 +102,38 @@ public class ProjectServiceImpl implements ProjectService {
 
     private final DockerConfigParser dockerConfigParser;
 
+    private final CommandExecutorPool commandExecutorPool;
+
+    private final GitMirrorManager gitMirrorManager;
+
+    private final DockerOption dockerOption;
+
+    private final ProjectConfigStore projectConfigStore;
+
+    private final ProjectSummaryIndex projectSummaryIndex;
+
+    private final SettingCatalog settingCatalog;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${dokkaebi.run.probeHost}")
+    private String probeHost;
+
+    @Value("${dokkaebi.run.probeTimeoutSeconds}")
+    private int probeTimeoutSeconds;
+
+    @Value("${dokkaebi.run.drainSeconds}")
+    private int drainSeconds;
+
+    // buildDetail 의 consoleLog 에 담는 마지막 로그 줄 수
+    private static final int DETAIL_LOG_LINES = 1000;
+
+    // 빌드 이력 한 페이지의 최대 빌드 수
+    private static final int BUILD_HISTORY_MAX_LIMIT = 100;
+
+    // 실시간 로그 연결을 유지하는 최대 시간
+    private static final long LOG_STREAM_TIMEOUT_MILLIS = 60 * 60 * 1000L;
+
     @Override
     public Optional<Project> findProjectByName(String name) {
         log.info("findProjectByName Start : projectName = {} ", name);
@@ -93,38 +149,27 @@ public class ProjectServiceImpl implements ProjectService {
                 () -> new NotFoundException(
                     "ProjectServiceImpl.configByProjectName : " + projectId));
 
-        String configPath = pathParser.configPath(project.getProjectName()).toString();
         String repositoryPath = pathParser.repositoryPath(project.getProjectName(),
             project.getGitConfig().getGitProjectId()).toString();
         String dbVolumePath = pathParser.volumePath().append(repositoryPath).toString();
 
-        List<BuildConfig> buildConfigs = new ArrayList<>();
+        List<BuildConfig> buildConfigs = projectConfigStore.buildConfigs(project.getProjectName());
         NginxConfigDto nginxConfig = new NginxConfigDto(new ArrayList<>(), new ArrayList<>(), false,
             new NginxHttpsOption("", "", ""));
-        List<DbConfig> dbConfigs = new ArrayList<>();
+        List<DbConfig> dbConfigs = projectConfigStore.dbConfigs(project.getProjectName());
         GitConfigDto gitConfigDto = GitConfigDto.from(gitlabService.config(projectId)
             .orElseThrow(() -> new NotFoundException("gitlab config not found")));
 
-        File configDirectory = new File(configPath);
-        for (String fileName : configDirectory.list()) {
-            if ("build".equals(fileName)) {
-                buildConfigs = FileManager.loadJsonFileToList(configPath, "build",
-                    BuildConfig.class);
-            } else if ("db".equals(fileName)) {
-                dbConfigs = FileManager.loadJsonFileToList(configPath, "db", DbConfig.class);
-            } else if ("nginx".equals(fileName)) {
-                nginxConfig = NginxConfigDto.from(
-                    FileManager.loadJsonFile(configPath, "nginx", NginxConfig.class));
-            }
+        NginxConfig savedNginxConfig = projectConfigStore.nginxConfig(project.getProjectName());
+        if (savedNginxConfig != null) {
+            nginxConfig = NginxConfigDto.from(savedNginxConfig);
         }
 
         List<BuildConfigDto> buildConfigDtos = new ArrayList<>();
         for (BuildConfig buildConfig : buildConfigs) {
-            SettingConfig framework = settingConfigRepository.findBySettingConfigName(
-                    buildConfig.getFramework())
+            Framework framework = settingCatalog.findByName(buildConfig.getFramework())
                 .orElseThrow(() -> new NotFoundException("settingConfig not found"));
-            Version version = framework.getLanguage()
-                .findVersionByDocker(buildConfig.getVersion())
+            FrameworkVersion version = framework.findVersionByDocker(buildConfig.getVersion())
                 .orElseThrow(() -> new IllegalArgumentException("Version miss match"));
             buildConfigDtos.add(
                 BuildConfigDto.builder()
@@ -135,14 +180,15 @@ public class ProjectServiceImpl implements ProjectService {
                     .version(version.getInputVersion())
                     .type(buildConfig.getType())
                     .properties(dockerConfigParser.configProperties(buildConfig.getProperties()))
+                    .dependsOn(buildConfig.getDependsOn())
+                    .dockerIgnore(buildConfig.getDockerIgnore())
                     .build());
         }
 
         List<DBConfigDto> dbConfigDtos = new ArrayList<>();
         for (DbConfig config : dbConfigs) {
-            SettingConfig framework = settingConfigRepository.findBySettingConfigName(
-                config.getFramework()).orElseThrow();
-            Version version = framework.getLanguage().findVersionByDocker(config.getVersion())
+            Framework framework = settingCatalog.findByName(config.getFramework()).orElseThrow();
+            FrameworkVersion version = framework.findVersionByDocker(config.getVersion())
                 .orElseThrow(() -> new IllegalArgumentException("dbconfig version miss match"));
             dbConfigDtos.add(
                 DBConfigDto.builder()
@@ -157,7 +203,7 @@ public class ProjectServiceImpl implements ProjectService {
 
         return ProjectConfigDto.of(projectId, project.getProjectName(), buildConfigDtos,
             gitConfigDto,
-            nginxConfig, dbConfigDtos);
+            nginxConfig, dbConfigDtos, project.getCoalesceSeconds(), project.getRunMode());
     }
 
     @Override
@@ -180,26 +226,25 @@ public class ProjectServiceImpl implements ProjectService {
             log.info("upsert : projectCreate = {} ", project.getProjectName());
             result.put(project, "create");
         }
+        project.updateCoalesceSeconds(projectConfigDto.getCoalesceSeconds());
+        project.updateRunMode(projectConfigDto.getRunMode());
+        // 설정이 바뀌었으므로 다음 빌드는 모든 서비스를 다시 빌드한다.
+        project.updateLastDeployedCommit(null);
 
         String projectPath = pathParser.projectPath(projectConfigDto.getProjectName()).toString();
         String logPath = pathParser.logPath(projectConfigDto.getProjectName()).toString();
-        String configPath = pathParser.configPath(projectConfigDto.getProjectName()).toString();
         String repositoryPath = pathParser.repositoryPath(projectConfigDto.getProjectName(),
             projectConfigDto.getGitConfig().getGitProjectId()).toString();
         String dbVolumePath = pathParser.volumePath().append(repositoryPath).toString();
-        // config, git clone 지우고 다시 저장
-
-        FileUtils.deleteDirectory(new File(configPath));
-        FileUtils.deleteDirectory(new File(repositoryPath));
+        // config 는 모두 변환한 뒤 마지막에 한 번에 저장 (ProjectConfigStore)
 
         // 빌드 환경설정 Convert
         List<BuildConfig> buildConfigs = new ArrayList<>();
         for (BuildConfigDto buildConfigDto : projectConfigDto.getBuildConfigs()) {
-            SettingConfig framework = settingConfigRepository.findById(
-                buildConfigDto.getFrameworkId()).orElseThrow(() -> new NotFoundException(
-                "SettingConfig not found / id: " + buildConfigDto.getFrameworkId()));
-            Version version = framework.getLanguage()
-                .findVersionByInput(buildConfigDto.getVersion())
+            Framework framework = settingCatalog.findById(buildConfigDto.getFrameworkId())
+                .orElseThrow(() -> new NotFoundException(
+                    "SettingConfig not found / id: " + buildConfigDto.getFrameworkId()));
+            FrameworkVersion version = framework.findVersionByInput(buildConfigDto.getVersion())
                 .orElseThrow(() -> new IllegalArgumentException(buildConfigDto.getVersion()));
 
             if (buildConfigDto.getFrameworkId()==5){
@@ -209,7 +254,8 @@ public class ProjectServiceImpl implements ProjectService {
                                 version.getDockerVersion(),
                                 dockerConfigParser.dokkaebiPropertiesWithDjango(buildConfigDto.getProperties(), "8000"),
                                 buildConfigDto.getProjectDirectory(), buildConfigDto.getBuildPath(),
-                                buildConfigDto.getType()));
+                                buildConfigDto.getType(), buildConfigDto.getDependsOn(),
+                                buildConfigDto.getDockerIgnore()));
             }else {
                 buildConfigs.add(
                         dockerConfigParser.buildConverter(buildConfigDto.getName(),
@@ -217,13 +263,21 @@ public class ProjectServiceImpl implements ProjectService {
                                 version.getDockerVersion(),
                                 dockerConfigParser.dokkaebiProperties(buildConfigDto.getProperties()),
                                 buildConfigDto.getProjectDirectory(), buildConfigDto.getBuildPath(),
-                                buildConfigDto.getType()));
+                                buildConfigDto.getType(), buildConfigDto.getDependsOn(),
+                                buildConfigDto.getDockerIgnore()));
             }
         }
 
         // Git cofig upsert
         log.info("GitConfigDto project ID : {}", project.getId());
         GitConfigDto getConfigDto = projectConfigDto.getGitConfig();
+        // clone 전략이 바뀌면 기존 작업 트리를 재사용할 수 없다.
+        CloneStrategy cloneStrategy = Optional.ofNullable(getConfigDto.getCloneStrategy())
+            .orElse(CloneStrategy.Full);
+        if (gitlabService.config(project.getId())
+            .map(config -> config.getCloneStrategy() != cloneStrategy).orElse(false)) {
+            FileUtils.deleteDirectory(new File(repositoryPath));
+        }
         gitlabService.config(project.getId())
             .map(config -> gitlabService.updateConfig(project, getConfigDto))
             .orElseGet(() -> gitlabService.createConfig(project, getConfigDto));
@@ -232,19 +286,20 @@ public class ProjectServiceImpl implements ProjectService {
         log.info("upsert : GitClone Start");
         GitlabAccessToken token = gitlabService.token(getConfigDto.getAccessTokenId());
 
-        String cloneCommand = GitlabAdapter.getCloneCommand(
+        // Full 은 repository 별 mirror 에서 변경분만 받아 작업 트리를 갱신한다.
+        gitMirrorManager.checkout(
             GitlabCloneDto.of(token.getAccessToken(), getConfigDto.getRepositoryUrl(),
-                getConfigDto.getBranchName(), getConfigDto.getGitProjectId()));
-
-        CommandInterpreter.runDestPath(projectPath, logPath, "Clone", 0, cloneCommand);
+                getConfigDto.getBranchName(), getConfigDto.getGitProjectId(), cloneStrategy,
+                getConfigDto.getCloneDepth()),
+            repositoryPath, logPath, "Clone", 0);
 
         DockerAdapter dockerAdapter = new DockerAdapter(repositoryPath,
-            projectConfigDto.getProjectName());
+            projectConfigDto.getProjectName(), dockerOption);
 
         // dockerfile save
         try {
             dockerAdapter.saveDockerfiles(buildConfigs);
-            CommandInterpreter.run(projectPath, "Clone", 0, dockerAdapter.createNetwork());
+            CommandInterpreter.runTask(projectPath, "Clone", 0, dockerAdapter.getNetworkTask());
         } catch (Exception e) {
             log.error("docker file not making {} buildConfigs({})", project.getProjectName(),buildConfigs);
         }
@@ -279,12 +334,8 @@ public class ProjectServiceImpl implements ProjectService {
             EtcConfigMaker.nginxConfig(
                 new StringBuilder(repositoryPath).append("/").append(defaultConfPath).toString(),
                 nginxConfig);
-            EtcConfigMaker.saveDockerNginxConfig(configPath, nginxConfig);
         }
 
-        // 빌드 환경설정 파일 저장
-        FileManager.saveJsonFile(configPath, "build", buildConfigs);
-
         // DB condig
         List<DbConfig> dbConfigs = new ArrayList<>();
         for (DBConfigDto dbConfigDto : projectConfigDto.getDbConfigs()) {
@@ -300,9 +351,9 @@ public class ProjectServiceImpl implements ProjectService {
             if (dbConfigDto.getVersion().isBlank()) {
                 continue;
             }
-            SettingConfig framework = settingConfigRepository.findById(
-                dbConfigDto.getFrameworkId()).orElseThrow();
-            Version version = framework.getLanguage().findVersionByInput(dbConfigDto.getVersion())
+            Framework framework = settingCatalog.findById(dbConfigDto.getFrameworkId())
+                .orElseThrow();
+            FrameworkVersion version = framework.findVersionByInput(dbConfigDto.getVersion())
                 .orElseThrow(() -> new IllegalArgumentException("DB CONFIG VERSION ERROR"));
 
             List<DokkaebiProperty> list = new ArrayList<>();
@@ -314,9 +365,11 @@ public class ProjectServiceImpl implements ProjectService {
                     property.getData()));
             }
 
-            String dbConfigPath = pathParser.dokkaebiConfigPath().toString();
-            DbPropertyConfigDto dbPropertyConfigDto = FileManager.loadJsonFile(dbConfigPath,
-                framework.getOption(), DbPropertyConfigDto.class);
+            DbPropertyConfigDto dbPropertyConfigDto = framework.getDbProperty();
+            if (dbPropertyConfigDto == null) {
+                throw new NotFoundException(
+                    "db property config not found / option: " + framework.getOption());
+            }
 
             if (!dbConfigDto.getPort().isBlank()) {
                 list.add(
@@ -339,74 +392,57 @@ public class ProjectServiceImpl implements ProjectService {
                     dbVolumePath + dbConfigDto.getDumpLocation(),
                     dbPropertyConfigDto.getInit()));
         }
-        if (!dbConfigs.isEmpty()) {
-            FileManager.saveJsonFile(configPath, "db", dbConfigs);
-        }
+
+        // 환경설정 파일 저장 (없는 설정의 파일은 지움)
+        projectConfigStore.save(projectConfigDto.getProjectName(), buildConfigs, dbConfigs,
+            nginxConfig);
+        projectSummaryIndex.refresh(project.getId());
 
         log.info("loadConfigFilesByFileName Done");
         return result;
     }
 
-    private void createBuildState(Project project, GitlabWebHookDto webHookDto) {
+    private Long createBuildState(Project project, GitlabWebHookDto webHookDto) {
         log.info("createBuildState Start : project.getName = {} ", project.getProjectName());
 
-        List<BuildState> buildStates = new ArrayList<>();
-
         // 첫수 1부터 시작
-        Long buildNumber = Long.valueOf(
-            (buildStateRepository.findAllByProjectIdOrderByBuildNumberDesc(project.getId()).size()
-                / 3)
-                + 1);
-
-        BuildState buildState = BuildState.builder()
-            .project(project)
-            .buildNumber(buildNumber)
-            .buildType(BuildType.valueOf("Pull"))
-            .stateType(StateType.valueOf("Processing"))
-            .build();
-
-        if (webHookDto != null) {
-            WebhookHistory webhookHistory = WebhookHistory.of(webHookDto);
-            webhookHistory.setBuildState(buildState);
-            buildState.setWebhookHistory(webhookHistory);
-        }
-
-        buildStateRepository.save(buildState);
-        buildStates.add(buildState);
-
-        BuildState buildState1 = BuildState.builder()
-            .project(project)
-            .buildNumber(buildNumber)
-            .buildType(BuildType.valueOf("Build"))
-            .stateType(StateType.valueOf("Waiting"))
-            .build();
+        Long buildNumber = allocateBuildNumber(project.getId());
 
-        if (webHookDto != null) {
-            WebhookHistory webhookHistory = WebhookHistory.of(webHookDto);
-            webhookHistory.setBuildState(buildState1);
-            buildState1.setWebhookHistory(webhookHistory);
-        }
-
-        buildStateRepository.save(buildState1);
-        buildStates.add(buildState1);
-
-        BuildState buildState2 = BuildState.builder()
-            .project(project)
-            .buildNumber(buildNumber)
-            .buildType(BuildType.valueOf("Run"))
-            .stateType(StateType.valueOf("Waiting"))
-            .build();
+        // webhook 기록은 빌드에 하나만 남기고 세 단계가 함께 쓴다.
+        WebhookHistory webhookHistory =
+            webHookDto == null ? null : WebhookHistory.of(webHookDto);
+        Build build = buildRepository.save(Build.of(project, buildNumber, webhookHistory));
 
-        if (webHookDto != null) {
-            WebhookHistory webhookHistory = WebhookHistory.of(webHookDto);
-            webhookHistory.setBuildState(buildState2);
-            buildState2.setWebhookHistory(webhookHistory);
+        // Pull 은 바로 시작하고 Build, Run 은 대기
+        List<BuildState> buildStates = new ArrayList<>();
+        for (BuildType buildType : List.of(BuildType.Pull, BuildType.Build, BuildType.Run)) {
+            BuildState buildState = BuildState.builder()
+                .project(project)
+                .buildNumber(buildNumber)
+                .buildType(buildType)
+                .stateType(buildType == BuildType.Pull ? StateType.Processing : StateType.Waiting)
+                .build();
+            buildState.setBuild(build);
+            buildStates.add(buildState);
         }
+        // id 를 sequence 에서 미리 받아 두므로 flush 할 때 세 단계를 한 번의 batch 로 넣는다.
+        buildStateRepository.saveAll(buildStates);
 
-        buildStateRepository.save(buildState2);
-        buildStates.add(buildState2);
         log.info("createBuildState Done");
         em.flush();
+        return buildNumber;
+    }
+
+    /**
+     * 프로젝트의 다음 빌드 넘버를 받는다.
+     * 프로젝트 행을 잠그고 올리므로 동시에 빌드가 시작되어도 서로 다른 번호를 받는다.
+     */
+    private Long allocateBuildNumber(Long projectId) {
+        projectRepository.incrementNextBuildNumber(projectId);
+        Long buildNumber = projectRepository.findNextBuildNumberById(projectId) - 1;
+        log.info("allocateBuildNumber : projectId = {} , buildNumber = {}", projectId,
+            buildNumber);
+        return buildNumber;
     }
 
     @Override
@@ -427,7 +463,7 @@ public class ProjectServiceImpl implements ProjectService {
     }
 
     @Override
-    public void build(Long projectId, GitlabWebHookDto webHookDto)
+    public Long build(Long projectId, GitlabWebHookDto webHookDto)
         throws NotFoundException, IOException {
         log.info("build Start : projectId = {} ", projectId);
 
@@ -440,24 +476,24 @@ public class ProjectServiceImpl implements ProjectService {
 
         log.info("build : updateState project.getStateType = {} ", project.getStateType());
 
-        createBuildState(project, webHookDto);
+        Long buildNumber = createBuildState(project, webHookDto);
 
-        log.info("build Done");
+        log.info("build Done : buildNumber = {} ", buildNumber);
         em.flush();
+        projectSummaryIndex.refresh(projectId);
+        return buildNumber;
     }
 
 
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public void pullStart(Long projectId, GitlabWebHookDto webHookDto)
         throws NotFoundException, IOException {
         log.info("pullStart Start : projectId = {} ", projectId);
 
-        Project project = projectRepository.findById(projectId)
-            .orElseThrow(() -> new NotFoundException(
-                "ProjectServiceImpl.pullStart /Project not found / id: " + projectId));
-
-        List<BuildState> buildStates = buildStateRepository.findTop3ByProjectIdOrderByIdDesc(
-            projectId);
+        Pipeline pipeline = loadPipeline(projectId, "pullStart");
+        Project project = pipeline.project;
+        List<BuildState> buildStates = pipeline.buildStates;
 
         String logPath = pathParser.logPath(project.getProjectName()).toString();
         String repositoryPath = pathParser.repositoryPath(project.getProjectName(),
@@ -466,150 +502,330 @@ public class ProjectServiceImpl implements ProjectService {
 
         int buildNumber = Integer.parseInt(buildStates.get(0).getBuildNumber().toString());
 
+        LogBroadcaster.open(logPath, "Pull", buildNumber);
         //Pull start
         try { // pull 트라이
-            if (buildStates.get(2).getWebhookHistory() != null) {
-                List<String> commands = new ArrayList<>();
-                commands.add(GitlabAdapter.getPullCommand(webHookDto.getDefaultBranch()));
+            if (pipeline.webhook) {
+                List<String> commands = GitlabAdapter.getPullCommands(
+                    webHookDto.getDefaultBranch(), project.getGitConfig().getCloneStrategy(),
+                    project.getGitConfig().getCloneDepth());
                 CommandInterpreter.runDestPath(repositoryPath, logPath, "Pull", buildNumber,
                     commands);
             }
             // pull 완료 build 진행중 update
-            buildStates.get(2).updateStateType("Done");
-            buildStates.get(1).updateStateType("Processing");
-
-            em.flush();
+            transactionTemplate.executeWithoutResult(status -> {
+                buildStateRepository.getById(buildStates.get(2).getId()).updateStateType("Done");
+                buildStateRepository.getById(buildStates.get(1).getId())
+                    .updateStateType("Processing");
+            });
             log.info("pullStart : Pull Success : {}", buildStates.get(0).toString());
         } catch (Exception e) { // state failed 넣기
             //pullState failed 입력
-            buildStates.get(2).updateStateType("Failed");
-            project.updateState(StateType.Failed);
-
-            em.flush();
+            failStage(projectId, buildStates.get(2).getId());
             log.error("pullStart : Pull failed {}", e);
             throw e;
+        } finally {
+            LogBroadcaster.complete(logPath, "Pull", buildNumber);
         }
         log.info("pullStart Done");
     }
 
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public void buildStart(Long projectId, GitlabWebHookDto webHookDto)
         throws NotFoundException, IOException {
         log.info("buildStart Start : projectId = {} ", projectId);
 
-        Project project = projectRepository.findById(projectId)
-            .orElseThrow(() -> new NotFoundException(
-                "ProjectServiceImpl.buildStart / Project not found / id: " + projectId));
+        Pipeline pipeline = loadPipeline(projectId, "buildStart");
+        Project project = pipeline.project;
+        List<BuildState> buildStates = pipeline.buildStates;
 
         String logPath = pathParser.logPath(project.getProjectName()).toString();
-        String configPath = pathParser.configPath(project.getProjectName()).toString();
         String repositoryPath = pathParser.repositoryPath(project.getProjectName(),
                 project.getGitConfig().getGitProjectId())
             .toString();
 
-        DockerAdapter dockerAdapter = new DockerAdapter(repositoryPath, project.getProjectName());
-
-        List<BuildConfig> buildConfigs = FileManager.loadJsonFileToList(configPath, "build",
-            BuildConfig.class);
+        DockerAdapter dockerAdapter = new DockerAdapter(repositoryPath, project.getProjectName(),
+            dockerOption);
 
-        List<BuildState> buildStates = buildStateRepository.findTop3ByProjectIdOrderByIdDesc(
-            projectId);
+        List<BuildConfig> buildConfigs = projectConfigStore.buildConfigs(project.getProjectName());
 
         int buildNumber = Math.toIntExact(buildStates.get(0).getBuildNumber());
 
+        LogBroadcaster.open(logPath, "Build", buildNumber);
         try { // Build 트라이
-            List<String> buildCommands = dockerAdapter.getBuildCommands(buildConfigs);
-            CommandInterpreter.run(logPath, "Build", (buildNumber), buildCommands);
+            // 마지막 배포 이후 변경이 없는 서비스는 빌드/실행하지 않는다.
+            List<BuildConfig> unchangedConfigs = unchangedBuildConfigs(project, repositoryPath,
+                buildConfigs, webHookDto);
+            if (unchangedConfigs != null) {
+                List<String> skippedServices = unchangedConfigs.stream()
+                    .map(BuildConfig::getName)
+                    .collect(Collectors.toList());
+                transactionTemplate.executeWithoutResult(status -> {
+                    buildStateRepository.getById(buildStates.get(1).getId())
+                        .updateSkippedServices(skippedServices);
+                    buildStateRepository.getById(buildStates.get(0).getId())
+                        .updateSkippedServices(skippedServices);
+                });
+                buildConfigs.removeAll(unchangedConfigs);
+                log.info("buildStart : skippedServices = {}", skippedServices);
+            }
 
-            // state Done 넣기
-            buildStates.get(1).updateStateType("Done");
-            buildStates.get(0).updateStateType("Processing");
+            // 빌드 옵션(BuildKit 등)이 바뀌었을 수 있으므로 Dockerfile 을 다시 만든다.
+            dockerAdapter.saveDockerfiles(buildConfigs);
+
+            // 이미지별 build context 크기를 빌드 로그에 남긴다.
+            for (Map.Entry<String, String> contextSize : dockerAdapter.getContextSizes(buildConfigs)
+                .entrySet()) {
+                CommandInterpreter.writeStream(logPath, "Build", buildNumber,
+                    contextSize.getKey(), "build context : " + contextSize.getValue());
+            }
 
-            em.flush();
+            // 같은 내용의 이미지가 이미 있으면 빌드하지 않는다.
+            dockerAdapter.resolveImageTags(buildConfigs);
+
+            // 서로 독립적인 이미지는 동시에 빌드한다.
+            CommandInterpreter.runParallelTasks(logPath, "Build", buildNumber,
+                dockerAdapter.getBuildTasksByName(buildConfigs),
+                commandExecutorPool.getExecutor());
+
+            // state Done 넣기
+            transactionTemplate.executeWithoutResult(status -> {
+                buildStateRepository.getById(buildStates.get(1).getId()).updateStateType("Done");
+                buildStateRepository.getById(buildStates.get(0).getId())
+                    .updateStateType("Processing");
+            });
             log.info("buildStart : Build Success : {}", buildStates.get(1).toString());
         } catch (Exception e) { // state failed 넣기
             //buildState failed 입력
-            buildStates.get(1).updateStateType("Failed");
-            project.updateState(StateType.Failed);
-
-            em.flush();
+            failStage(projectId, buildStates.get(1).getId());
             log.error("buildStart : Build Failed {} ", e);
             throw e;
+        } finally {
+            LogBroadcaster.complete(logPath, "Build", buildNumber);
         }
         log.info("buildStart Done");
     }
 
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public void runStart(Long projectId, GitlabWebHookDto webHookDto)
         throws NotFoundException, IOException {
         log.info("runStart Start: projectId = {} ", projectId);
 
-        Project project = projectRepository.findById(projectId)
-            .orElseThrow(() -> new NotFoundException(
-                "ProjectServiceImpl.runStart / Project not found / id: " + projectId));
+        Pipeline pipeline = loadPipeline(projectId, "runStart");
+        Project project = pipeline.project;
+        List<BuildState> buildStates = pipeline.buildStates;
 
+        String projectPath = pathParser.projectPath(project.getProjectName()).toString();
         String logPath = pathParser.logPath(project.getProjectName()).toString();
-        String configPath = pathParser.configPath(project.getProjectName()).toString();
         String repositoryPath = pathParser.repositoryPath(project.getProjectName(),
                 project.getGitConfig().getGitProjectId())
             .toString();
 
-        DockerAdapter dockerAdapter = new DockerAdapter(repositoryPath, project.getProjectName());
+        DockerAdapter dockerAdapter = new DockerAdapter(repositoryPath, project.getProjectName(),
+            dockerOption);
+        PortProbe portProbe = new PortProbe(probeHost, probeTimeoutSeconds);
+        BlueGreenSwitcher switcher = new BlueGreenSwitcher(dockerAdapter, projectPath,
+            project.getProjectName(), portProbe, drainSeconds);
+        // BlueGreen 으로 띄운 컨테이너는 바뀐 이름으로 지운다.
+        dockerAdapter.updateContainerNames(BlueGreenSwitcher.liveContainers(projectPath));
 
-        List<BuildConfig> buildConfigs = new ArrayList<>();
+        List<BuildConfig> buildConfigs = projectConfigStore.buildConfigs(project.getProjectName());
 
-        List<DbConfig> dbConfigs = new ArrayList<>();
+        List<DbConfig> dbConfigs = projectConfigStore.dbConfigs(project.getProjectName());
 
-        File configDirectory = new File(configPath);
-        for (String fileName : configDirectory.list()) {
-            if ("build".equals(fileName)) {
-                buildConfigs = FileManager.loadJsonFileToList(configPath, "build",
-                    BuildConfig.class);
-            } else if ("db".equals(fileName)) {
-                dbConfigs = FileManager.loadJsonFileToList(configPath, "db", DbConfig.class);
-            }
-        }
+        NginxConfig nginxConfig = projectConfigStore.nginxConfig(project.getProjectName());
 
-        List<BuildState> buildStates = buildStateRepository.findTop3ByProjectIdOrderByIdDesc(
-            projectId);
+        // BlueGreen 은 nginx 가 연결하는 서비스에만 적용하고, nginx 가 없으면 Recreate 로 띄운다.
+        BuildConfig nginxBuildConfig = buildConfigs.stream().filter(BuildConfig::useNginx)
+            .findFirst().orElse(null);
+        List<BuildConfig> routes = new ArrayList<>();
+        if (project.getRunMode() == RunMode.BlueGreen && nginxBuildConfig != null) {
+            routes = switcher.routes(buildConfigs, nginxConfig);
+        } else if (project.getRunMode() == RunMode.BlueGreen) {
+            log.info("runStart : no nginx, run as Recreate");
+        }
+        List<String> routeNames = routes.stream().map(BuildConfig::getName)
+            .collect(Collectors.toList());
 
         int buildNumber = Math.toIntExact(buildStates.get(0).getBuildNumber());
+
+        // 변경된 서비스만 다시 띄우고, 나머지 서비스와 DB 컨테이너는 그대로 둔다.
+        if (buildStates.get(0).isIncremental()) {
+            List<String> skippedServices = buildStates.get(0).skippedServiceList();
+            buildConfigs.removeIf(config -> skippedServices.contains(config.getName()));
+            dbConfigs = new ArrayList<>();
+        }
+
+        // nginx 가 연결하는 서비스는 기존 컨테이너를 지우지 않고 새 컨테이너로 전환한다.
+        List<BuildConfig> switchConfigs = buildConfigs.stream()
+            .filter(config -> routeNames.contains(config.getName()))
+            .collect(Collectors.toList());
+        buildConfigs.removeAll(switchConfigs);
+
+        LogBroadcaster.open(logPath, "Run", buildNumber);
         try { // run 트라이
             if (buildNumber != 1) {
                 if (!dbConfigs.isEmpty()) {
-                    CommandInterpreter.run(logPath, "Remove", buildNumber,
-                        dockerAdapter.getRemoveCommands(dbConfigs));
+                    CommandInterpreter.runTask(logPath, "Remove", buildNumber,
+                        dockerAdapter.getRemoveTask(dbConfigs));
                 }
                 if (!buildConfigs.isEmpty()) {
-                    CommandInterpreter.run(logPath, "Remove", buildNumber,
-                        dockerAdapter.getRemoveCommands(buildConfigs));
+                    CommandInterpreter.runTask(logPath, "Remove", buildNumber,
+                        dockerAdapter.getRemoveTask(buildConfigs));
                 }
             }
-            List<String> commands = new ArrayList<>();
-            if (!dbConfigs.isEmpty()) {
-                commands.addAll(dockerAdapter.getRunCommandsWithVersion(dbConfigs));
-            }
-            if (!buildConfigs.isEmpty()) {
-                commands.addAll(dockerAdapter.getRunCommands(buildConfigs));
+            // 빌드 단계에서 만든 내용 기반 tag 의 이미지로 띄운다.
+            dockerAdapter.resolveImageTags(buildConfigs);
+            dockerAdapter.resolveImageTags(switchConfigs);
+            // DB 는 동시에, 앱은 의존하는 DB 가 준비되는 대로 띄운다.
+            new ContainerLauncher(dockerAdapter, commandExecutorPool.getExecutor(),
+                commandExecutorPool.getProbeScheduler(), portProbe)
+                .launch(logPath, buildNumber, dbConfigs, buildConfigs);
+            switcher.release(buildConfigs.stream().map(BuildConfig::getName)
+                .collect(Collectors.toList()));
+            // nginx 컨테이너를 다시 띄웠어도 현재 실행 중인 컨테이너로 연결되도록 전환 후 default.conf 를 적용한다.
+            if (!routes.isEmpty()) {
+                switcher.switchOver(logPath, buildNumber, switchConfigs, routes, nginxBuildConfig,
+                    nginxConfig);
+            } else if (nginxBuildConfig != null && !buildConfigs.contains(nginxBuildConfig)
+                && !switcher.routes(buildConfigs, nginxConfig).isEmpty()) {
+                // nginx 는 시작할 때 proxy_pass 의 호스트를 찾으므로, 연결하는 컨테이너만 다시 띄웠으면 reload 한다.
+                CommandInterpreter.runTask(logPath, "Run", buildNumber, StreamTask.of(List.of(
+                    dockerAdapter.getReloadNginxCommand(
+                        dockerAdapter.getContainerName(nginxBuildConfig)))));
             }
-            CommandInterpreter.run(logPath, "Run", buildNumber, commands);
             // state Done 넣기
-            buildStates.get(0).updateStateType("Done");
-
-            em.flush();
+            String deployedCommit = headCommit(repositoryPath);
+            transactionTemplate.executeWithoutResult(status -> {
+                buildStateRepository.getById(buildStates.get(0).getId()).updateStateType("Done");
+                projectRepository.getById(projectId).updateLastDeployedCommit(deployedCommit);
+            });
             log.info("runStart : Run Success = {} ", buildStates.get(2).toString());
+            pruneImages(logPath, buildNumber, dockerAdapter, switchConfigs, buildConfigs);
         } catch (Exception e) { // state failed 넣기
             //dockerRunState failed 입력
-            buildStates.get(0).updateStateType("Failed");
-            project.updateState(StateType.Failed);
-
-            em.flush();
+            failStage(projectId, buildStates.get(0).getId());
             log.error("runStart : Run Failed {}", e);
             throw e;
+        } finally {
+            LogBroadcaster.complete(logPath, "Run", buildNumber);
         }
         log.info("runStart Done");
     }
 
+    // 이번에 띄운 서비스의 오래된 이미지를 지운다. 실패해도 실행 결과는 바꾸지 않는다.
+    private void pruneImages(String logPath, int buildNumber, DockerAdapter dockerAdapter,
+        List<BuildConfig> switchConfigs, List<BuildConfig> buildConfigs) {
+        List<BuildConfig> started = new ArrayList<>(switchConfigs);
+        started.addAll(buildConfigs);
+        try {
+            CommandInterpreter.runTask(logPath, "Run", buildNumber,
+                dockerAdapter.getPruneImagesTask(started, dockerOption.getKeepImages()));
+        } catch (Exception e) {
+            log.error("pruneImages : failed {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 빌드 단계 (pullStart, buildStart, runStart) 가 쓸 프로젝트와 최근 빌드의 단계를 짧은 transaction 으로 읽는다.
+     * 단계는 명령을 실행하는 동안 DB 연결을 잡지 않도록 transaction 밖에서 실행하고,
+     * 상태는 transactionTemplate 으로 바로 저장한다. (반환하는 엔티티는 detached)
+     */
+    private Pipeline loadPipeline(Long projectId, String caller) throws NotFoundException {
+        Pipeline pipeline = transactionTemplate.execute(status -> {
+            Project project = projectRepository.findById(projectId).orElse(null);
+            if (project == null) {
+                return null;
+            }
+            Hibernate.initialize(project.getGitConfig());
+            List<BuildState> buildStates = buildStateRepository.findTop3ByProjectIdOrderByIdDesc(
+                projectId);
+            return new Pipeline(project, buildStates,
+                buildStates.get(2).getWebhookHistory() != null);
+        });
+        if (pipeline == null) {
+            throw new NotFoundException(
+                "ProjectServiceImpl." + caller + " / Project not found / id: " + projectId);
+        }
+        return pipeline;
+    }
+
+    // 단계와 프로젝트를 실패로 저장한다.
+    private void failStage(Long projectId, Long buildStateId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            buildStateRepository.getById(buildStateId).updateStateType("Failed");
+            projectRepository.getById(projectId).updateState(StateType.Failed);
+            projectSummaryIndex.refresh(projectId);
+        });
+    }
+
+    private static class Pipeline {
+
+        private final Project project;
+
+        // 0: Run, 1: Build, 2: Pull
+        private final List<BuildState> buildStates;
+
+        // webhook 으로 시작한 빌드인지
+        private final boolean webhook;
+
+        private Pipeline(Project project, List<BuildState> buildStates, boolean webhook) {
+            this.project = project;
+            this.buildStates = buildStates;
+            this.webhook = webhook;
+        }
+    }
+
+    /**
+     * 마지막 배포 커밋 이후 변경된 경로가 projectDirectory 에 없는 BuildConfig 를 반환한다.
+     * 변경 경로는 webhook 의 커밋 목록을 쓰고, 마지막 배포 커밋부터 받은 커밋 (HEAD) 까지의 목록이 아니면
+     * git diff 로 구한다.
+     * 수동 빌드이거나 비교할 커밋이 없으면 null 을 반환한다. (모든 서비스를 빌드)
+     */
+    private List<BuildConfig> unchangedBuildConfigs(Project project, String repositoryPath,
+        List<BuildConfig> buildConfigs, GitlabWebHookDto webHookDto) {
+        String lastDeployedCommit = project.getLastDeployedCommit();
+        if (webHookDto == null || lastDeployedCommit == null) {
+            return null;
+        }
+
+        // pull 은 브랜치의 최신 커밋을 받으므로, 그 사이 다른 push 가 있었으면 webhook 의 커밋 목록만으로는 부족하다.
+        List<String> changedPaths;
+        if (webHookDto.getChangedPaths() != null
+            && lastDeployedCommit.equals(webHookDto.getBefore())
+            && webHookDto.getAfter() != null
+            && webHookDto.getAfter().equals(headCommit(repositoryPath))) {
+            changedPaths = webHookDto.getChangedPaths();
+        } else {
+            try {
+                String diff = CommandInterpreter.output(repositoryPath,
+                    GitlabAdapter.getDiffCommand(lastDeployedCommit, "HEAD"));
+                changedPaths = diff.isEmpty() ? new ArrayList<>()
+                    : Arrays.asList(diff.split("\\R"));
+            } catch (IOException e) {
+                // shallow clone 등으로 마지막 배포 커밋이 없으면 모두 빌드한다.
+                log.error("unchangedBuildConfigs : git diff failed, build all {}", e.getMessage());
+                return null;
+            }
+        }
+        log.info("unchangedBuildConfigs : changedPaths = {}", changedPaths.size());
+
+        return buildConfigs.stream()
+            .filter(config -> !config.isChanged(changedPaths))
+            .collect(Collectors.toList());
+    }
+
+    private String headCommit(String repositoryPath) {
+        try {
+            return CommandInterpreter.output(repositoryPath, GitlabAdapter.getHeadCommand());
+        } catch (IOException e) {
+            log.error("headCommit : git rev-parse failed {}", e.getMessage());
+            return null;
+        }
+    }
+
     @Override
     public StateType updateProjectDone(Long projectId, String duration) throws NotFoundException {
         log.info("updateProjectDone Start : projectId = {} ", projectId);
@@ -624,17 +840,16 @@ public class ProjectServiceImpl implements ProjectService {
 
         log.info("updateProject Done : projectId = {} ", project.getStateType());
         em.flush();
+        projectSummaryIndex.refresh(projectId);
         return project.getStateType();
     }
 
     //history 저장
-    public void createConfigHistory(HttpServletRequest request, Project project, String msg)
+    // userDetailDto : 로그인 session 또는 API 토큰으로 인증한 사용자
+    public void createConfigHistory(UserDetailDto userDetailDto, Project project, String msg)
         throws NotFoundException {
         log.info("createConfigHistory Start : projectName = {} ", project.getProjectName());
-        //세션 정보 가져오기
-        HttpSession session = request.getSession();
-        UserDetailDto userDetailDto = (UserDetailDto) session.getAttribute("user");
-        log.info("session User Principal : {} ", userDetailDto.getUsername());
+        log.info("User Principal : {} ", userDetailDto.getUsername());
 
         //로그인 유저 탐색
         User user = userRepository.findByPrincipal(userDetailDto.getUsername())
@@ -675,53 +890,78 @@ public class ProjectServiceImpl implements ProjectService {
     public List<BuildTotalResponseDto> buildTotal(Long projectId) throws NotFoundException {
         log.info("buildTotal Start");
 
-        //responseDtos initialized
-        List<BuildTotalResponseDto> responseDtos = new ArrayList<>();
-        List<BuildTotalDetailDto> buildTotalDetailDtos = new ArrayList<>();
-
         //해당 projectId의 buildState List로 받음
         List<BuildState> buildStates = buildStateRepository.findAllByProjectIdOrderByBuildNumberAsc(
-            projectId); // sort따로 지정하기 라스트 보장x
+            projectId);
 
         //입력 시작 로그 출력
         log.info("buildState insert Start  buildStateSize : {}", buildStates.size());
 
-        int counter = 1;
-
-        //각각의 buildState에 대해 추출후 입력
+        // 빌드 넘버별로 묶는다. (단계가 모자란 빌드도 그대로 담음)
+        Map<Long, List<BuildTotalDetailDto>> details = new LinkedHashMap<>();
         for (BuildState buildState : buildStates) {
+            details.computeIfAbsent(buildState.getBuildNumber(), buildNumber -> new ArrayList<>())
+                .add(BuildTotalDetailDto.from(buildState));
+        }
 
-            BuildTotalDetailDto buildTotalDetailDto = BuildTotalDetailDto.builder()
-                .buildStateId(buildState.getId())
-                .buildNumber(buildState.getBuildNumber())
-                .buildType(buildState.getBuildType())
-                .stateType(buildState.getStateType())
-                .registDate(buildState.getRegistDate())
-                .lastModifiedDate(buildState.getLastModifiedDate())
-                .build();
-
-            buildTotalDetailDtos.add(buildTotalDetailDto);
-
-            if (counter == 3) { // 3개씩 List 에 담아주기
-                buildTotalDetailDtos.sort(
-                    Comparator.comparingLong(BuildTotalDetailDto::getBuildStateId));
-                BuildTotalResponseDto buildTotalResponseDto = BuildTotalResponseDto.builder()
-                    .buildNumber(buildState.getBuildNumber())
-                    .registDate(buildTotalDetailDtos.get(0).getRegistDate())
-                    .buildTotalDetailDtos(buildTotalDetailDtos)
-                    .build();
-
-                //완성된 buildTotalResponseDto를 저장
-                responseDtos.add(buildTotalResponseDto);
-                counter = 0;
-                buildTotalDetailDtos = new ArrayList<>();
-            }
-            counter++;
+        List<BuildTotalResponseDto> responseDtos = new ArrayList<>();
+        for (Map.Entry<Long, List<BuildTotalDetailDto>> entry : details.entrySet()) {
+            List<BuildTotalDetailDto> buildTotalDetailDtos = entry.getValue();
+            buildTotalDetailDtos.sort(
+                Comparator.comparingLong(BuildTotalDetailDto::getBuildStateId));
+            responseDtos.add(BuildTotalResponseDto.builder()
+                .buildNumber(entry.getKey())
+                .registDate(buildTotalDetailDtos.get(0).getRegistDate())
+                .buildTotalDetailDtos(buildTotalDetailDtos)
+                .build());
         }
         log.info("buildTotal Done : responseSize = {}", responseDtos.size());
         return responseDtos;
     }
 
+    @Override
+    public BuildHistoryResponseDto buildHistory(Long projectId, Long before, int limit) {
+        log.info("buildHistory Start : projectId = {} , before = {} , limit = {}", projectId,
+            before, limit);
+
+        int size = Math.max(1, Math.min(limit, BUILD_HISTORY_MAX_LIMIT));
+        // 다음 페이지가 있는지 알기 위해 하나 더 읽는다.
+        Pageable pageable = PageRequest.of(0, size + 1);
+        List<Build> builds = before == null
+            ? buildRepository.findByProjectIdOrderByBuildNumberDesc(projectId, pageable)
+            : buildRepository.findByProjectIdAndBuildNumberLessThanOrderByBuildNumberDesc(
+                projectId, before, pageable);
+
+        boolean hasNext = builds.size() > size;
+        if (hasNext) {
+            builds = builds.subList(0, size);
+        }
+
+        // 페이지의 단계는 build_id IN 쿼리 한 번으로 읽는다.
+        Map<Long, List<BuildTotalDetailDto>> details = new HashMap<>();
+        if (!builds.isEmpty()) {
+            for (BuildState buildState : buildStateRepository.findAllByBuildInOrderByIdAsc(
+                builds)) {
+                details.computeIfAbsent(buildState.getBuild().getId(), id -> new ArrayList<>())
+                    .add(BuildTotalDetailDto.from(buildState));
+            }
+        }
+
+        List<BuildTotalResponseDto> responseDtos = new ArrayList<>();
+        for (Build build : builds) {
+            responseDtos.add(BuildTotalResponseDto.builder()
+                .buildNumber(build.getBuildNumber())
+                .registDate(build.getRegistDate())
+                .buildTotalDetailDtos(details.getOrDefault(build.getId(), new ArrayList<>()))
+                .build());
+        }
+        Long nextBefore = hasNext ? builds.get(builds.size() - 1).getBuildNumber() : null;
+
+        log.info("buildHistory Done : responseSize = {} , nextBefore = {}", responseDtos.size(),
+            nextBefore);
+        return BuildHistoryResponseDto.of(responseDtos, nextBefore);
+    }
+
     @Override
     public BuildDetailResponseDto buildDetail(Long buildStateId)
         throws NotFoundException {
@@ -734,21 +974,15 @@ public class ProjectServiceImpl implements ProjectService {
 
         log.info("buildDetail : receive success {}", buildState.getProject().getProjectName());
 
-        String logPath = pathParser.logPath(buildState.getProject().getProjectName()).toString();
-
-        String fileName =
-            (buildState.getBuildType().toString()) + "_"
-                + buildState.getBuildNumber();//  상태_빌드 넘버
-
-        StringBuilder consoleLog = new StringBuilder();
-
+        // 로그 전체를 읽지 않고 마지막 부분만 담는다. 전체는 buildLog / buildLogPath 로 읽는다.
+        String consoleLog;
         log.info("buildDetail : lodeFile Start");
         try {
-            consoleLog.append(FileManager.loadFile(logPath, fileName));
+            consoleLog = LogReader.tail(logFilePath(buildState), DETAIL_LOG_LINES).getContent();
             log.info("buildDetail : lodeFile Success");
         } catch (Exception error) {
-            log.error("buildDetail : There is no console file : {}", error);
-            consoleLog.append("There is no console file !!");
+            log.error("buildDetail : There is no console file : {}", error.getMessage());
+            consoleLog = "There is no console file !!";
         }
 
         BuildDetailResponseDto.GitInfo gitInfo = null;
@@ -769,7 +1003,8 @@ public class ProjectServiceImpl implements ProjectService {
             .buildNumber(buildState.getBuildNumber())
             .registDate(buildState.getRegistDate())
             .gitInfo(gitInfo)
-            .consoleLog(consoleLog.toString())
+            .consoleLog(consoleLog)
+            .skippedServices(buildState.skippedServiceList())
             .build();
 
         log.info("buildDetail Done");
@@ -777,57 +1012,90 @@ public class ProjectServiceImpl implements ProjectService {
     }
 
     @Override
-    public List<ProjectListResponseDto> projectList() throws IOException {
-        log.info("ProjectList Start");
-        List<Project> projectList = projectRepository.findAll();
-
-        List<ProjectListResponseDto> resultList = new ArrayList<>();
-
-        for (Project project : projectList) {
-            List<Map<String,String>> ports = new ArrayList<>();
-            String configPath = pathParser.configPath(project.getProjectName()).toString();
-
-            //build port 추가
-            File buildFile = new File(configPath + "/build");
-            if (buildFile.exists()) {            //파일 존재 확인
-                List<BuildConfig> buildConfigs = FileManager.loadJsonFileToList(configPath, "build",
-                    BuildConfig.class);
-                for (BuildConfig buildConfig : buildConfigs) {
-                    List<DokkaebiProperty> properties = buildConfig.getProperties();
-                    for (DokkaebiProperty property : properties) {
-                        Map<String, String> port = new HashMap<>();
-                        if (property.getType().equals("publish")) {
-                            port.put("name", buildConfig.getName());
-                            port.put("host", property.getHost());
-                            ports.add(port);
-                        }
-                    }
-                }
-            }
+    public BuildLogResponseDto buildLog(Long buildStateId, long offset, int limit)
+        throws NotFoundException, IOException {
+        log.info("buildLog Start : buildStateId = {} , offset = {} , limit = {}", buildStateId,
+            offset, limit);
+        Path path = buildLogPath(buildStateId);
+        BuildLogResponseDto responseDto = BuildLogResponseDto.of(buildStateId,
+            LogReader.range(path, offset, limit));
+        log.info("buildLog Done : nextOffset = {}", responseDto.getNextOffset());
+        return responseDto;
+    }
 
-            //db port 추가
-            File dbFile = new File(configPath + "/db");
-            if (dbFile.exists()) {            //파일 존재 확인
-                List<DbConfig> dbConfigs = FileManager.loadJsonFileToList(configPath, "db",
-                    DbConfig.class);
-                for (DbConfig dbConfig : dbConfigs) {
-                    List<DokkaebiProperty> properties = dbConfig.getProperties();
-                    for (DokkaebiProperty property : properties) {
-                        Map<String, String> port = new HashMap<>();
-                        if (property.getType().equals("publish")) {
-                            port.put("name", dbConfig.getName());
-                            port.put("host", property.getHost());
-                            ports.add(port);
-                        }
-                    }
-                }
-            }
-            ProjectListResponseDto projectListDto = ProjectListResponseDto.of(project,ports);
-            resultList.add(projectListDto);
+    @Override
+    public BuildLogResponseDto buildLogLines(Long buildStateId, long fromLine, int count)
+        throws NotFoundException, IOException {
+        log.info("buildLogLines Start : buildStateId = {} , fromLine = {} , count = {}",
+            buildStateId, fromLine, count);
+        Path path = buildLogPath(buildStateId);
+        BuildLogResponseDto responseDto = BuildLogResponseDto.of(buildStateId,
+            LogReader.lines(path, Math.max(fromLine, 0), Math.max(count, 1)));
+        log.info("buildLogLines Done : nextLine = {}", responseDto.getNextLine());
+        return responseDto;
+    }
+
+    @Override
+    public BuildLogResponseDto buildLogTail(Long buildStateId, int lines)
+        throws NotFoundException, IOException {
+        log.info("buildLogTail Start : buildStateId = {} , lines = {}", buildStateId, lines);
+        Path path = buildLogPath(buildStateId);
+        BuildLogResponseDto responseDto = BuildLogResponseDto.of(buildStateId,
+            LogReader.tail(path, Math.max(lines, 1)));
+        log.info("buildLogTail Done : offset = {}", responseDto.getOffset());
+        return responseDto;
+    }
+
+    @Override
+    public SseEmitter buildLogStream(Long buildStateId) throws NotFoundException {
+        log.info("buildLogStream Start : buildStateId = {}", buildStateId);
+        BuildState buildState = buildStateRepository.findById(buildStateId)
+            .orElseThrow(() -> new NotFoundException(
+                "ProjectServiceImpl.buildLogStream : Not found build state " + buildStateId));
+        Path path = logFilePath(buildState);
+        SseEmitter emitter = new SseEmitter(LOG_STREAM_TIMEOUT_MILLIS);
+        SseLogViewer viewer = new SseLogViewer(emitter);
+        // 진행 중이 아니면 (끝났거나 시작 전) 로그 파일에 있는 내용만 보내고 끝낸다.
+        boolean live = LogBroadcaster.subscribe(path, viewer);
+        if (!live) {
+            LogBroadcaster.replay(path, viewer);
         }
+        log.info("buildLogStream Done : live = {}", live);
+        return emitter;
+    }
 
-        log.info("ProjectList Done : ListSize {}", resultList.size());
-        return resultList;
+    @Override
+    public Path buildLogPath(Long buildStateId) throws NotFoundException {
+        BuildState buildState = buildStateRepository.findById(buildStateId)
+            .orElseThrow(() -> new NotFoundException(
+                "ProjectServiceImpl.buildLogPath : Not found build state " + buildStateId));
+        Path path = logFilePath(buildState);
+        if (!LogReader.exists(path)) {
+            throw new NotFoundException(
+                "ProjectServiceImpl.buildLogPath : Not found log file " + path.getFileName());
+        }
+        return path;
+    }
+
+    // {logPath}/{상태}_{빌드 넘버}
+    private Path logFilePath(BuildState buildState) {
+        String logPath = pathParser.logPath(buildState.getProject().getProjectName()).toString();
+        return Paths.get(logPath,
+            buildState.getBuildType().toString() + "_" + buildState.getBuildNumber());
+    }
+
+    @Override
+    public List<ProjectListResponseDto> projectList() throws IOException {
+        return projectListSnapshot().getProjects();
+    }
+
+    @Override
+    public ProjectSummaryIndex.Snapshot projectListSnapshot() throws IOException {
+        log.info("projectListSnapshot Start");
+        ProjectSummaryIndex.Snapshot snapshot = projectSummaryIndex.snapshot();
+        log.info("projectListSnapshot Done : ListSize {} , etag = {}",
+            snapshot.getProjects().size(), snapshot.getEtag());
+        return snapshot;
     }
 
     @Override
@@ -859,7 +1127,9 @@ public class ProjectServiceImpl implements ProjectService {
         if(new File(volumePath).exists()) {
             FileUtils.deleteDirectory(new File(volumePath));
         }
+        projectConfigStore.evict(project.getProjectName());
         projectRepository.deleteById(projectId);
+        projectSummaryIndex.refresh(projectId);
     }
 
     @Override
@@ -870,30 +1140,23 @@ public class ProjectServiceImpl implements ProjectService {
                 () -> new NotFoundException(
                     "ProjectServiceImpl.configByProjectName : " + projectId));
 
-        String configPath = pathParser.configPath(project.getProjectName()).toString();
         String logPath = pathParser.logPath(project.getProjectName()).toString();
 
-        DockerAdapter dockerAdapter = new DockerAdapter(null, project.getProjectName());
+        DockerAdapter dockerAdapter = new DockerAdapter(null, project.getProjectName(),
+            dockerOption);
+        dockerAdapter.updateContainerNames(BlueGreenSwitcher.liveContainers(
+            pathParser.projectPath(project.getProjectName()).toString()));
 
-        List<BuildConfig> buildConfigs = new ArrayList<>();
-        List<DbConfig> dbConfigs = new ArrayList<>();
+        List<BuildConfig> buildConfigs = projectConfigStore.buildConfigs(project.getProjectName());
+        List<DbConfig> dbConfigs = projectConfigStore.dbConfigs(project.getProjectName());
 
-        File configDirectory = new File(configPath);
-        for (String fileName : configDirectory.list()) {
-            if ("build".equals(fileName)) {
-                buildConfigs = FileManager.loadJsonFileToList(configPath, "build",
-                    BuildConfig.class);
-                if (!buildConfigs.isEmpty()) {
-                    CommandInterpreter.run(logPath, "Remove", 0,
-                        dockerAdapter.getRemoveCommands(buildConfigs));
-                }
-            } else if ("db".equals(fileName)) {
-                dbConfigs = FileManager.loadJsonFileToList(configPath, "db", DbConfig.class);
-                if (!dbConfigs.isEmpty()) {
-                    CommandInterpreter.run(logPath, "Remove", 0,
-                        dockerAdapter.getRemoveCommands(dbConfigs));
-                }
-            }
+        // 컨테이너가 내려가므로 다음 빌드는 모든 서비스와 DB 를 다시 띄운다.
+        project.updateLastDeployedCommit(null);
+        if (!buildConfigs.isEmpty()) {
+            CommandInterpreter.runTask(logPath, "Remove", 0, dockerAdapter.getRemoveTask(buildConfigs));
+        }
+        if (!dbConfigs.isEmpty()) {
+            CommandInterpreter.runTask(logPath, "Remove", 0, dockerAdapter.getRemoveTask(dbConfigs));
         }
     }
 
@@ -904,31 +1167,25 @@ public class ProjectServiceImpl implements ProjectService {
                 () -> new NotFoundException(
                     "ProjectServiceImpl.configByProjectName : " + projectId));
 
-        String configPath = pathParser.configPath(project.getProjectName()).toString();
         String logPath = pathParser.logPath(project.getProjectName()).toString();
 
-        DockerAdapter dockerAdapter = new DockerAdapter(null, project.getProjectName());
+        DockerAdapter dockerAdapter = new DockerAdapter(null, project.getProjectName(),
+            dockerOption);
+        dockerAdapter.updateContainerNames(BlueGreenSwitcher.liveContainers(
+            pathParser.projectPath(project.getProjectName()).toString()));
 
-        List<BuildConfig> buildConfigs = new ArrayList<>();
-        List<DbConfig> dbConfigs = new ArrayList<>();
+        List<BuildConfig> buildConfigs = projectConfigStore.buildConfigs(project.getProjectName());
+        List<DbConfig> dbConfigs = projectConfigStore.dbConfigs(project.getProjectName());
 
-        File configDirectory = new File(configPath);
-        for (String fileName : configDirectory.list()) {
-            if ("build".equals(fileName)) {
-                buildConfigs = FileManager.loadJsonFileToList(configPath, "build",
-                    BuildConfig.class);
-                if (!buildConfigs.isEmpty()) {
-                    CommandInterpreter.run(logPath, "Stop", 0,
-                        dockerAdapter.getStopCommands(buildConfigs));
-                }
-            } else if ("db".equals(fileName)) {
-                dbConfigs = FileManager.loadJsonFileToList(configPath, "db", DbConfig.class);
-                if (!dbConfigs.isEmpty()) {
-                    CommandInterpreter.run(logPath, "Stop", 0,
-                        dockerAdapter.getStopCommands(dbConfigs));
-                }
-            }
+        // 컨테이너가 내려가므로 다음 빌드는 모든 서비스와 DB 를 다시 띄운다.
+        project.updateLastDeployedCommit(null);
+        if (!buildConfigs.isEmpty()) {
+            CommandInterpreter.runTask(logPath, "Stop", 0, dockerAdapter.getStopTask(buildConfigs));
+        }
+        if (!dbConfigs.isEmpty()) {
+            CommandInterpreter.runTask(logPath, "Stop", 0, dockerAdapter.getStopTask(dbConfigs));
         }
         project.updateState(StateType.Waiting);
+        projectSummaryIndex.refresh(projectId);
     }
 }
@@ -0,0 +1,147 @@
+package com.dokkaebi.service.project;
+
+import com.dokkaebi.core.docker.vo.docker.DokkaebiConfig;
+import com.dokkaebi.core.docker.vo.docker.DokkaebiProperty;
+import com.dokkaebi.dto.project.ProjectListResponseDto;
+import com.dokkaebi.repository.project.ProjectRepository;
+import com.dokkaebi.repository.project.ProjectSummary;
+import com.dokkaebi.util.ProjectConfigStore;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 프로젝트 목록 (/api/project/all) 을 메모리에 만들어 둔다.
+ *  - 처음 요청할 때 프로젝트 컬럼만 읽는 쿼리 한 번과 ProjectConfigStore 의 포트로 만든다.
+ *  - 설정 저장, 빌드 단계 전환, 삭제 시 해당 프로젝트만 commit 이후에 다시 읽는다.
+ *  - 바뀔 때마다 etag 가 바뀌므로 목록이 그대로이면 304 로 응답할 수 있다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectSummaryIndex {
+
+    private final ProjectRepository projectRepository;
+    private final ProjectConfigStore projectConfigStore;
+
+    // 재시작 후 같은 version 이 다른 목록을 가리키지 않도록 etag 에 붙인다.
+    private final String bootId = Long.toHexString(System.currentTimeMillis());
+
+    // projectId 순서
+    private Map<Long, ProjectListResponseDto> summaries;
+
+    private long version = 0;
+
+    private Snapshot snapshot;
+
+    @Getter
+    public static class Snapshot {
+
+        private final List<ProjectListResponseDto> projects;
+        private final String etag;
+
+        private Snapshot(List<ProjectListResponseDto> projects, String etag) {
+            this.projects = projects;
+            this.etag = etag;
+        }
+    }
+
+    public synchronized Snapshot snapshot() throws IOException {
+        if (summaries == null) {
+            load();
+        }
+        if (snapshot == null) {
+            snapshot = new Snapshot(
+                Collections.unmodifiableList(new ArrayList<>(summaries.values())),
+                "\"" + bootId + "-" + version + "\"");
+        }
+        return snapshot;
+    }
+
+    /**
+     * 프로젝트가 바뀌었음을 알린다. transaction 안이면 commit 이후에 다시 읽는다. (rollback 이면 읽지 않음)
+     */
+    public void refresh(Long projectId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        reload(projectId);
+                    }
+                });
+        } else {
+            reload(projectId);
+        }
+    }
+
+    private synchronized void load() throws IOException {
+        log.info("load Start");
+        Map<Long, ProjectListResponseDto> loaded = new TreeMap<>();
+        for (ProjectSummary summary : projectRepository.findAllSummaries()) {
+            loaded.put(summary.getId(), summary(summary));
+        }
+        summaries = loaded;
+        changed();
+        log.info("load Done : {} projects", loaded.size());
+    }
+
+    private synchronized void reload(Long projectId) {
+        if (summaries == null) {
+            // 아직 목록을 만들지 않았으면 처음 요청할 때 모두 읽는다.
+            return;
+        }
+        try {
+            Optional<ProjectSummary> summary = projectRepository.findSummaryById(projectId);
+            if (summary.isPresent()) {
+                summaries.put(projectId, summary(summary.get()));
+            } else {
+                summaries.remove(projectId);
+            }
+            changed();
+            log.info("reload : projectId = {} , version = {}", projectId, version);
+        } catch (Exception e) {
+            // 다음 요청에서 모두 다시 읽는다.
+            log.error("reload : projectId = {} failed {}", projectId, e.getMessage());
+            summaries = null;
+            snapshot = null;
+        }
+    }
+
+    private void changed() {
+        version++;
+        snapshot = null;
+    }
+
+    private ProjectListResponseDto summary(ProjectSummary summary) throws IOException {
+        List<Map<String, String>> ports = new ArrayList<>();
+        addPorts(ports, projectConfigStore.buildConfigs(summary.getProjectName()));
+        addPorts(ports, projectConfigStore.dbConfigs(summary.getProjectName()));
+        return ProjectListResponseDto.of(summary, ports);
+    }
+
+    private static void addPorts(List<Map<String, String>> ports,
+        List<? extends DokkaebiConfig> configs) {
+        for (DokkaebiConfig config : configs) {
+            for (DokkaebiProperty property : config.getProperties()) {
+                if ("publish".equals(property.getType())) {
+                    Map<String, String> port = new HashMap<>();
+                    port.put("name", config.getName());
+                    port.put("host", property.getHost());
+                    ports.add(port);
+                }
+            }
+        }
+    }
+}
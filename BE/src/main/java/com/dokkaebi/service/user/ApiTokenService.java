@@ -0,0 +1,17 @@
+package com.dokkaebi.service.user;
+
+import com.dokkaebi.dto.user.ApiTokenRequestDto;
+import com.dokkaebi.dto.user.ApiTokenResponseDto;
+import java.util.List;
+import javassist.NotFoundException;
+
+public interface ApiTokenService {
+
+    // 응답에만 토큰 원문이 들어있다.
+    ApiTokenResponseDto create(Long userId, ApiTokenRequestDto apiTokenRequestDto)
+        throws NotFoundException;
+
+    List<ApiTokenResponseDto> findAll(Long userId);
+
+    void delete(Long userId, Long tokenId) throws NotFoundException;
+}
@@ -0,0 +1,64 @@
+package com.dokkaebi.service.user;
+
+import com.dokkaebi.dto.user.ApiTokenRequestDto;
+import com.dokkaebi.dto.user.ApiTokenResponseDto;
+import com.dokkaebi.entity.user.ApiToken;
+import com.dokkaebi.entity.user.User;
+import com.dokkaebi.repository.user.ApiTokenRepository;
+import com.dokkaebi.repository.user.UserRepository;
+import com.dokkaebi.security.ApiTokenVerifier;
+import java.util.List;
+import java.util.stream.Collectors;
+import javassist.NotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional
+@RequiredArgsConstructor
+@Slf4j
+public class ApiTokenServiceImpl implements ApiTokenService {
+
+    private final ApiTokenRepository apiTokenRepository;
+    private final UserRepository userRepository;
+    private final ApiTokenVerifier apiTokenVerifier;
+
+    @Override
+    public ApiTokenResponseDto create(Long userId, ApiTokenRequestDto apiTokenRequestDto)
+        throws NotFoundException {
+        log.info("create Start : userId = {} , name = {}", userId, apiTokenRequestDto.getName());
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new NotFoundException("ApiTokenServiceImpl.create : " + userId));
+
+        String token = apiTokenVerifier.generate();
+        ApiToken apiToken = apiTokenRepository.save(ApiToken.of(user,
+            apiTokenRequestDto.getName(), apiTokenVerifier.displayPrefix(token),
+            apiTokenVerifier.hash(token)));
+
+        log.info("create Done : tokenId = {}", apiToken.getId());
+        return ApiTokenResponseDto.of(apiToken, token);
+    }
+
+    @Override
+    public List<ApiTokenResponseDto> findAll(Long userId) {
+        log.info("findAll Start : userId = {}", userId);
+        List<ApiTokenResponseDto> tokens = apiTokenRepository.findAllByUserIdOrderByIdDesc(userId)
+            .stream()
+            .map(ApiTokenResponseDto::from)
+            .collect(Collectors.toList());
+        log.info("findAll Done : {} tokens", tokens.size());
+        return tokens;
+    }
+
+    @Override
+    public void delete(Long userId, Long tokenId) throws NotFoundException {
+        log.info("delete Start : userId = {} , tokenId = {}", userId, tokenId);
+        ApiToken apiToken = apiTokenRepository.findByIdAndUserId(tokenId, userId)
+            .orElseThrow(() -> new NotFoundException("ApiTokenServiceImpl.delete : " + tokenId));
+        apiTokenRepository.delete(apiToken);
+        apiTokenVerifier.evict(apiToken.getTokenHash());
+        log.info("delete Done");
+    }
+}
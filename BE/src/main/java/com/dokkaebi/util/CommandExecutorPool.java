@@ -0,0 +1,51 @@
+package com.dokkaebi.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 빌드 단계 안에서 서로 독립적인 명령어(이미지 빌드 등)를 동시에 실행하기 위한 스레드 풀
+ * 모든 빌드가 공유하므로 동시에 실행되는 명령어 수는 dokkaebi.build.commandParallelism 을 넘지 않는다.
+ * 컨테이너 준비 확인 (PortProbe) 처럼 주기적으로 다시 시도하는 작업은 명령어 스레드를 잡지 않도록 probeScheduler 에서 실행한다.
+ */
+@Slf4j
+@Component
+public class CommandExecutorPool {
+
+  @Value("${dokkaebi.build.commandParallelism}")
+  private int parallelism;
+
+  private ExecutorService executor;
+
+  private ScheduledExecutorService probeScheduler;
+
+  @PostConstruct
+  public void init() {
+    executor = Executors.newFixedThreadPool(parallelism,
+        new CustomizableThreadFactory("command-worker-"));
+    probeScheduler = Executors.newScheduledThreadPool(parallelism,
+        new CustomizableThreadFactory("probe-"));
+    log.info("init Done : parallelism = {}", parallelism);
+  }
+
+  @PreDestroy
+  public void destroy() {
+    executor.shutdownNow();
+    probeScheduler.shutdownNow();
+  }
+
+  public ExecutorService getExecutor() {
+    return executor;
+  }
+
+  public ScheduledExecutorService getProbeScheduler() {
+    return probeScheduler;
+  }
+}
@@ -32,10 +32,11 @@ public class DockerConfigParser {
   }
 
   public BuildConfig buildConverter(String name, String framework, String dockerVersion,
-                                    List<DokkaebiProperty> properties, String projectDirectory, String buildPath, String type) {
+                                    List<DokkaebiProperty> properties, String projectDirectory, String buildPath, String type,
+                                    List<String> dependsOn, List<String> dockerIgnore) {
     log.info("buildConverter Start : framework = {} , dockerVersion = {}", framework, dockerVersion);
     return new BuildConfig(name, framework, dockerVersion, properties, projectDirectory, buildPath,
-        type);
+        type, dependsOn, dockerIgnore);
   }
 
   public NginxConfig nginxConverter(NginxConfigDto dto) {
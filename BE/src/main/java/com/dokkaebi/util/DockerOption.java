@@ -0,0 +1,48 @@
+package com.dokkaebi.util;
+
+import com.dokkaebi.core.docker.DockerEngine;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dockerfile 생성 / 이미지 빌드 옵션
+ *  buildkit : BuildKit 으로 빌드하고, 생성하는 Dockerfile 에서 의존성 캐시(gradle, maven, npm, pip)를
+ *             RUN --mount=type=cache 로 빌드 사이에 재사용한다. (Docker 20.10 이상)
+ *  engineApi : docker CLI 대신 host 의 Docker Engine API 를 직접 호출한다.
+ *              BuildKit 빌드는 Engine API 로 할 수 없으므로 buildkit 이 켜져 있으면 빌드만 CLI 를 쓴다.
+ *  keepImages : 서비스마다 실행 중인 이미지 외에 되돌리기용으로 남길 최근 이미지 tag 수
+ */
+@Getter
+@Component
+public class DockerOption {
+
+  @Value("${dokkaebi.docker.buildkit}")
+  private boolean buildkit;
+
+  @Value("${dokkaebi.docker.engineApi}")
+  private boolean engineApi;
+
+  @Value("${dokkaebi.docker.host}")
+  private String host;
+
+  @Value("${dokkaebi.docker.keepImages}")
+  private int keepImages;
+
+  @Getter(AccessLevel.NONE)
+  private DockerEngine engine;
+
+  /**
+   * engineApi 가 꺼져 있으면 null
+   */
+  public synchronized DockerEngine engine() {
+    if (!engineApi) {
+      return null;
+    }
+    if (engine == null) {
+      engine = new DockerEngine(host);
+    }
+    return engine;
+  }
+}
@@ -6,8 +6,11 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 
@@ -15,17 +18,26 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class FileManager {
 
-  //Json 파일 저장
+  // ObjectMapper 는 설정을 바꾸지 않으면 여러 스레드에서 함께 써도 된다.
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  //Json 파일 저장 (임시 파일에 쓴 뒤 rename 하므로 읽는 쪽에서 쓰다 만 파일을 보지 않음)
   public static <T> void saveJsonFile(String filePath, String fileName, T file)
       throws IOException {
     log.info("saveJsonFile Start : filePath = {} , fileName = {}", filePath, fileName);
-    ObjectMapper mapper = new ObjectMapper();
     //저장 경로
     String savePath = makePath(filePath, "/", fileName);
     //저장 경로 확인
     checkAndMakeDir(filePath);
     //파일 저장
-    mapper.writeValue(new File(savePath), file);
+    Path tempPath = Paths.get(savePath + ".tmp");
+    mapper.writeValue(tempPath.toFile(), file);
+    try {
+      Files.move(tempPath, Paths.get(savePath), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tempPath, Paths.get(savePath), StandardCopyOption.REPLACE_EXISTING);
+    }
     log.info("saveJsonFile Done");
   }
 
@@ -33,7 +45,6 @@ public class FileManager {
   public static <T> T loadJsonFile(String filePath, String fileName, Class<T> type)
       throws IOException {
     log.info("loadJsonFile Start : filePath = {} , fileName = {}", filePath, fileName);
-    ObjectMapper mapper = new ObjectMapper();
     File file = new File(makePath(filePath, "/", fileName));
     if (file.exists()) {
       return mapper.readValue(file, type);
@@ -46,7 +57,6 @@ public class FileManager {
   public static <T> List<T> loadJsonFileToList(String filePath, String fileName, Class<T> type)
       throws IOException {
     log.info("start load Json: {} {} {}", filePath, fileName, type.toString());
-    ObjectMapper mapper = new ObjectMapper();
     File file = new File(makePath(filePath, "/", fileName));
     if (file.exists()) {
       return mapper.readValue(file, mapper.getTypeFactory().constructCollectionType(List.class, type));
@@ -75,7 +85,7 @@ public class FileManager {
     log.info("loadFile Start : filePath = {} , fileName = {}", filePath, fileName);
     String loadPath = makePath(filePath, "/", fileName);
     byte[] bytes = Files.readAllBytes(Paths.get(loadPath));
-    log.info("loadFile Done :  {} ", new String(bytes));
+    log.info("loadFile Done : {} bytes", bytes.length);
     return new String(bytes);
   }
 
@@ -93,6 +103,18 @@ public class FileManager {
     writer.close();
   }
 
+  //파일 크기를 읽기 쉬운 단위로 변환 (예: 12.3 MB)
+  public static String displaySize(long bytes) {
+    String[] units = {"B", "KB", "MB", "GB", "TB"};
+    double size = bytes;
+    int unit = 0;
+    while (size >= 1024 && unit < units.length - 1) {
+      size /= 1024;
+      unit++;
+    }
+    return unit == 0 ? bytes + " B" : String.format("%.1f %s", size, units[unit]);
+  }
+
   //파일 저장 경로 생성
   private static String makePath(String... strs) {
     log.info("makePath Start");
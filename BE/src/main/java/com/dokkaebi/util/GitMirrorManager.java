@@ -0,0 +1,79 @@
+package com.dokkaebi.util;
+
+import com.dokkaebi.core.gitlab.GitlabAdapter;
+import com.dokkaebi.core.gitlab.dto.GitlabCloneDto;
+import com.dokkaebi.core.util.CommandInterpreter;
+import com.dokkaebi.entity.git.enums.CloneStrategy;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tomcat.util.http.fileupload.FileUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * repository url 별 bare mirror 를 두고 프로젝트의 작업 트리를 mirror 로부터 만든다.
+ * 설정을 저장할 때마다 전체 clone 하는 대신 mirror 에 변경분만 받아오고 작업 트리는 checkout 만 한다.
+ * 같은 mirror 를 쓰는 요청은 mirror 별 lock 으로 순서대로 실행한다.
+ * Full 이 아닌 clone 전략은 mirror 를 거치지 않고 원격 repository 에서 직접 받아온다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GitMirrorManager {
+
+  private final PathParser pathParser;
+
+  private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+  public void checkout(GitlabCloneDto dto, String repositoryPath, String logPath, String logName,
+      int buildNumber) throws IOException {
+    String parentPath = new File(repositoryPath).getParent();
+    if (dto.getCloneStrategy() != CloneStrategy.Full) {
+      log.info("checkout Start : cloneStrategy = {} , repositoryPath = {}",
+          dto.getCloneStrategy(), repositoryPath);
+      boolean repositoryExists = repositoryExists(repositoryPath);
+      CommandInterpreter.runDestPath(parentPath, logPath, logName, buildNumber,
+          GitlabAdapter.getCloneCommands(dto, repositoryPath, repositoryExists));
+      log.info("checkout Done");
+      return;
+    }
+
+    String mirrorPath = pathParser.mirrorPath(dto.getGitHttpUrl()).toString();
+    log.info("checkout Start : mirrorPath = {} , repositoryPath = {}", mirrorPath, repositoryPath);
+
+    synchronized (locks.computeIfAbsent(mirrorPath, key -> new Object())) {
+      boolean mirrorExists = new File(mirrorPath, "HEAD").exists();
+      boolean repositoryExists = repositoryExists(repositoryPath);
+
+      List<String> commands = new ArrayList<>();
+      commands.addAll(GitlabAdapter.getMirrorCommands(dto, mirrorPath, mirrorExists));
+      commands.addAll(
+          GitlabAdapter.getCheckoutCommands(dto, mirrorPath, repositoryPath, repositoryExists));
+
+      FileManager.checkAndMakeDir(new File(mirrorPath).getParent());
+      CommandInterpreter.runDestPath(parentPath, logPath, logName, buildNumber, commands);
+    }
+    log.info("checkout Done");
+  }
+
+  /**
+   * 작업 트리가 있는지 확인한다.
+   * 폴더는 있지만 .git 이 없으면 (clone 중단, 이전 방식으로 만든 폴더 등) clone 할 수 있도록 지운다.
+   */
+  private boolean repositoryExists(String repositoryPath) throws IOException {
+    File repository = new File(repositoryPath);
+    if (new File(repository, ".git").isDirectory()) {
+      return true;
+    }
+    if (repository.exists()) {
+      log.info("repositoryExists : no .git, delete {}", repositoryPath);
+      FileUtils.deleteDirectory(repository);
+    }
+    return false;
+  }
+}
@@ -0,0 +1,199 @@
+package com.dokkaebi.util;
+
+import com.dokkaebi.core.util.LogBroadcaster;
+import com.dokkaebi.core.util.LogReader;
+import com.dokkaebi.entity.project.Project;
+import com.dokkaebi.repository.project.ProjectRepository;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 프로젝트별 빌드 로그 ({logPath}/{상태}_{빌드 넘버}) 를 주기적으로 정리한다.
+ *  - 끝난 단계의 로그는 {로그}.gz 로 압축한다. (LogReader 가 압축을 풀면서 읽음)
+ *  - 최근 dokkaebi.log.retainBuilds 개 빌드의 로그만 남긴다.
+ *  - dokkaebi.log.retainDays 일이 지난 로그를 지운다.
+ * 진행 중인 단계의 로그와 가장 최근 빌드의 로그, 설정 저장 시의 로그 (빌드 넘버 0) 는 지우지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LogJanitor {
+
+  // {상태}_{빌드 넘버}[_{묶음 이름}][.gz]
+  private static final Pattern LOG_FILE = Pattern.compile("^([A-Za-z]+)_(\\d+)(_.+?)?(\\.gz)?$");
+
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final ProjectRepository projectRepository;
+  private final PathParser pathParser;
+
+  @Value("${dokkaebi.log.compressAfterSeconds}")
+  private long compressAfterSeconds;
+
+  @Value("${dokkaebi.log.retainBuilds}")
+  private int retainBuilds;
+
+  @Value("${dokkaebi.log.retainDays}")
+  private int retainDays;
+
+  @Scheduled(initialDelayString = "${dokkaebi.log.janitorIntervalMillis}",
+      fixedDelayString = "${dokkaebi.log.janitorIntervalMillis}")
+  public void clean() {
+    log.info("clean Start : retainBuilds = {} , retainDays = {}", retainBuilds, retainDays);
+    Report total = new Report();
+    for (Project project : projectRepository.findAll()) {
+      Path logPath = Paths.get(pathParser.logPath(project.getProjectName()).toString());
+      if (!Files.isDirectory(logPath)) {
+        continue;
+      }
+      try {
+        Report report = clean(logPath);
+        if (report.reclaimed() > 0) {
+          log.info("clean : {} {}", project.getProjectName(), report);
+        }
+        total.add(report);
+      } catch (IOException e) {
+        log.error("clean : {} failed {}", project.getProjectName(), e.getMessage());
+      }
+    }
+    log.info("clean Done : {}", total);
+  }
+
+  private Report clean(Path logPath) throws IOException {
+    Report report = new Report();
+    List<Path> files = new ArrayList<>();
+    TreeSet<Long> buildNumbers = new TreeSet<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(logPath)) {
+      for (Path file : stream) {
+        Matcher matcher = LOG_FILE.matcher(file.getFileName().toString());
+        if (matcher.matches()) {
+          files.add(file);
+          long buildNumber = Long.parseLong(matcher.group(2));
+          if (buildNumber > 0) {
+            buildNumbers.add(buildNumber);
+          }
+        } else if (file.getFileName().toString().endsWith(TEMP_SUFFIX) && isIdle(file)) {
+          // 압축 중에 멈춰서 남은 임시 파일
+          report.deleted(Files.size(file));
+          Files.delete(file);
+        }
+      }
+    }
+    // 남길 빌드 넘버 중 가장 작은 값 (가장 최근 빌드는 항상 남긴다)
+    long lastBuildNumber = buildNumbers.isEmpty() ? 0 : buildNumbers.last();
+    long firstRetained = 0;
+    if (retainBuilds > 0 && buildNumbers.size() > retainBuilds) {
+      firstRetained = buildNumbers.descendingSet().stream().skip(retainBuilds - 1).findFirst()
+          .orElse(0L);
+    }
+    Instant expiry = retainDays > 0 ? Instant.now().minus(Duration.ofDays(retainDays)) : null;
+
+    for (Path file : files) {
+      Matcher matcher = LOG_FILE.matcher(file.getFileName().toString());
+      matcher.matches();
+      long buildNumber = Long.parseLong(matcher.group(2));
+      Path stageFile = logPath.resolve(matcher.group(1) + "_" + buildNumber);
+      if (LogBroadcaster.isOpen(stageFile)) {
+        continue;
+      }
+      FileTime modified = Files.getLastModifiedTime(file);
+      boolean expired = buildNumber < firstRetained
+          || (expiry != null && modified.toInstant().isBefore(expiry));
+      if (expired && buildNumber != 0 && buildNumber != lastBuildNumber) {
+        report.deleted(Files.size(file));
+        Files.delete(file);
+      } else if (matcher.group(3) == null && matcher.group(4) == null && isIdle(file)) {
+        compress(file, modified, report);
+      }
+    }
+    return report;
+  }
+
+  // 압축 중에 로그가 바뀌면 압축한 파일을 버리고 원본을 남긴다.
+  private void compress(Path file, FileTime modified, Report report) throws IOException {
+    Path gzip = LogReader.gzipPath(file);
+    Path temp = gzip.resolveSibling(gzip.getFileName() + TEMP_SUFFIX);
+    try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(temp),
+        BUFFER_SIZE)) {
+      Files.copy(file, outputStream);
+    }
+    if (!modified.equals(Files.getLastModifiedTime(file))) {
+      Files.delete(temp);
+      return;
+    }
+    try {
+      Files.move(temp, gzip, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, gzip, StandardCopyOption.REPLACE_EXISTING);
+    }
+    report.compressed(Files.size(file), Files.size(gzip));
+    Files.setLastModifiedTime(gzip, modified);
+    Files.delete(file);
+  }
+
+  private boolean isIdle(Path file) throws IOException {
+    return Files.getLastModifiedTime(file).toInstant()
+        .isBefore(Instant.now().minusSeconds(compressAfterSeconds));
+  }
+
+  private static class Report {
+
+    private int compressedFiles;
+    private long compressedBytes;
+    private long savedBytes;
+    private int deletedFiles;
+    private long deletedBytes;
+
+    private void compressed(long originalSize, long compressedSize) {
+      compressedFiles++;
+      compressedBytes += originalSize;
+      savedBytes += originalSize - compressedSize;
+    }
+
+    private void deleted(long size) {
+      deletedFiles++;
+      deletedBytes += size;
+    }
+
+    private void add(Report report) {
+      compressedFiles += report.compressedFiles;
+      compressedBytes += report.compressedBytes;
+      savedBytes += report.savedBytes;
+      deletedFiles += report.deletedFiles;
+      deletedBytes += report.deletedBytes;
+    }
+
+    private long reclaimed() {
+      return savedBytes + deletedBytes;
+    }
+
+    @Override
+    public String toString() {
+      return "compressed = " + compressedFiles + " files (" + compressedBytes + " bytes)"
+          + " , deleted = " + deletedFiles + " files , reclaimed = " + reclaimed() + " bytes";
+    }
+  }
+}
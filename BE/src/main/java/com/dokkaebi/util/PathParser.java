@@ -1,7 +1,9 @@
 package com.dokkaebi.util;
 
 import org.springframework.beans.factory.annotation.Value;
+import java.nio.charset.StandardCharsets;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
 
 /**
  * 프로젝트 관련 경로
@@ -9,6 +11,9 @@ import org.springframework.stereotype.Component;
  *
  *  Volume 관련 경로
  *  /var/dokkaebi/{projectName}/{volumeFolderName}
+ *
+ *  Git mirror 경로 (repository url 별로 프로젝트끼리 공유)
+ *  /{rootPath}/{mirrorPath}/{md5(repositoryUrl)}.git
  */
 @Component
 public class PathParser {
@@ -22,6 +27,9 @@ public class PathParser {
   @Value("${dokkaebi.logPath}")
   private String log;
 
+  @Value("${dokkaebi.mirrorPath}")
+  private String mirror;
+
   @Value("${dokkaebi.volumePath}")
   private String volume;
 
@@ -49,6 +57,12 @@ public class PathParser {
     return projectPath(projectName).append("/").append(projectId);
   }
 
+  public StringBuilder mirrorPath(String repositoryUrl) {
+    return rootPath().append("/").append(mirror).append("/")
+        .append(DigestUtils.md5DigestAsHex(repositoryUrl.getBytes(StandardCharsets.UTF_8)))
+        .append(".git");
+  }
+
   public StringBuilder volumePath(String projectName, String volumePath) {
     return volumePath().append("/").append(projectName).append("/").append(volumePath);
   }
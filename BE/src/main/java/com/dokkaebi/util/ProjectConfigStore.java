@@ -0,0 +1,252 @@
+package com.dokkaebi.util;
+
+import com.dokkaebi.core.docker.vo.docker.BuildConfig;
+import com.dokkaebi.core.docker.vo.docker.DbConfig;
+import com.dokkaebi.core.docker.vo.nginx.NginxConfig;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 프로젝트별 설정 파일 ({configPath}/build, db, nginx) 을 읽어 메모리에 둔다.
+ *  - 처음 읽을 때 한 번만 파일을 읽고, 이후에는 메모리의 설정을 반환한다.
+ *  - save 는 파일에 먼저 쓰고 (임시 파일 + rename) 메모리의 설정을 바꾼다.
+ *  - 설정 폴더를 WatchService 로 감시하여 밖에서 파일을 고치면 다음에 읽을 때 다시 읽는다.
+ *    (읽거나 쓴 시점의 수정 시각과 같으면 직접 쓴 것이므로 다시 읽지 않음)
+ * 반환하는 목록은 복사본이므로 호출하는 쪽에서 목록을 바꿔도 된다. (설정 객체 자체는 바꾸지 않아야 함)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectConfigStore {
+
+  private static final String BUILD = "build";
+  private static final String DB = "db";
+  private static final String NGINX = "nginx";
+  private static final Set<String> FILE_NAMES = Set.of(BUILD, DB, NGINX);
+
+  private final PathParser pathParser;
+
+  private final Map<String, ProjectConfigs> configs = new ConcurrentHashMap<>();
+
+  // 감시 중인 설정 폴더 - 프로젝트 이름
+  private final Map<WatchKey, String> watchKeys = new ConcurrentHashMap<>();
+
+  private WatchService watchService;
+
+  @PostConstruct
+  public void init() throws IOException {
+    watchService = FileSystems.getDefault().newWatchService();
+    Thread watcher = new Thread(this::watch, "config-watcher");
+    watcher.setDaemon(true);
+    watcher.start();
+    log.info("init Done");
+  }
+
+  @PreDestroy
+  public void destroy() throws IOException {
+    watchService.close();
+  }
+
+  public List<BuildConfig> buildConfigs(String projectName) throws IOException {
+    return new ArrayList<>(get(projectName).buildConfigs);
+  }
+
+  public List<DbConfig> dbConfigs(String projectName) throws IOException {
+    return new ArrayList<>(get(projectName).dbConfigs);
+  }
+
+  /**
+   * nginx 설정, 없으면 null
+   */
+  public NginxConfig nginxConfig(String projectName) throws IOException {
+    return get(projectName).nginxConfig;
+  }
+
+  /**
+   * 설정 파일을 모두 바꾼다. 비어 있는 설정 (db, nginx) 은 파일을 지운다.
+   */
+  public void save(String projectName, List<BuildConfig> buildConfigs, List<DbConfig> dbConfigs,
+      NginxConfig nginxConfig) throws IOException {
+    log.info("save Start : projectName = {}", projectName);
+    String configPath = pathParser.configPath(projectName).toString();
+    NginxConfig savedNginxConfig =
+        nginxConfig == null || nginxConfig.checkEmpty() ? null : nginxConfig;
+    try {
+      configs.compute(projectName, (name, old) -> {
+        try {
+          FileManager.saveJsonFile(configPath, BUILD, buildConfigs);
+          if (dbConfigs.isEmpty()) {
+            Files.deleteIfExists(Paths.get(configPath, DB));
+          } else {
+            FileManager.saveJsonFile(configPath, DB, dbConfigs);
+          }
+          if (savedNginxConfig == null) {
+            Files.deleteIfExists(Paths.get(configPath, NGINX));
+          } else {
+            FileManager.saveJsonFile(configPath, NGINX, savedNginxConfig);
+          }
+          register(name, configPath);
+          return new ProjectConfigs(buildConfigs, dbConfigs, savedNginxConfig,
+              stamps(configPath));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      // 일부 파일만 저장되었을 수 있으므로 다음에 읽을 때 파일에서 다시 읽는다.
+      configs.remove(projectName);
+      throw e.getCause();
+    }
+    log.info("save Done");
+  }
+
+  /**
+   * 프로젝트를 지웠을 때 메모리의 설정을 버린다.
+   */
+  public void evict(String projectName) {
+    configs.remove(projectName);
+    log.info("evict : {}", projectName);
+  }
+
+  private ProjectConfigs get(String projectName) throws IOException {
+    try {
+      return configs.computeIfAbsent(projectName, this::load);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private ProjectConfigs load(String projectName) {
+    log.info("load Start : projectName = {}", projectName);
+    String configPath = pathParser.configPath(projectName).toString();
+    try {
+      register(projectName, configPath);
+      // 읽는 중에 바뀌면 감시에서 다시 읽도록 먼저 수정 시각을 기록한다.
+      Map<String, FileTime> stamps = stamps(configPath);
+      List<BuildConfig> buildConfigs = new ArrayList<>();
+      List<DbConfig> dbConfigs = new ArrayList<>();
+      NginxConfig nginxConfig = null;
+      if (Files.isRegularFile(Paths.get(configPath, BUILD))) {
+        buildConfigs = FileManager.loadJsonFileToList(configPath, BUILD, BuildConfig.class);
+      }
+      if (Files.isRegularFile(Paths.get(configPath, DB))) {
+        dbConfigs = FileManager.loadJsonFileToList(configPath, DB, DbConfig.class);
+      }
+      if (Files.isRegularFile(Paths.get(configPath, NGINX))) {
+        nginxConfig = FileManager.loadJsonFile(configPath, NGINX, NginxConfig.class);
+      }
+      log.info("load Done : build = {} , db = {}", buildConfigs.size(), dbConfigs.size());
+      return new ProjectConfigs(buildConfigs, dbConfigs, nginxConfig, stamps);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // 설정 폴더가 있으면 감시한다. (이미 감시 중이면 같은 WatchKey)
+  private void register(String projectName, String configPath) throws IOException {
+    Path directory = Paths.get(configPath);
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+    watchKeys.put(key, projectName);
+  }
+
+  private void watch() {
+    while (true) {
+      WatchKey key;
+      try {
+        key = watchService.take();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+      String projectName = watchKeys.get(key);
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+          log.info("watch : overflow, evict all");
+          configs.clear();
+        } else if (projectName != null) {
+          changed(projectName, event.context().toString(), (Path) key.watchable());
+        }
+      }
+      // 설정 폴더가 지워지면 더 이상 감시하지 않는다. (다시 읽을 때 다시 감시)
+      if (!key.reset()) {
+        watchKeys.remove(key);
+        if (projectName != null) {
+          configs.remove(projectName);
+        }
+      }
+    }
+  }
+
+  // 설정 파일이 메모리의 설정을 읽거나 쓴 이후에 바뀌었으면 메모리의 설정을 버린다.
+  private void changed(String projectName, String fileName, Path directory) {
+    if (!FILE_NAMES.contains(fileName)) {
+      return;
+    }
+    configs.computeIfPresent(projectName, (name, current) -> {
+      if (Objects.equals(current.stamps.get(fileName), stamp(directory.resolve(fileName)))) {
+        return current;
+      }
+      log.info("watch : {} {} changed", name, fileName);
+      return null;
+    });
+  }
+
+  private static Map<String, FileTime> stamps(String configPath) {
+    Map<String, FileTime> stamps = new HashMap<>();
+    for (String fileName : FILE_NAMES) {
+      stamps.put(fileName, stamp(Paths.get(configPath, fileName)));
+    }
+    return stamps;
+  }
+
+  // 수정 시각, 파일이 없으면 null
+  private static FileTime stamp(Path file) {
+    try {
+      return Files.getLastModifiedTime(file);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private static class ProjectConfigs {
+
+    private final List<BuildConfig> buildConfigs;
+    private final List<DbConfig> dbConfigs;
+    private final NginxConfig nginxConfig;
+    private final Map<String, FileTime> stamps;
+
+    private ProjectConfigs(List<BuildConfig> buildConfigs, List<DbConfig> dbConfigs,
+        NginxConfig nginxConfig, Map<String, FileTime> stamps) {
+      this.buildConfigs = Collections.unmodifiableList(new ArrayList<>(buildConfigs));
+      this.dbConfigs = Collections.unmodifiableList(new ArrayList<>(dbConfigs));
+      this.nginxConfig = nginxConfig;
+      this.stamps = stamps;
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package com.dokkaebi.util;
+
+import com.dokkaebi.dto.framework.DbPropertyConfigDto;
+import com.dokkaebi.entity.core.BuildTool;
+import com.dokkaebi.entity.core.SettingConfig;
+import com.dokkaebi.entity.core.Version;
+import com.dokkaebi.repository.project.SettingConfigRepository;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 프레임워크/DB 종류 (setting_config) 와 버전, 빌드 도구, DB 속성 파일 ({dokkaebiConfigPath}/{option}) 을 메모리에 둔다.
+ *  - 시작할 때 한 번 모두 읽고, 이후 조회는 id, 이름, 입력 버전, docker 버전의 HashMap 으로 찾는다.
+ *  - 목록은 init.sql 로만 바뀌므로 바꾼 뒤에는 refresh (/api/admin/setting/refresh) 로 다시 읽는다.
+ * 읽은 목록은 바뀌지 않으며 refresh 는 새 목록으로 통째로 바꾼다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SettingCatalog {
+
+  private final SettingConfigRepository settingConfigRepository;
+  private final PathParser pathParser;
+  private final TransactionTemplate transactionTemplate;
+
+  private volatile Catalog catalog;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void init() {
+    try {
+      refresh();
+    } catch (Exception e) {
+      // 처음 조회할 때 다시 읽는다.
+      log.error("init : load failed {}", e.getMessage());
+    }
+  }
+
+  /**
+   * DB 와 DB 속성 파일에서 다시 읽는다.
+   *
+   * @return 읽은 종류 수
+   */
+  public synchronized int refresh() throws IOException {
+    log.info("refresh Start");
+    try {
+      catalog = transactionTemplate.execute(status -> load());
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    log.info("refresh Done : {} settings", catalog.byId.size());
+    return catalog.byId.size();
+  }
+
+  public Optional<Framework> findById(Long id) throws IOException {
+    return Optional.ofNullable(catalog().byId.get(id));
+  }
+
+  public Optional<Framework> findByName(String settingConfigName) throws IOException {
+    return Optional.ofNullable(catalog().byName.get(settingConfigName));
+  }
+
+  // groupCode 의 종류, setting_config_id 순서
+  public List<Framework> findAllByGroupCode(String groupCode) throws IOException {
+    return catalog().byGroupCode.getOrDefault(groupCode, Collections.emptyList());
+  }
+
+  private Catalog catalog() throws IOException {
+    Catalog current = catalog;
+    if (current == null) {
+      refresh();
+      current = catalog;
+    }
+    return current;
+  }
+
+  private Catalog load() {
+    String dbConfigPath = pathParser.dokkaebiConfigPath().toString();
+    List<Framework> frameworks = new ArrayList<>();
+    for (SettingConfig settingConfig : settingConfigRepository.findAll()) {
+      frameworks.add(new Framework(settingConfig, dbProperty(dbConfigPath, settingConfig)));
+    }
+    frameworks.sort((a, b) -> Long.compare(a.id, b.id));
+    return new Catalog(frameworks);
+  }
+
+  // DB 속성 파일, option 이 없거나 파일이 없으면 null
+  private static DbPropertyConfigDto dbProperty(String dbConfigPath,
+      SettingConfig settingConfig) {
+    String option = settingConfig.getOption();
+    if (option == null || option.isBlank() || !new File(dbConfigPath, option).isFile()) {
+      return null;
+    }
+    try {
+      return FileManager.loadJsonFile(dbConfigPath, option, DbPropertyConfigDto.class);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static class Catalog {
+
+    private final Map<Long, Framework> byId = new HashMap<>();
+    private final Map<String, Framework> byName = new HashMap<>();
+    private final Map<String, List<Framework>> byGroupCode = new HashMap<>();
+
+    private Catalog(List<Framework> frameworks) {
+      Map<String, List<Framework>> groups = new LinkedHashMap<>();
+      for (Framework framework : frameworks) {
+        byId.put(framework.id, framework);
+        byName.put(framework.settingConfigName, framework);
+        groups.computeIfAbsent(framework.groupCode, groupCode -> new ArrayList<>())
+            .add(framework);
+      }
+      groups.forEach((groupCode, list) ->
+          byGroupCode.put(groupCode, Collections.unmodifiableList(list)));
+    }
+  }
+
+  @Getter
+  public static class Framework {
+
+    private final Long id;
+    private final String settingConfigName;
+    private final String groupCode;
+    private final String option;
+    private final String languageName;
+
+    // 입력 버전, version_id 순서
+    private final List<String> inputVersions;
+    private final List<String> buildToolNames;
+
+    // DB 종류의 속성 파일, 없으면 null
+    private final DbPropertyConfigDto dbProperty;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, FrameworkVersion> byInputVersion = new HashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, FrameworkVersion> byDockerVersion = new HashMap<>();
+
+    private Framework(SettingConfig settingConfig, DbPropertyConfigDto dbProperty) {
+      this.id = settingConfig.getId();
+      this.settingConfigName = settingConfig.getSettingConfigName();
+      this.groupCode = settingConfig.getGroupCode();
+      this.option = settingConfig.getOption();
+      this.dbProperty = dbProperty;
+
+      List<Version> versions = new ArrayList<>();
+      List<String> buildToolNames = new ArrayList<>();
+      String languageName = null;
+      if (settingConfig.getLanguage() != null) {
+        languageName = settingConfig.getLanguage().getLanguageName();
+        versions.addAll(settingConfig.getLanguage().getVersions());
+      }
+      for (BuildTool buildTool : settingConfig.getBuildTools()) {
+        buildToolNames.add(buildTool.getBuildToolName());
+      }
+      versions.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+
+      List<String> inputVersions = new ArrayList<>();
+      for (Version version : versions) {
+        FrameworkVersion frameworkVersion = new FrameworkVersion(version.getInputVersion(),
+            version.getDockerVersion());
+        inputVersions.add(version.getInputVersion());
+        // 같은 값이 여러 개면 Language.findVersionBy... 처럼 앞의 버전을 쓴다.
+        byInputVersion.putIfAbsent(version.getInputVersion(), frameworkVersion);
+        byDockerVersion.putIfAbsent(version.getDockerVersion(), frameworkVersion);
+      }
+      this.languageName = languageName;
+      this.inputVersions = Collections.unmodifiableList(inputVersions);
+      this.buildToolNames = Collections.unmodifiableList(buildToolNames);
+    }
+
+    public Optional<FrameworkVersion> findVersionByInput(String inputVersion) {
+      return Optional.ofNullable(byInputVersion.get(inputVersion));
+    }
+
+    public Optional<FrameworkVersion> findVersionByDocker(String dockerVersion) {
+      return Optional.ofNullable(byDockerVersion.get(dockerVersion));
+    }
+  }
+
+  @Getter
+  public static class FrameworkVersion {
+
+    private final String inputVersion;
+    private final String dockerVersion;
+
+    private FrameworkVersion(String inputVersion, String dockerVersion) {
+      this.inputVersion = inputVersion;
+      this.dockerVersion = dockerVersion;
+    }
+  }
+}
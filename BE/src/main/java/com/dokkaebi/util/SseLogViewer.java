@@ -0,0 +1,43 @@
+package com.dokkaebi.util;
+
+import com.dokkaebi.core.util.LogBroadcaster;
+import java.io.IOException;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * LogBroadcaster 가 전달하는 로그를 SSE 로 보낸다.
+ *  log  : 줄 목록 (JSON 배열)
+ *  done : 단계가 끝났거나 연결을 끊음
+ */
+@Slf4j
+public class SseLogViewer implements LogBroadcaster.Viewer {
+
+  private final SseEmitter emitter;
+
+  public SseLogViewer(SseEmitter emitter) {
+    this.emitter = emitter;
+  }
+
+  @Override
+  public void send(List<String> lines) throws IOException {
+    try {
+      emitter.send(SseEmitter.event().name("log").data(lines, MediaType.APPLICATION_JSON));
+    } catch (IllegalStateException e) {
+      // 이미 끝난 (timeout 등) emitter
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public void complete() {
+    try {
+      emitter.send(SseEmitter.event().name("done").data("done"));
+      emitter.complete();
+    } catch (IOException | IllegalStateException e) {
+      log.info("complete : already closed {}", e.getMessage());
+    }
+  }
+}
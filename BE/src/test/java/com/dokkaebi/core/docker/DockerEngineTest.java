@@ -0,0 +1,236 @@
+package com.dokkaebi.core.docker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.dokkaebi.core.docker.vo.docker.DokkaebiProperty;
+import com.dokkaebi.core.util.CommandCanceller;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 로컬 포트에 띄운 가짜 Engine API 서버로 DockerEngine 의 요청과 응답 처리를 확인한다.
+ */
+class DockerEngineTest {
+
+  private HttpServer server;
+  private DockerEngine dockerEngine;
+
+  // 가짜 Engine 의 상태
+  private final Set<String> networks = Collections.synchronizedSet(new HashSet<>());
+  private final Set<String> images = Collections.synchronizedSet(new HashSet<>());
+  private final Set<String> containers = Collections.synchronizedSet(new HashSet<>());
+  private final List<String> requests = new CopyOnWriteArrayList<>();
+  private volatile boolean buildFails;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", this::handle);
+    server.start();
+    dockerEngine = new DockerEngine("tcp://localhost:" + server.getAddress().getPort());
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void ensureNetworkCreatesOnlyOnce() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    dockerEngine.ensureNetwork("dokkaebi", output);
+    dockerEngine.ensureNetwork("dokkaebi", output);
+
+    assertThat(networks).containsExactly("dokkaebi");
+    assertThat(requests).filteredOn(request -> request.startsWith("POST /networks/create"))
+        .hasSize(1);
+    assertThat(output.toString(StandardCharsets.UTF_8))
+        .contains("network : created dokkaebi", "network : exists dokkaebi");
+  }
+
+  @Test
+  void runPullsMissingImageThenCreatesAndStarts() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    List<DokkaebiProperty> properties = List.of(
+        new DokkaebiProperty("publish", "8080", "8080"),
+        new DokkaebiProperty("environment", "SPRING_PROFILES_ACTIVE", "prod"));
+
+    dockerEngine.run("project-app", "app:1", properties, false, "dokkaebi", null, output,
+        new CommandCanceller());
+
+    assertThat(containers).containsExactly("project-app");
+    assertThat(requests).containsSubsequence("POST /containers/create",
+        "POST /images/create", "POST /containers/create", "POST /containers/project-app/start");
+    assertThat(output.toString(StandardCharsets.UTF_8))
+        .contains("pull : app:1", "Pulling app", "run : project-app");
+  }
+
+  @Test
+  void removeIgnoresMissingContainer() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    containers.add("project-app");
+
+    dockerEngine.remove("project-app", output);
+    dockerEngine.remove("project-app", output);
+
+    assertThat(containers).isEmpty();
+    assertThat(output.toString(StandardCharsets.UTF_8))
+        .contains("remove : project-app", "remove : not found project-app");
+  }
+
+  @Test
+  void buildStreamsProgress(@TempDir Path contextPath) throws IOException {
+    Files.writeString(contextPath.resolve("Dockerfile"), "FROM scratch\n");
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    dockerEngine.build(contextPath.toString(), Set.of("project-app:latest"), output,
+        new CommandCanceller());
+
+    assertThat(output.toString(StandardCharsets.UTF_8))
+        .contains("Step 1/1 : FROM scratch", "image : ", "0123456789ab");
+  }
+
+  @Test
+  void buildFailureKeepsEngineMessage(@TempDir Path contextPath) throws IOException {
+    Files.writeString(contextPath.resolve("Dockerfile"), "FROM scratch\n");
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    buildFails = true;
+
+    assertThatThrownBy(() -> dockerEngine.build(contextPath.toString(),
+        Set.of("project-app:latest"), output, new CommandCanceller()))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("build " + contextPath);
+    assertThat(output.toString(StandardCharsets.UTF_8)).contains("COPY failed");
+  }
+
+  @Test
+  void imageTagsAreNewestFirstAndInUseImagesAreKept() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    List<String> tags = dockerEngine.imageTags("project-app");
+    assertThat(tags).containsExactly("ccc", "bbb", "aaa");
+    assertThat(ImageTagger.expiredTags(tags, "ccc", 1)).containsExactly("aaa");
+
+    dockerEngine.removeImage("project-app:aaa", output);
+    dockerEngine.removeImage("project-app:ccc", output);
+    dockerEngine.removeImage("project-app:zzz", output);
+
+    assertThat(output.toString(StandardCharsets.UTF_8)).contains(
+        "image : removed project-app:aaa", "image : in use project-app:ccc",
+        "image : not found project-app:zzz");
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    // 요청 본문 (build context 등) 을 다 읽은 뒤에 응답한다.
+    exchange.getRequestBody().readAllBytes();
+    String method = exchange.getRequestMethod();
+    String path = exchange.getRequestURI().getPath().replaceFirst("^/v[0-9.]+", "");
+    String query = exchange.getRequestURI().getQuery();
+    requests.add(method + " " + path);
+
+    if ("GET".equals(method) && path.equals("/networks")) {
+      List<String> found = new ArrayList<>();
+      for (String network : networks) {
+        found.add("{\"Name\":\"" + network + "\",\"Id\":\"" + network + "\"}");
+      }
+      respond(exchange, 200, "[" + String.join(",", found) + "]");
+    } else if ("POST".equals(method) && path.equals("/networks/create")) {
+      networks.add("dokkaebi");
+      respond(exchange, 201, "{\"Id\":\"dokkaebi\"}");
+    } else if ("POST".equals(method) && path.equals("/containers/create")) {
+      if (!images.contains("app:1")) {
+        respond(exchange, 404, "{\"message\":\"No such image: app:1\"}");
+        return;
+      }
+      String name = query.substring(query.indexOf("name=") + "name=".length());
+      containers.add(name);
+      respond(exchange, 201, "{\"Id\":\"" + name + "\",\"Warnings\":[]}");
+    } else if ("POST".equals(method) && path.equals("/images/create")) {
+      images.add("app:1");
+      stream(exchange, List.of("{\"status\":\"Pulling app\"}",
+          "{\"status\":\"Status: Downloaded newer image for app:1\"}"));
+    } else if ("POST".equals(method) && path.matches("/containers/[^/]+/start")) {
+      respond(exchange, 204, null);
+    } else if ("DELETE".equals(method) && path.startsWith("/containers/")) {
+      String name = path.substring("/containers/".length());
+      if (!containers.remove(name)) {
+        respond(exchange, 404, "{\"message\":\"No such container: " + name + "\"}");
+        return;
+      }
+      respond(exchange, 204, null);
+    } else if ("GET".equals(method) && path.equals("/images/json")) {
+      // Engine 은 만든 순서를 보장하지 않는다.
+      respond(exchange, 200, "["
+          + "{\"Id\":\"sha256:b\",\"Created\":200,\"RepoTags\":[\"project-app:bbb\"]},"
+          + "{\"Id\":\"sha256:c\",\"Created\":300,\"RepoTags\":[\"project-app:ccc\"]},"
+          + "{\"Id\":\"sha256:a\",\"Created\":100,"
+          + "\"RepoTags\":[\"project-app:aaa\",\"dokkaebi-content:aaa\"]}]");
+    } else if ("DELETE".equals(method) && path.startsWith("/images/")) {
+      String image = path.substring("/images/".length());
+      if (image.endsWith(":ccc")) {
+        respond(exchange, 409, "{\"message\":\"image is being used by running container\"}");
+      } else if (image.endsWith(":zzz")) {
+        respond(exchange, 404, "{\"message\":\"No such image: " + image + "\"}");
+      } else {
+        respond(exchange, 200, "[{\"Untagged\":\"" + image + "\"}]");
+      }
+    } else if ("POST".equals(method) && path.equals("/build")) {
+      if (buildFails) {
+        stream(exchange, List.of("{\"stream\":\"Step 1/1 : FROM scratch\\n\"}",
+            "{\"errorDetail\":{\"message\":\"COPY failed\"},\"error\":\"COPY failed\"}"));
+        return;
+      }
+      stream(exchange, List.of("{\"stream\":\"Step 1/1 : FROM scratch\\n\"}",
+          "{\"aux\":{\"ID\":\"sha256:0123456789ab\"}}",
+          "{\"stream\":\"Successfully built 0123456789ab\\n\"}"));
+    } else {
+      respond(exchange, 404, "{\"message\":\"page not found\"}");
+    }
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body)
+      throws IOException {
+    if (body == null) {
+      exchange.sendResponseHeaders(status, -1);
+      exchange.close();
+      return;
+    }
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(bytes);
+    }
+  }
+
+  // Engine API 처럼 JSON 을 한 줄씩 chunked 로 보낸다.
+  private static void stream(HttpExchange exchange, List<String> lines) throws IOException {
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, 0);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      for (String line : lines) {
+        outputStream.write((line + "\r\n").getBytes(StandardCharsets.UTF_8));
+        outputStream.flush();
+      }
+    }
+  }
+}
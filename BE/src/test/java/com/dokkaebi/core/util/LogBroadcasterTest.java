@@ -0,0 +1,114 @@
+package com.dokkaebi.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 느린 viewer 들을 끊는 동안에도 로그를 쓰는 쪽이 멈추지 않는지 확인한다.
+ */
+class LogBroadcasterTest {
+
+  private static final int MAX_PENDING_LINES = 20000;
+
+  private static final int VIEWERS = 50;
+
+  @Test
+  void slowViewersAreDisconnectedWhileLinesKeepComing(@TempDir Path path) throws Exception {
+    for (int buildNumber = 1; buildNumber <= 5; buildNumber++) {
+      disconnectSlowViewers(path, buildNumber);
+    }
+  }
+
+  private void disconnectSlowViewers(Path path, int buildNumber) throws Exception {
+    LogBroadcaster.open(path.toString(), "Build", buildNumber);
+    CountDownLatch release = new CountDownLatch(1);
+    List<BlockingViewer> viewers = new ArrayList<>();
+    for (int i = 0; i < VIEWERS; i++) {
+      BlockingViewer viewer = new BlockingViewer(release);
+      assertThat(LogBroadcaster.subscribe(path.resolve("Build_" + buildNumber), viewer))
+          .isTrue();
+      viewers.add(viewer);
+    }
+
+    AtomicBoolean stop = new AtomicBoolean();
+    // PumpStreamHandler 처럼 stdout, stderr 두 스레드가 쓴다.
+    List<Thread> writers = List.of(writer(path, buildNumber, "stdout", release, stop),
+        writer(path, buildNumber, "stderr", release, stop));
+    writers.forEach(Thread::start);
+
+    for (BlockingViewer viewer : viewers) {
+      assertThat(viewer.completed.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+    stop.set(true);
+    for (Thread writer : writers) {
+      writer.join(TimeUnit.SECONDS.toMillis(10));
+      assertThat(writer.isAlive()).isFalse();
+    }
+    LogBroadcaster.complete(path.toString(), "Build", buildNumber);
+    for (BlockingViewer viewer : viewers) {
+      assertThat(viewer.completions).isEqualTo(1);
+    }
+  }
+
+  // 느린 viewer 로 끊긴 뒤에도 viewer 가 풀릴 때까지 계속 쓴다.
+  private Thread writer(Path path, int buildNumber, String name, CountDownLatch release,
+      AtomicBoolean stop) {
+    File file = path.resolve("Build_" + buildNumber + "_" + name).toFile();
+    Thread thread = new Thread(() -> {
+      try (OutputStream outputStream = LogBroadcaster.tee(path.toString(), "Build",
+          buildNumber, file, name, false, OutputStream.nullOutputStream())) {
+        for (int i = 0; !stop.get(); i++) {
+          outputStream.write(("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+          if (i == 2 * MAX_PENDING_LINES) {
+            release.countDown();
+          }
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    // 멈춘 스레드가 테스트를 끝내지 못하게 막지 않도록
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  // 풀어 주기 전까지 send 에서 멈춰 있는 viewer
+  private static class BlockingViewer implements LogBroadcaster.Viewer {
+
+    private final CountDownLatch release;
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private volatile int completions = 0;
+
+    private BlockingViewer(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @Override
+    public void send(List<String> lines) throws IOException {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+    }
+
+    @Override
+    public synchronized void complete() {
+      completions++;
+      completed.countDown();
+    }
+  }
+}
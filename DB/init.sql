@@ -73,6 +73,10 @@ CREATE TABLE `dokkaebi`.`project`
     `last_fail_date`     DATETIME     NULL,
 	`recent_build_date`  DATETIME     NULL,
     `last_duration`      VARCHAR(255) NULL,
+    `coalesce_seconds`   INT          NULL,
+    `last_deployed_commit` VARCHAR(60) NULL,
+    `run_mode`           VARCHAR(60)  NULL,
+    `next_build_number`  BIGINT       NOT NULL DEFAULT 1,
     PRIMARY KEY (`project_id`)
 );
 
@@ -84,6 +88,8 @@ CREATE TABLE `dokkaebi`.`gitlab_config`
     `repository_url`         VARCHAR(255) NOT NULL,
     `branch_name`            VARCHAR(255) NOT NULL,
     `git_project_id`         BIGINT       NULL,
+    `clone_strategy`         VARCHAR(60)  NULL,
+    `clone_depth`            INT          NULL,
     `gitlab_access_token_id` BIGINT       NULL,
     `project_id`             BIGINT       NULL,
     PRIMARY KEY (`gitlab_config_id`),
@@ -112,6 +118,26 @@ CREATE TABLE `dokkaebi`.`user`
     PRIMARY KEY (`user_id`)
 );
 
+CREATE TABLE `dokkaebi`.`api_token`
+(
+    `api_token_id`       BIGINT      NOT NULL AUTO_INCREMENT,
+    `user_id`            BIGINT      NOT NULL,
+    `name`               VARCHAR(60) NOT NULL,
+    `prefix`             VARCHAR(12) NOT NULL,
+    `token_hash`         VARCHAR(64) NOT NULL,
+    `last_used_date`     DATETIME    NULL,
+    `regist_date`        DATETIME    NULL,
+    `last_modified_date` DATETIME    NULL,
+    PRIMARY KEY (`api_token_id`),
+    UNIQUE INDEX `uk-api_token-token_hash` (`token_hash` ASC),
+    INDEX `fk-user-api_token_idx` (`user_id` ASC),
+    CONSTRAINT `fk-user-api_token`
+        FOREIGN KEY (`user_id`)
+            REFERENCES `dokkaebi`.`user` (`user_id`)
+            ON DELETE CASCADE
+            ON UPDATE NO ACTION
+);
+
 CREATE TABLE `dokkaebi`.`config_history`
 (
     `config_history_id` BIGINT       NOT NULL AUTO_INCREMENT,
@@ -150,38 +176,67 @@ CREATE TABLE `dokkaebi`.`build_history`
             ON UPDATE NO ACTION
 );
 
+CREATE SEQUENCE `dokkaebi`.`webhook_history_seq` START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE `dokkaebi`.`build_seq` START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE `dokkaebi`.`build_state_seq` START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE `dokkaebi`.`webhook_history`
+(
+    `webhook_history_id` BIGINT       NOT NULL,
+    `event_kind`         VARCHAR(255) NULL,
+    `username`           VARCHAR(255) NULL,
+    `git_http_url`       VARCHAR(255) NULL,
+    `default_branch`     VARCHAR(255) NULL,
+    `repository_name`    VARCHAR(255) NULL,
+    `webhook_state_type` VARCHAR(60)  NULL,
+    PRIMARY KEY (`webhook_history_id`)
+);
+
+CREATE TABLE `dokkaebi`.`build`
+(
+    `build_id`           BIGINT   NOT NULL,
+    `build_number`       BIGINT   NULL,
+    `regist_date`        DATETIME NULL,
+    `last_modified_date` DATETIME NULL,
+    `project_id`         BIGINT   NULL,
+    `webhook_history_id` BIGINT   NULL,
+    PRIMARY KEY (`build_id`),
+    UNIQUE INDEX `uk-build-project_build_number` (`project_id` ASC, `build_number` ASC),
+    INDEX `fk-webhook_history-build_idx` (`webhook_history_id` ASC),
+    CONSTRAINT `fk-project-build`
+        FOREIGN KEY (`project_id`)
+            REFERENCES `dokkaebi`.`project` (`project_id`)
+            ON DELETE NO ACTION
+            ON UPDATE NO ACTION,
+    CONSTRAINT `fk-webhook_history-build`
+        FOREIGN KEY (`webhook_history_id`)
+            REFERENCES `dokkaebi`.`webhook_history` (`webhook_history_id`)
+            ON DELETE NO ACTION
+            ON UPDATE NO ACTION
+);
+
 CREATE TABLE `dokkaebi`.`build_state`
 (
-    `build_state_id`     BIGINT      NOT NULL AUTO_INCREMENT,
+    `build_state_id`     BIGINT      NOT NULL,
     `build_number`       INT         NULL,
     `build_type`         VARCHAR(60) NULL,
     `state_type`         VARCHAR(60) NULL,
+    `skipped_services`   TEXT        NULL,
     `regist_date`        DATETIME    NULL,
     `last_modified_date` DATETIME    NULL,
     `project_id`         BIGINT      NULL,
+    `build_id`           BIGINT      NULL,
     PRIMARY KEY (`build_state_id`),
-    INDEX `fk-project-build_state_idx` (`project_id` ASC),
+    INDEX `idx-build_state-project_build_number` (`project_id` ASC, `build_number` ASC),
+    INDEX `fk-build-build_state_idx` (`build_id` ASC),
     CONSTRAINT `fk-project-build_state`
         FOREIGN KEY (`project_id`)
             REFERENCES `dokkaebi`.`project` (`project_id`)
             ON DELETE NO ACTION
-            ON UPDATE NO ACTION
-);
-
-CREATE TABLE `dokkaebi`.`webhook_history`
-(
-    `webhook_history_id` BIGINT       NOT NULL AUTO_INCREMENT,
-    `event_kind`         VARCHAR(255) NULL,
-    `username`           VARCHAR(255) NULL,
-    `git_http_url`       VARCHAR(255) NULL,
-    `default_branch`     VARCHAR(255) NULL,
-    `repository_name`    VARCHAR(255) NULL,
-    `build_state_id`     BIGINT       NULL,
-    PRIMARY KEY (`webhook_history_id`),
-    INDEX `fk-build_state-webhook_history_idx` (`build_state_id` ASC),
-    CONSTRAINT `fk-build_state-webhook_history`
-        FOREIGN KEY (`build_state_id`)
-            REFERENCES `dokkaebi`.`build_state` (`build_state_id`)
+            ON UPDATE NO ACTION,
+    CONSTRAINT `fk-build-build_state`
+        FOREIGN KEY (`build_id`)
+            REFERENCES `dokkaebi`.`build` (`build_id`)
             ON DELETE NO ACTION
             ON UPDATE NO ACTION
 );
@@ -0,0 +1,39 @@
+import axios from 'axios';
+
+export interface BuildAccepted {
+  status: string;
+  buildId: string;
+}
+
+export interface BuildJob {
+  buildId: string;
+  projectId: number;
+  stateType: string;
+  buildNumber: number | null;
+  supersededBy: string | null;
+  enqueuedDate: string;
+}
+
+// 빌드 요청은 큐에 등록만 하고 202 를 돌려주므로 끝날 때까지 상태를 확인한다.
+// 대체된 요청은 대체한 요청을 따라가고, Done 이면 resolve, Failed 이면 reject 한다.
+export const waitForBuild = (buildId: string, interval = 1000) =>
+  new Promise<BuildJob>((resolve, reject) => {
+    const poll = (id: string) => {
+      axios
+        .get(`/api/project/build/job/${id}`)
+        .then((res) => {
+          const job = res.data as BuildJob;
+          if (job.supersededBy) {
+            poll(job.supersededBy);
+          } else if (job.stateType === 'Done') {
+            resolve(job);
+          } else if (job.stateType === 'Failed') {
+            reject(job);
+          } else {
+            setTimeout(() => poll(id), interval);
+          }
+        })
+        .catch(reject);
+    };
+    poll(buildId);
+  });
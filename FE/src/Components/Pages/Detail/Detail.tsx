@@ -16,6 +16,10 @@ import Stack from '@mui/material/Stack';
 import Button from '@mui/material/Button';
 import { useRunStore } from 'Components/Store/RunStore/RunStore';
 import PlayArrowIcon from '@mui/icons-material/PlayArrow';
+import {
+  BuildAccepted,
+  waitForBuild,
+} from 'Components/MDClass/BuildJobData/BuildJobData';
 
 interface ProjectId {
   projectId: string;
@@ -51,6 +55,7 @@ export default function Detail() {
 
     axios
       .post('/api/project/build', null, { params })
+      .then((res) => waitForBuild((res.data as BuildAccepted).buildId))
       .then(() => {
         setLoading(false);
         setRun(0);
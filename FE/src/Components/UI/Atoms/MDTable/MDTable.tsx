@@ -19,6 +19,10 @@ import DeleteIcon from '@mui/icons-material/Delete';
 import EditIcon from '@mui/icons-material/Edit';
 import StopIcon from '@mui/icons-material/Stop';
 import HourglassTopIcon from '@mui/icons-material/HourglassTop';
+import {
+  BuildAccepted,
+  waitForBuild,
+} from 'Components/MDClass/BuildJobData/BuildJobData';
 
 const StyledTableCell = styled(TableCell)(({ theme }) => ({
   [`&.${tableCellClasses.head}`]: {
@@ -75,6 +79,7 @@ export default function MDTable() {
     const params = { projectId };
     axios
       .post('/api/project/build', null, { params })
+      .then((res) => waitForBuild((res.data as BuildAccepted).buildId))
       .then(() => {
         setLoading(false);
         setRun(0);